@@ -0,0 +1,44 @@
+package fox.fmc.partner.delivery.test.helper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fox.fmc.partner.delivery.test.enums.Action;
+import fox.fmc.partner.delivery.test.enums.PartnerType;
+import fox.fmc.partner.delivery.test.enums.RequestType;
+import fox.fmc.partner.delivery.test.model.request.SqsEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the SQS envelope for a Lambda invocation, alone and serialized to the invoke payload.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LambdaEventBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Benchmark
+    public SqsEvent buildSqsEvent() {
+        return LambdaEventHelper.buildSqsEvent(mapper, RequestType.MANUAL, "A-827476",
+                Action.EPISODE_PUBLISH, PartnerType.SPARK_FTS_PROGRAM);
+    }
+
+    @Benchmark
+    public String buildSqsEventPayload() throws JsonProcessingException {
+        return mapper.writeValueAsString(buildSqsEvent());
+    }
+}
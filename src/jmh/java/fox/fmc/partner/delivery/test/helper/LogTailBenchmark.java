@@ -0,0 +1,89 @@
+package fox.fmc.partner.delivery.test.helper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fox.fmc.partner.delivery.test.model.response.SqsNotificationLogEntry;
+import fox.fmc.partner.delivery.test.utils.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log tail parsing on a recorded CMS delivery invocation: the full log and the truncated 4 KB tail that
+ * Invoke returns. readLogEntry* cover the spec path (three lookups per invocation against the same text).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogTailBenchmark {
+
+    private static final String SQS_MESSAGE = "SQS notification response for A-827476";
+
+    @Param({"FULL", "TAIL_4KB"})
+    public String input;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private String text;
+
+    @Setup
+    public void setup() {
+        text = "FULL".equals(input) ? BenchmarkFixtures.lambdaLog() : BenchmarkFixtures.lambdaLogTail();
+    }
+
+    @Benchmark
+    public LogTailIndex index() {
+        return LogTailIndex.of(text, mapper);
+    }
+
+    @Benchmark
+    public List<JsonNode> legacyParseLogTail() {
+        return legacyParse(text, mapper);
+    }
+
+    /** Repeated reads of the same text are served from the helper's index cache. */
+    @Benchmark
+    public SqsNotificationLogEntry readLogEntry() {
+        return CloudWatchLogTailHelper.readLogEntry(text, SQS_MESSAGE, SqsNotificationLogEntry.class, mapper);
+    }
+
+    /** First read of a new log text: scan, index and bind one entry. */
+    @Benchmark
+    public JsonNode readLogEntryUncached() {
+        return LogTailIndex.of(text, mapper).findByMessage(SQS_MESSAGE);
+    }
+
+    /** parseLogTail before LogTailIndex, kept as the baseline. */
+    private static List<JsonNode> legacyParse(String logTailText, ObjectMapper objectMapper) {
+        if (logTailText == null || logTailText.isBlank()) return List.of();
+
+        List<JsonNode> out = new ArrayList<>();
+        for (String line : logTailText.split("\\r?\\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) continue;
+            int jsonStart = trimmed.indexOf('{');
+            if (jsonStart == -1) continue;
+            try {
+                out.add(objectMapper.readTree(trimmed.substring(jsonStart)));
+            } catch (IOException ignored) {
+                // not JSON
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,56 @@
+package fox.fmc.partner.delivery.test.helper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import fox.fmc.partner.delivery.test.enums.PartnerType;
+import fox.fmc.partner.delivery.test.utils.BenchmarkFixtures;
+import fox.fmc.partner.delivery.test.utils.JsonMappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What one ProgramStatusAwaiter poll costs once the asset body is in hand: parsing the getAssetById response
+ * and reading the partner's delivery statuses from it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProgramStatusSnapshotBenchmark {
+
+    @Param({"0", "2097152"})
+    public int minBytes;
+
+    private String json;
+    private JsonNode root;
+
+    @Setup
+    public void setup() throws IOException {
+        json = (minBytes == 0) ? BenchmarkFixtures.asset() : BenchmarkFixtures.largeAsset(minBytes);
+        root = JsonMappers.MAPPER.readTree(json);
+    }
+
+    @Benchmark
+    public ProgramStatusAwaiter.StatusSnapshot parseAndSnapshot() throws IOException {
+        return ProgramStatusAwaiter.snapshotFrom(JsonMappers.MAPPER.readTree(json), PartnerType.SPARK_FTS_CLIP);
+    }
+
+    /** Revalidated (304) polls reuse the cached tree, so only this part remains. */
+    @Benchmark
+    public ProgramStatusAwaiter.StatusSnapshot snapshotFromParsed() {
+        return ProgramStatusAwaiter.snapshotFrom(root, PartnerType.SPARK_FTS_CLIP);
+    }
+}
@@ -0,0 +1,77 @@
+package fox.fmc.partner.delivery.test.service;
+
+import fox.fmc.partner.delivery.test.standin.StandInBehavior;
+import fox.fmc.partner.delivery.test.standin.StandInServer;
+import io.restassured.specification.RequestSpecification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * One getAssetById against an in-process stand-in with no injected latency, sent the way ServiceBase sends it:
+ * "close" opens a new connection per request ("Connection: close", the default), "pooled" goes through
+ * {@link HttpConnectionPool}. The stand-in is plain HTTP on loopback, so the difference is the TCP setup and
+ * client construction only; against MAM every avoided connection also saves a TLS handshake.
+ * The 8-thread variant checks the pool under the parallel spec mode (clients borrowed per request, shared connections).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MamTransportBenchmark {
+
+    @Param({"close", "pooled"})
+    public String transport;
+
+    private StandInServer server;
+    private HttpConnectionPool pool;
+    private String assetUrl;
+
+    @Setup
+    public void setup() {
+        server = new StandInServer(StandInBehavior.instant(), 0);
+        server.start();
+        assetUrl = server.baseUrl() + "/assets/A-1";
+        if ("pooled".equals(transport)) {
+            pool = HttpConnectionPool.standalone(20, 50);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) pool.shutdown();
+        server.stop();
+    }
+
+    @Benchmark
+    public int getAsset() {
+        return request().get(assetUrl).statusCode();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int getAssetConcurrent() {
+        return request().get(assetUrl).statusCode();
+    }
+
+    private RequestSpecification request() {
+        RequestSpecification spec = (pool != null) ? given().config(pool.restAssuredConfig()).filter(pool.restAssuredFilter()) : given().header("Connection", "close");
+        return spec.header("Authorization", "Bearer benchmark");
+    }
+}
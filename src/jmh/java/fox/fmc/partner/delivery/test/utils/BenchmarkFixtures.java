@@ -0,0 +1,125 @@
+package fox.fmc.partner.delivery.test.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fox.fmc.partner.delivery.test.model.map.MapOfObjects;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmark inputs, built from the recorded fixtures under src/jmh/resources/fixtures.
+ * Everything is deterministic so runs on different machines/commits compare like for like.
+ */
+public final class BenchmarkFixtures {
+
+    /** Lambda returns at most the last 4 KB of the invocation log as LogResult. */
+    public static final int LOG_TAIL_BYTES = 4096;
+
+    private BenchmarkFixtures() {
+        throw new AssertionError();
+    }
+
+    /** Full CloudWatch log of one CMS delivery invocation (START .. REPORT). */
+    public static String lambdaLog() {
+        return resource("lambda-invocation.log");
+    }
+
+    /** What Invoke with LogType=Tail returns: the last 4 KB, usually starting mid-entry. */
+    public static String lambdaLogTail() {
+        byte[] full = lambdaLog().getBytes(StandardCharsets.UTF_8);
+        int from = Math.max(0, full.length - LOG_TAIL_BYTES);
+        return new String(Arrays.copyOfRange(full, from, full.length), StandardCharsets.UTF_8);
+    }
+
+    /** getAssetById response for an FTS program (Asset Info / FTS Program Info / Delivery Info). */
+    public static String asset() {
+        return resource("asset-fts-program.json");
+    }
+
+    /**
+     * The recorded asset grown to at least {@code minBytes} by repeating its renditions and delivery entries,
+     * the parts that get big on real long-running assets.
+     */
+    public static String largeAsset(int minBytes) {
+        try {
+            ObjectNode root = (ObjectNode) JsonMappers.MAPPER.readTree(asset());
+            ObjectNode metadata = (ObjectNode) root.path("data").path("metadata");
+            ArrayNode renditions = (ArrayNode) metadata.path("Renditions");
+            ObjectNode deliveryInfo = (ObjectNode) metadata.path("Asset Info").path("Delivery Info");
+            List<JsonNode> renditionTemplates = new ArrayList<>();
+            renditions.forEach(renditionTemplates::add);
+            List<JsonNode> deliveryTemplates = new ArrayList<>();
+            deliveryInfo.forEach(deliveryTemplates::add);
+
+            String json = JsonMappers.MAPPER.writeValueAsString(root);
+            int copy = 0;
+            while (json.length() < minBytes) {
+                for (int i = 0; i < 64; i++, copy++) {
+                    ObjectNode r = renditionTemplates.get(copy % renditionTemplates.size()).deepCopy();
+                    r.put("name", "mezz_copy_" + copy);
+                    renditions.add(r);
+                    deliveryInfo.set(String.valueOf(deliveryInfo.size()),
+                            deliveryTemplates.get(copy % deliveryTemplates.size()).deepCopy());
+                }
+                json = JsonMappers.MAPPER.writeValueAsString(root);
+            }
+            return json;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Data-table rows as the specs feed them to evaluateMapForKeywords: mostly plain values with keywords
+     * sprinkled in, and the same cell texts repeating across rows.
+     */
+    public static List<MapOfObjects> keywordRows(int rows) {
+        List<MapOfObjects> out = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            MapOfObjects row = new MapOfObjects();
+            row.put("assetId", "A-" + (827000 + i % 50));
+            row.put("partner", (i % 2 == 0) ? "SPARK_FTS_PROGRAM" : "SPARK_FTS_CLIP");
+            row.put("action", "EPISODE_PUBLISH");
+            row.put("title", (i % 7 == 0) ? "EMPTY" : "The Simpsons S36E" + (i % 22 + 1));
+            row.put("description", (i % 5 == 0) ? "NOT-PRESENT" : "Springfield's finest");
+            row.put("rating", (i % 9 == 0) ? "NULL" : "TV-PG");
+            row.put("closedCaptions", (i % 2 == 0) ? "TRUE" : "FALSE");
+            row.put("padding", (i % 3 == 0) ? "SPACES:5" : "none");
+            row.put("longTitle", "PADSTRING:abc:" + (250 + i % 3));
+            row.put("programId", "PADNUM:123:12");
+            row.put("season", "NUMBER:36");
+            row.put("customFields", (i % 4 == 0) ? "EMPTYOBJECT" : "n/a");
+            row.put("extra", (i % 10 == 0)
+                    ? "{\"network\":\"FOX\",\"genres\":[\"Animation\",\"Comedy\"],\"runtime\":1302}"
+                    : "plain");
+            row.put("expectedStatus", 200);
+            out.add(row);
+        }
+        return out;
+    }
+
+    /** Deep-enough copy of the rows for benchmarks whose target mutates its input. */
+    public static List<MapOfObjects> copyRows(List<MapOfObjects> rows) {
+        List<MapOfObjects> copy = new ArrayList<>(rows.size());
+        for (MapOfObjects row : rows) {
+            copy.add(new MapOfObjects(row));
+        }
+        return copy;
+    }
+
+    private static String resource(String name) {
+        try (InputStream in = BenchmarkFixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) throw new IllegalStateException("Missing fixture " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
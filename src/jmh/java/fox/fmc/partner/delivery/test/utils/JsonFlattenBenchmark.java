@@ -0,0 +1,64 @@
+package fox.fmc.partner.delivery.test.utils;
+
+import fox.fmc.partner.delivery.test.model.map.MapOfObjects;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * jsonToMapFlattener / _v2 on a recorded asset and on the same asset grown to ~2 MB.
+ * Compare with -prof gc: the legacy variants allocate the whole JsonNode tree before the map.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonFlattenBenchmark {
+
+    @Param({"0", "2097152"})
+    public int minBytes;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        json = (minBytes == 0) ? BenchmarkFixtures.asset() : BenchmarkFixtures.largeAsset(minBytes);
+    }
+
+    @Benchmark
+    public MapOfObjects flattenV1() {
+        return JsonObjectMapper.jsonToMapFlattener(json);
+    }
+
+    @Benchmark
+    public MapOfObjects flattenV2() {
+        return JsonObjectMapper.jsonToMapFlattener_v2(json);
+    }
+
+    @Benchmark
+    public MapOfObjects flattenV2MetadataOnly() {
+        return StreamingJsonFlattener.V2.onlyUnder("data.metadata.Asset Info").flatten(json);
+    }
+
+    @Benchmark
+    public MapOfObjects legacyFlattenV1() {
+        return LegacyJsonObjectMapper.jsonToMapFlattener(json);
+    }
+
+    @Benchmark
+    public MapOfObjects legacyFlattenV2() {
+        return LegacyJsonObjectMapper.jsonToMapFlattener_v2(json);
+    }
+}
@@ -0,0 +1,55 @@
+package fox.fmc.partner.delivery.test.utils;
+
+import fox.fmc.partner.delivery.test.model.map.MapOfObjects;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * evaluateMapForKeywords over a data table. Both variants evaluate fresh row copies (the method works in place),
+ * so the copy cost is the same on each side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeywordEvaluationBenchmark {
+
+    @Param({"1000"})
+    public int rows;
+
+    private List<MapOfObjects> table;
+
+    @Setup
+    public void setup() {
+        table = BenchmarkFixtures.keywordRows(rows);
+    }
+
+    @Benchmark
+    public void compiled(Blackhole bh) {
+        for (MapOfObjects row : BenchmarkFixtures.copyRows(table)) {
+            bh.consume(JsonObjectMapper.evaluateMapForKeywords(row));
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        for (MapOfObjects row : BenchmarkFixtures.copyRows(table)) {
+            bh.consume(LegacyJsonObjectMapper.evaluateMapForKeywords(row));
+        }
+    }
+}
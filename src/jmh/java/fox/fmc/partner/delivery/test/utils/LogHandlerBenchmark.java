@@ -0,0 +1,73 @@
+package fox.fmc.partner.delivery.test.utils;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fox.fmc.partner.delivery.test.model.map.MapOfObjects;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LogHandler print paths with the level off (the common CI case) and on. Log4j calls are routed to logback by
+ * Spring Boot's logging starter; appenders are detached so only the formatting cost is measured.
+ * prettyWriter* compare the shared JsonMappers writer with the per-call ObjectMapper it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogHandlerBenchmark {
+
+    @Param({"OFF", "DEBUG"})
+    public String level;
+
+    private MapOfObjects row;
+
+    @Setup
+    public void setup() {
+        Logger root = (Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.setLevel(Level.toLevel(level));
+        row = BenchmarkFixtures.keywordRows(1).get(0);
+    }
+
+    @Benchmark
+    public void debugPrintMap() {
+        LogHandler.debugPrintMap(row);
+    }
+
+    @Benchmark
+    public void debugPrintIndented() {
+        LogHandler.debugPrint(2, "Asset {} delivered to {}", row.get("assetId"), row.get("partner"));
+    }
+
+    @Benchmark
+    public void reportPrintSupplier() {
+        LogHandler.reportPrint(() -> "Row: " + row);
+    }
+
+    @Benchmark
+    public String prettyWriterShared() throws JsonProcessingException {
+        return JsonMappers.PRETTY_WRITER.writeValueAsString(row);
+    }
+
+    @Benchmark
+    public String prettyWriterNewMapper() throws JsonProcessingException {
+        return new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(row);
+    }
+}
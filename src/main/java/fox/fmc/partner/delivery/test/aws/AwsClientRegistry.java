@@ -0,0 +1,216 @@
+package fox.fmc.partner.delivery.test.aws;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.lambda.AWSLambda;
+import com.amazonaws.services.lambda.AWSLambdaAsync;
+import com.amazonaws.services.lambda.AWSLambdaAsyncClientBuilder;
+import com.amazonaws.services.lambda.AWSLambdaClientBuilder;
+import com.amazonaws.services.logs.AWSLogs;
+import com.amazonaws.services.logs.AWSLogsClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.AmazonSQSClientBuilder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Shared AWS clients, built once per (service, profile, region) and shut down with the Spring context.
+ * AWS SDK v1 clients are thread-safe and own their connection pool, so they should be reused across calls.
+ * With {@code aws.endpoint.override} set (e.g. http://localhost:4566) every client talks to that endpoint
+ * with dummy credentials instead of AWS, for local stand-ins and offline load runs.
+ */
+@Component
+public class AwsClientRegistry {
+    private static final Logger log = LoggerFactory.getLogger(AwsClientRegistry.class);
+
+    private final AwsUtils awsUtils;
+    private final String profileName;
+    private final String awsRegion;
+
+    // upper bound on concurrent HTTP connections of the async Lambda client
+    private final int lambdaAsyncMaxConnections;
+
+    // empty = real AWS endpoints
+    private final String endpointOverride;
+
+    private final Map<ClientKey, Object> clients = new ConcurrentHashMap<>();
+
+    private static final AWSCredentialsProvider OVERRIDE_CREDENTIALS =
+            new AWSStaticCredentialsProvider(new BasicAWSCredentials("test", "test"));
+
+    @Autowired
+    public AwsClientRegistry(AwsUtils awsUtils,
+                             @Value("${aws.profile.name}") String profileName,
+                             @Value("${aws.region}") String awsRegion,
+                             @Value("${aws.lambda.async.maxConnections:50}") int lambdaAsyncMaxConnections,
+                             @Value("${aws.endpoint.override:}") String endpointOverride) {
+        this.awsUtils = awsUtils;
+        this.profileName = profileName;
+        this.awsRegion = awsRegion;
+        this.lambdaAsyncMaxConnections = lambdaAsyncMaxConnections;
+        this.endpointOverride = endpointOverride;
+    }
+
+    private enum Service { SQS, LAMBDA, LAMBDA_ASYNC, LOGS, S3, DYNAMODB }
+
+    private record ClientKey(Service service, String profile, String region) {}
+
+    // ------------------------------
+    // Clients for the configured profile/region
+    // ------------------------------
+
+    public AmazonSQS sqs() {
+        return sqs(profileName, awsRegion);
+    }
+
+    public AWSLambda lambda() {
+        return lambda(profileName, awsRegion);
+    }
+
+    public AWSLambdaAsync lambdaAsync() {
+        return lambdaAsync(profileName, awsRegion);
+    }
+
+    public AWSLogs logs() {
+        return logs(profileName, awsRegion);
+    }
+
+    public AmazonS3 s3() {
+        return s3(profileName, awsRegion);
+    }
+
+    public AmazonDynamoDB dynamoDb() {
+        return dynamoDb(profileName, awsRegion);
+    }
+
+    // ------------------------------
+    // Clients for an explicit profile/region
+    // ------------------------------
+
+    public AmazonSQS sqs(String profile, String region) {
+        return client(Service.SQS, profile, region, AmazonSQS.class,
+                () -> located(AmazonSQSClientBuilder.standard(), profile, region).build());
+    }
+
+    public AWSLambda lambda(String profile, String region) {
+        return client(Service.LAMBDA, profile, region, AWSLambda.class,
+                () -> located(AWSLambdaClientBuilder.standard(), profile, region).build());
+    }
+
+    /**
+     * Async Lambda client. SDK v1 runs each call on the client's executor; it is backed by virtual threads
+     * so callers never block and in-flight calls are bounded by the connection pool instead of a thread pool.
+     */
+    public AWSLambdaAsync lambdaAsync(String profile, String region) {
+        return client(Service.LAMBDA_ASYNC, profile, region, AWSLambdaAsync.class,
+                () -> located(AWSLambdaAsyncClientBuilder.standard(), profile, region)
+                        .withClientConfiguration(new ClientConfiguration().withMaxConnections(lambdaAsyncMaxConnections))
+                        .withExecutorFactory(Executors::newVirtualThreadPerTaskExecutor)
+                        .build());
+    }
+
+    public AWSLogs logs(String profile, String region) {
+        return client(Service.LOGS, profile, region, AWSLogs.class,
+                () -> located(AWSLogsClientBuilder.standard(), profile, region).build());
+    }
+
+    public AmazonS3 s3(String profile, String region) {
+        return client(Service.S3, profile, region, AmazonS3.class,
+                () -> located(AmazonS3ClientBuilder.standard(), profile, region)
+                        // local S3 stand-ins don't resolve bucket subdomains
+                        .withPathStyleAccessEnabled(isEndpointOverridden())
+                        .build());
+    }
+
+    public AmazonDynamoDB dynamoDb(String profile, String region) {
+        return client(Service.DYNAMODB, profile, region, AmazonDynamoDB.class,
+                () -> located(AmazonDynamoDBClientBuilder.standard(), profile, region).build());
+    }
+
+    public boolean isEndpointOverridden() {
+        return !endpointOverride.isBlank();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clients.forEach((key, client) -> {
+            try {
+                shutdownClient(client);
+                log.info("Shut down {} client (region={}, profile='{}')", key.service(), key.region(), key.profile());
+            } catch (Exception e) {
+                log.warn("Failed to shut down {} client: {}", key.service(), e.getMessage());
+            }
+        });
+        clients.clear();
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    /** Region + profile credentials, or the override endpoint with dummy credentials. */
+    private <B extends AwsClientBuilder<B, ?>> B located(B builder, String profile, String region) {
+        if (isEndpointOverridden()) {
+            return builder
+                    .withEndpointConfiguration(new EndpointConfiguration(endpointOverride, region))
+                    .withCredentials(OVERRIDE_CREDENTIALS);
+        }
+        return builder
+                .withRegion(region)
+                .withCredentials(credentials(profile));
+    }
+
+    /**
+     * Named profile through AwsUtils; a blank profile falls back to the default chain (env, instance role,
+     * IRSA / container credentials), as the Lambda client did before the registry.
+     */
+    private AWSCredentialsProvider credentials(String profile) {
+        if (profile == null || profile.isBlank()) {
+            return DefaultAWSCredentialsProviderChain.getInstance();
+        }
+        return awsUtils.getAWSCredentialsProvider(profile);
+    }
+
+    private <T> T client(Service service, String profile, String region, Class<T> type, Supplier<T> builder) {
+        ClientKey key = new ClientKey(service, Objects.toString(profile, ""), region);
+        Object client = clients.computeIfAbsent(key, k -> {
+            T built = builder.get();
+            log.info("Built shared {} client (region={}, profile='{}')", service, region, k.profile());
+            return built;
+        });
+        return type.cast(client);
+    }
+
+    private static void shutdownClient(Object client) {
+        if (client instanceof AmazonSQS c) {
+            c.shutdown();
+        } else if (client instanceof AWSLambda c) {
+            c.shutdown();
+        } else if (client instanceof AWSLogs c) {
+            c.shutdown();
+        } else if (client instanceof AmazonS3 c) {
+            c.shutdown();
+        } else if (client instanceof AmazonDynamoDB c) {
+            c.shutdown();
+        }
+    }
+}
@@ -1,13 +1,15 @@
 package fox.fmc.partner.delivery.test.aws;
 
-import com.amazonaws.auth.AWSCredentialsProvider;
-import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
-import com.amazonaws.auth.profile.ProfileCredentialsProvider;
+import com.amazonaws.handlers.AsyncHandler;
 import com.amazonaws.services.lambda.AWSLambda;
-import com.amazonaws.services.lambda.AWSLambdaClientBuilder;
+import com.amazonaws.services.lambda.AWSLambdaAsync;
 import com.amazonaws.services.lambda.model.InvokeRequest;
 import com.amazonaws.services.lambda.model.InvokeResult;
 import com.amazonaws.services.lambda.model.LogType;
+import fox.fmc.partner.delivery.test.cassette.Cassette;
+import fox.fmc.partner.delivery.test.jfr.LambdaInvokeEvent;
+import fox.fmc.partner.delivery.test.telemetry.DeliveryTracer;
+import fox.fmc.partner.delivery.test.telemetry.MetricsRegistry;
 import org.apache.commons.codec.binary.Base64;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,24 +21,45 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 @Component
 public class AwsLambdaUtils {
     private static final Logger log = LoggerFactory.getLogger(AwsLambdaUtils.class);
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
-    // lazy init; may stay null if we never actually touch AWS
-    private volatile AWSLambda client;
+    // shared client; built on first use so we never touch AWS unless a spec invokes a Lambda
+    @Autowired
+    private AwsClientRegistry clientRegistry;
+
+    // records / replays InvokeResults when partnerDelivery.cassette.mode is RECORD / REPLAY
+    @Autowired
+    private Cassette cassette;
+
+    // cold-start rate and memory headroom per function version, from the REPORT line of each log tail
+    @Autowired
+    private LambdaExecutionStatsRegistry executionStatsRegistry;
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
 
+    // end-to-end delivery timeline per LambdaRequest.corrId
     @Autowired
-    private AwsUtils awsUtils;
+    private DeliveryTracer deliveryTracer;
 
-    @Value("${aws.profile.name}")
-    private String profileName;
+    @Value("${partnerDelivery.lambda.fanOut.maxInFlight:16}")
+    private int fanOutMaxInFlight;
 
-    @Value("${aws.region}")
-    private String awsRegion;
+    @Value("${partnerDelivery.lambda.fanOut.timeoutSeconds:120}")
+    private long fanOutTimeoutSeconds;
 
     /**
      * Invocation modes for Lambda.
@@ -57,6 +80,7 @@ public class AwsLambdaUtils {
         public final String executedVersion; // e.g., "$LATEST" or alias-resolved version
         public final String requestId;       // AWS SDK request id (not the Lambda context id)
         public final String payloadText;     // raw payload as UTF-8 string
+        public final LambdaExecutionStats executionStats; // from the REPORT line; null without a log tail
 
         public LambdaInvocationResult(int statusCode,
                                       String functionError,
@@ -64,12 +88,29 @@ public class AwsLambdaUtils {
                                       String executedVersion,
                                       String requestId,
                                       String payloadText) {
+            this(statusCode, functionError, logTail, executedVersion, requestId, payloadText,
+                    LambdaExecutionStats.parse(logTail));
+        }
+
+        public LambdaInvocationResult(int statusCode,
+                                      String functionError,
+                                      String logTail,
+                                      String executedVersion,
+                                      String requestId,
+                                      String payloadText,
+                                      LambdaExecutionStats executionStats) {
             this.statusCode = statusCode;
             this.functionError = functionError;
             this.logTail = logTail;
             this.executedVersion = executedVersion;
             this.requestId = requestId;
             this.payloadText = payloadText;
+            this.executionStats = executionStats;
+        }
+
+        /** True when the platform reported an Init (or SnapStart Restore) Duration for this invocation. */
+        public boolean isColdStart() {
+            return executionStats != null && executionStats.isColdStart();
         }
 
         public boolean isOk() {
@@ -93,38 +134,116 @@ public class AwsLambdaUtils {
                     ", executedVersion='" + executedVersion + '\'' +
                     ", requestId='" + requestId + '\'' +
                     ", hasLogTail=" + (logTail != null) +
+                    (executionStats == null ? "" : ", executionStats=" + executionStats) +
                     '}';
         }
     }
 
     /**
-     * Lazily builds the Lambda client the first time it's needed.
+     * Outcome of {@link #invokeAll}; all lists are in payload order.
      */
-    private AWSLambda buildClient() {
-        AWSLambda c = client;
-        if (c == null) {
-            synchronized (this) {
-                if (client == null) {
-                    AWSCredentialsProvider creds;
-                    if (profileName != null && !profileName.isBlank()) {
-                        creds = new ProfileCredentialsProvider(profileName);
-                        log.info("Using AWS profile '{}'", profileName);
-                    } else {
-                        creds = DefaultAWSCredentialsProviderChain.getInstance();
-                        log.info("Using DefaultAWSCredentialsProviderChain");
-                    }
+    public static class FanOutResult {
+        public final List<LambdaInvocationResult> results; // null where the invocation threw
+        public final List<Throwable> errors;               // null where the invocation returned
+        public final long wallClockMillis;
+        public final LatencySummary latency;
+
+        public FanOutResult(List<LambdaInvocationResult> results,
+                            List<Throwable> errors,
+                            long wallClockMillis,
+                            LatencySummary latency) {
+            this.results = results;
+            this.errors = errors;
+            this.wallClockMillis = wallClockMillis;
+            this.latency = latency;
+        }
 
-                    client = AWSLambdaClientBuilder.standard()
-                            .withRegion(awsRegion)
-                            .withCredentials(creds)
-                            .build();
-                    log.info("Built Lambda client (region={}, profile='{}')",
-                            awsRegion, (profileName == null ? "" : profileName));
-                }
-                c = client;
+        public long failedCount() {
+            return errors.stream().filter(Objects::nonNull).count();
+        }
+
+        /** True when every invocation returned and reported no function error. */
+        public boolean allOk() {
+            return results.stream().allMatch(r -> r != null && r.isOk());
+        }
+
+        @Override
+        public String toString() {
+            return "FanOutResult{" +
+                    "invocations=" + results.size() +
+                    ", failed=" + failedCount() +
+                    ", wallClockMillis=" + wallClockMillis +
+                    ", latency=" + latency +
+                    '}';
+        }
+    }
+
+    /**
+     * Nearest-rank latency percentiles in milliseconds.
+     */
+    public static class LatencySummary {
+        public final int count;
+        public final long min;
+        public final long p50;
+        public final long p90;
+        public final long p95;
+        public final long p99;
+        public final long max;
+        public final double mean;
+
+        private LatencySummary(int count, long min, long p50, long p90, long p95, long p99, long max, double mean) {
+            this.count = count;
+            this.min = min;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.max = max;
+            this.mean = mean;
+        }
+
+        public static LatencySummary of(long[] latenciesMillis) {
+            if (latenciesMillis.length == 0) {
+                return new LatencySummary(0, 0, 0, 0, 0, 0, 0, 0);
             }
+            long[] sorted = latenciesMillis.clone();
+            Arrays.sort(sorted);
+            return new LatencySummary(sorted.length,
+                    sorted[0],
+                    percentile(sorted, 50),
+                    percentile(sorted, 90),
+                    percentile(sorted, 95),
+                    percentile(sorted, 99),
+                    sorted[sorted.length - 1],
+                    Arrays.stream(sorted).average().orElse(0));
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+            return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+        }
+
+        @Override
+        public String toString() {
+            return "LatencySummary{" +
+                    "count=" + count +
+                    ", min=" + min +
+                    ", p50=" + p50 +
+                    ", p90=" + p90 +
+                    ", p95=" + p95 +
+                    ", p99=" + p99 +
+                    ", max=" + max +
+                    ", mean=" + String.format("%.1f", mean) +
+                    '}';
         }
-        return c;
+    }
+
+    private AWSLambda client() {
+        return clientRegistry.lambda();
+    }
+
+    private AWSLambdaAsync asyncClient() {
+        return clientRegistry.lambdaAsync();
     }
 
     // ------------------------------
@@ -159,65 +278,179 @@ public class AwsLambdaUtils {
                                          InvocationMode mode,
                                          String qualifier,
                                          boolean includeLogTail) {
-        try {
-            var req = new InvokeRequest()
-                    .withFunctionName(functionName)
-                    .withPayload(jsonPayload == null ? "" : jsonPayload);
-
-            switch (mode) {
-                case REQUEST_RESPONSE -> req.withInvocationType("RequestResponse");
-                case EVENT -> req.withInvocationType("Event");
-                case DRY_RUN -> req.withInvocationType("DryRun");
-            }
-
-            if (qualifier != null && !qualifier.isBlank()) {
-                req.withQualifier(qualifier);
-            }
+        return invoke(functionName, jsonPayload, mode, qualifier, includeLogTail, null);
+    }
 
-            if (includeLogTail) {
-                req.withLogType(LogType.Tail);
+    /**
+     * Fully-configurable invoker with a client-side execution timeout.
+     *
+     * @param timeout total time allowed for the call (including SDK retries); null = SDK default
+     */
+    public LambdaInvocationResult invoke(String functionName,
+                                         String jsonPayload,
+                                         InvocationMode mode,
+                                         String qualifier,
+                                         boolean includeLogTail,
+                                         Duration timeout) {
+        LambdaInvokeEvent event = new LambdaInvokeEvent();
+        event.begin();
+        long started = System.nanoTime();
+        InvokeRequest req = null;
+        LambdaInvocationResult out = null;
+        try {
+            req = buildRequest(functionName, jsonPayload, mode, qualifier, includeLogTail);
+            if (timeout != null) {
+                req.setSdkClientExecutionTimeout((int) Math.min(Integer.MAX_VALUE, timeout.toMillis()));
             }
 
             log.info("Invoking Lambda: function='{}', mode={}, qualifier='{}', logTail={}",
                     functionName, mode, (qualifier == null ? "" : qualifier), includeLogTail);
 
-            InvokeResult res = buildClient().invoke(req);
+            InvokeRequest sent = req;
+            InvokeResult res = cassette.invoke(sent, () -> client().invoke(sent));
+            out = track(functionName, toResult(res, includeLogTail));
+            return out;
+        } catch (Exception e) {
+            throw new RuntimeException("Lambda invocation failed: " + functionName, e);
+        } finally {
+            observe(event, started, functionName, req, out);
+        }
+    }
 
-            String logTail = null;
-            if (includeLogTail && res.getLogResult() != null) {
-                byte[] decoded = Base64.decodeBase64(res.getLogResult());
-                logTail = new String(decoded, StandardCharsets.UTF_8);
+    /**
+     * Invokes the function once per payload (sync, with log tail) using virtual threads,
+     * with at most {@code maxInFlight} invocations running at the same time.
+     * A failing invocation does not cancel the others; its error is reported at the same index.
+     *
+     * @param payloads       JSON strings or objects (auto-serialized to JSON)
+     * @param maxInFlight    upper bound on concurrent invocations
+     * @param perCallTimeout client-side timeout for each invocation; null = SDK default
+     * @return results and errors in input order plus latency percentiles
+     */
+    public FanOutResult invokeAll(String functionName,
+                                  List<?> payloads,
+                                  int maxInFlight,
+                                  Duration perCallTimeout) {
+        int n = payloads.size();
+        LambdaInvocationResult[] results = new LambdaInvocationResult[n];
+        Throwable[] errors = new Throwable[n];
+        long[] latencies = new long[n];
+        Semaphore inFlight = new Semaphore(Math.max(1, maxInFlight));
+
+        log.info("Fan-out invoking Lambda '{}' with {} payloads ({} in flight, timeout={})",
+                functionName, n, maxInFlight, perCallTimeout);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < n; i++) {
+                final int index = i;
+                final Object payload = payloads.get(i);
+                inFlight.acquireUninterruptibly();
+                executor.submit(() -> {
+                    long callStart = System.nanoTime();
+                    try {
+                        String json = (payload instanceof String s) ? s : toJson(payload);
+                        results[index] = invoke(functionName, json, InvocationMode.REQUEST_RESPONSE,
+                                null, true, perCallTimeout);
+                    } catch (Throwable t) {
+                        errors[index] = t;
+                    } finally {
+                        latencies[index] = (System.nanoTime() - callStart) / 1_000_000;
+                        inFlight.release();
+                    }
+                });
             }
+        }
+        long wallClockMillis = (System.nanoTime() - start) / 1_000_000;
 
-            String payloadText = (res.getPayload() == null)
-                    ? ""
-                    : new String(res.getPayload().array(), StandardCharsets.UTF_8);
-
-            String requestId = (res.getSdkResponseMetadata() != null)
-                    ? res.getSdkResponseMetadata().getRequestId()
-                    : null;
-
-            var out = new LambdaInvocationResult(
-                    res.getStatusCode(),
-                    res.getFunctionError(),
-                    logTail,
-                    res.getExecutedVersion(),
-                    requestId,
-                    payloadText
-            );
-
-            if (out.functionError != null) {
-                log.warn("Lambda function error: {}", out.functionError);
-            }
-            log.debug("Lambda payload (truncated 1k): {}", truncate(payloadText, 1024));
-            if (includeLogTail && logTail != null) {
-                log.debug("Lambda log tail (truncated 1k): {}", truncate(logTail, 1024));
+        var out = new FanOutResult(Arrays.asList(results), Arrays.asList(errors),
+                wallClockMillis, LatencySummary.of(latencies));
+        log.info("Fan-out finished: {}", out);
+        return out;
+    }
+
+    /**
+     * Fan-out with the configured defaults ({@code partnerDelivery.lambda.fanOut.*}).
+     */
+    public FanOutResult invokeAll(String functionName, List<?> payloads) {
+        return invokeAll(functionName, payloads, fanOutMaxInFlight, Duration.ofSeconds(fanOutTimeoutSeconds));
+    }
+
+    // ------------------------------
+    // Non-blocking invoker API
+    // ------------------------------
+
+    /**
+     * Non-blocking invoke with string payload, synchronous on the Lambda side, with log tail.
+     */
+    public CompletableFuture<LambdaInvocationResult> invokeFuture(String functionName, String jsonPayload) {
+        return invokeFuture(functionName, jsonPayload, InvocationMode.REQUEST_RESPONSE, null, true);
+    }
+
+    /**
+     * Non-blocking invoke with object payload (auto-serialized to JSON), with log tail.
+     */
+    public CompletableFuture<LambdaInvocationResult> invokeFuture(String functionName, Object payloadObj) {
+        return invokeFuture(functionName, toJson(payloadObj), InvocationMode.REQUEST_RESPONSE, null, true);
+    }
+
+    /**
+     * Fully-configurable non-blocking invoker backed by the async Lambda client.
+     * The calling thread returns immediately; the future completes with the same result
+     * {@link #invoke(String, String, InvocationMode, String, boolean)} would return, or exceptionally
+     * with a RuntimeException wrapping the SDK error.
+     */
+    public CompletableFuture<LambdaInvocationResult> invokeFuture(String functionName,
+                                                                  String jsonPayload,
+                                                                  InvocationMode mode,
+                                                                  String qualifier,
+                                                                  boolean includeLogTail) {
+        CompletableFuture<LambdaInvocationResult> future = new CompletableFuture<>();
+        LambdaInvokeEvent event = new LambdaInvokeEvent();
+        event.begin();
+        long started = System.nanoTime();
+        try {
+            var req = buildRequest(functionName, jsonPayload, mode, qualifier, includeLogTail);
+            // the event ends on whichever thread completes the future
+            future.whenComplete((out, e) -> observe(event, started, functionName, req, out));
+
+            log.info("Invoking Lambda (non-blocking): function='{}', mode={}, qualifier='{}', logTail={}",
+                    functionName, mode, (qualifier == null ? "" : qualifier), includeLogTail);
+
+            if (cassette.isReplaying()) {
+                // recorded waits are replayed off the caller's thread, like the async client would
+                Thread.ofVirtual().start(() -> {
+                    try {
+                        future.complete(track(functionName, toResult(cassette.replayInvoke(req), includeLogTail)));
+                    } catch (Exception e) {
+                        future.completeExceptionally(new RuntimeException("Lambda invocation failed: " + functionName, e));
+                    }
+                });
+                return future;
             }
 
-            return out;
+            asyncClient().invokeAsync(req, new AsyncHandler<InvokeRequest, InvokeResult>() {
+                @Override
+                public void onError(Exception e) {
+                    future.completeExceptionally(new RuntimeException("Lambda invocation failed: " + functionName, e));
+                }
+
+                @Override
+                public void onSuccess(InvokeRequest request, InvokeResult res) {
+                    try {
+                        if (cassette.isRecording()) {
+                            cassette.recordInvoke(request, res, System.nanoTime() - started);
+                        }
+                        future.complete(track(functionName, toResult(res, includeLogTail)));
+                    } catch (Exception e) {
+                        future.completeExceptionally(new RuntimeException("Lambda invocation failed: " + functionName, e));
+                    }
+                }
+            });
         } catch (Exception e) {
-            throw new RuntimeException("Lambda invocation failed: " + functionName, e);
+            future.completeExceptionally(new RuntimeException("Lambda invocation failed: " + functionName, e));
         }
+        return future;
     }
 
     // Convenience for async (fire-and-forget)
@@ -239,6 +472,123 @@ public class AwsLambdaUtils {
     // Internals
     // ------------------------------
 
+    private static InvokeRequest buildRequest(String functionName,
+                                              String jsonPayload,
+                                              InvocationMode mode,
+                                              String qualifier,
+                                              boolean includeLogTail) {
+        var req = new InvokeRequest()
+                .withFunctionName(functionName)
+                .withPayload(jsonPayload == null ? "" : jsonPayload);
+
+        switch (mode) {
+            case REQUEST_RESPONSE -> req.withInvocationType("RequestResponse");
+            case EVENT -> req.withInvocationType("Event");
+            case DRY_RUN -> req.withInvocationType("DryRun");
+        }
+
+        if (qualifier != null && !qualifier.isBlank()) {
+            req.withQualifier(qualifier);
+        }
+
+        if (includeLogTail) {
+            req.withLogType(LogType.Tail);
+        }
+        return req;
+    }
+
+    /**
+     * Ends the JFR event, records the "lambda.invoke" timer and the delivery trace; {@code out} is null when
+     * the call threw.
+     */
+    private void observe(LambdaInvokeEvent event, long startedNanos, String functionName,
+                         InvokeRequest req, LambdaInvocationResult out) {
+        event.end();
+        long endedNanos = System.nanoTime();
+        boolean traced = out != null && out.isOk() && deliveryTracer.isEnabled();
+        boolean commit = event.shouldCommit();
+        // decoding the payload and scanning it for the fields is only paid for when something records them
+        if (!metricsRegistry.isEnabled() && !traced && !commit) return;
+        String payload = (req == null || req.getPayload() == null) ? ""
+                : StandardCharsets.UTF_8.decode(req.getPayload().duplicate()).toString();
+        DeliveryTracer.EventFields fields = DeliveryTracer.EventFields.of(payload);
+        if (metricsRegistry.isEnabled()) {
+            String outcome = (out == null) ? "exception" : out.isOk() ? "ok" : "function_error";
+            metricsRegistry.recordNanos("lambda.invoke", endedNanos - startedNanos,
+                    "function", functionName,
+                    "partner", fields.partner(),
+                    "action", fields.action(),
+                    "outcome", outcome);
+            if (out != null && out.isColdStart()) {
+                metricsRegistry.increment("lambda.cold_starts", "function", functionName);
+            }
+        }
+        if (traced) {
+            deliveryTracer.invoked(fields, startedNanos, endedNanos, out.requestId, out.executionStats);
+        }
+        if (!commit) return;
+        event.functionName = functionName;
+        event.assetId = fields.assetId();
+        event.partner = fields.partner();
+        if (req != null) {
+            event.invocationType = req.getInvocationType();
+            event.qualifier = req.getQualifier();
+        }
+        event.replayed = cassette.isReplaying();
+        if (out != null) {
+            event.statusCode = out.statusCode;
+            event.functionError = out.functionError;
+            event.executedVersion = out.executedVersion;
+            event.coldStart = out.isColdStart();
+        } else {
+            event.statusCode = -1;
+        }
+        event.commit();
+    }
+
+    private LambdaInvocationResult track(String functionName, LambdaInvocationResult result) {
+        executionStatsRegistry.record(functionName, result.executedVersion, result.executionStats);
+        return result;
+    }
+
+    private static LambdaInvocationResult toResult(InvokeResult res, boolean includeLogTail) {
+        String logTail = null;
+        if (includeLogTail && res.getLogResult() != null) {
+            byte[] decoded = Base64.decodeBase64(res.getLogResult());
+            logTail = new String(decoded, StandardCharsets.UTF_8);
+        }
+
+        String payloadText = (res.getPayload() == null)
+                ? ""
+                : new String(res.getPayload().array(), StandardCharsets.UTF_8);
+
+        String requestId = (res.getSdkResponseMetadata() != null)
+                ? res.getSdkResponseMetadata().getRequestId()
+                : null;
+
+        var out = new LambdaInvocationResult(
+                res.getStatusCode(),
+                res.getFunctionError(),
+                logTail,
+                res.getExecutedVersion(),
+                requestId,
+                payloadText
+        );
+
+        if (out.functionError != null) {
+            log.warn("Lambda function error: {}", out.functionError);
+        }
+        log.debug("Lambda payload (truncated 1k): {}", truncate(payloadText, 1024));
+        if (includeLogTail && logTail != null) {
+            log.debug("Lambda log tail (truncated 1k): {}", truncate(logTail, 1024));
+        }
+        if (out.executionStats != null) {
+            log.info("Lambda execution: {}", out.executionStats);
+        }
+
+        return out;
+    }
+
     private static String toJson(Object obj) {
         try {
             return (obj == null) ? "" : MAPPER.writeValueAsString(obj);
@@ -1,43 +1,365 @@
 package fox.fmc.partner.delivery.test.aws;
 
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.retry.RetryUtils;
 import com.amazonaws.services.sqs.AmazonSQS;
-import com.amazonaws.services.sqs.AmazonSQSClient;
-import com.amazonaws.services.sqs.model.GetQueueUrlResult;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchResultEntry;
 import com.amazonaws.services.sqs.model.SendMessageRequest;
+import fox.fmc.partner.delivery.test.telemetry.DeliveryTracer;
+import fox.fmc.partner.delivery.test.telemetry.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
 @Component
 public class AwsSqsUtils {
-    private final String profileName;
-    private final String awsRegion;
+    private static final Logger log = LoggerFactory.getLogger(AwsSqsUtils.class);
+
+    // SendMessageBatch limits
+    private static final int MAX_BATCH_ENTRIES = 10;
+    private static final int MAX_BATCH_PAYLOAD_BYTES = 256 * 1024;
+    // keep the failure list readable when a whole run goes bad
+    private static final int MAX_REPORTED_FAILURES = 100;
+    private static final String FIFO_SUFFIX = ".fifo";
+    private static final String DEFAULT_MESSAGE_GROUP_ID = "partner-delivery-test";
+
+    @Autowired
+    private AwsClientRegistry clientRegistry;
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
 
     @Autowired
-    private AwsUtils awsUtils;
+    private DeliveryTracer deliveryTracer;
 
-    public AwsSqsUtils(
-            @Value("${aws.profile.name}") String profileName,
-            @Value("${aws.region}") String awsRegion) {
-        this.profileName = profileName;
-        this.awsRegion = awsRegion;
+    // queue name -> queue url; queue urls never change for the lifetime of a queue
+    private final Map<String, String> queueUrls = new ConcurrentHashMap<>();
+
+    /**
+     * A single message for {@link #sendSQSMessageBatch(String, List, int, int)}.
+     */
+    public static class OutboundMessage {
+        public final String body;
+        public final Integer delaySeconds;   // null = queue default (FIFO queues reject per-message delays)
+        public final String messageGroupId; // FIFO only; defaults to a shared group when null
+
+        public OutboundMessage(String body, Integer delaySeconds, String messageGroupId) {
+            this.body = body;
+            this.delaySeconds = delaySeconds;
+            this.messageGroupId = messageGroupId;
+        }
+
+        public static OutboundMessage of(String body) {
+            return new OutboundMessage(body, null, null);
+        }
+
+        public static OutboundMessage of(String body, Integer delaySeconds) {
+            return new OutboundMessage(body, delaySeconds, null);
+        }
     }
 
-    private AmazonSQS buildClient() {
-        return AmazonSQSClient.builder()
-                .withRegion(awsRegion)
-                .withCredentials(awsUtils.getAWSCredentialsProvider(profileName))
-                .build();
+    /**
+     * Outcome of a batch send, with enough detail for load-test reporting.
+     */
+    public static class BatchSendResult {
+        public final int requested;
+        public final int sent;
+        public final int failed;
+        public final int batchCalls;       // SendMessageBatch calls, including retries
+        public final int retriedEntries;   // entries re-sent after a retryable failure
+        public final long elapsedMillis;
+        public final List<String> failures; // "<reason>: <body prefix>", capped
+
+        public BatchSendResult(int requested, int sent, int failed, int batchCalls, int retriedEntries,
+                               long elapsedMillis, List<String> failures) {
+            this.requested = requested;
+            this.sent = sent;
+            this.failed = failed;
+            this.batchCalls = batchCalls;
+            this.retriedEntries = retriedEntries;
+            this.elapsedMillis = elapsedMillis;
+            this.failures = failures;
+        }
+
+        public boolean isOk() {
+            return failed == 0 && sent == requested;
+        }
+
+        public double throughputPerSecond() {
+            return elapsedMillis <= 0 ? sent : sent * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "BatchSendResult{" +
+                    "requested=" + requested +
+                    ", sent=" + sent +
+                    ", failed=" + failed +
+                    ", batchCalls=" + batchCalls +
+                    ", retriedEntries=" + retriedEntries +
+                    ", elapsedMillis=" + elapsedMillis +
+                    ", throughputPerSecond=" + String.format("%.1f", throughputPerSecond()) +
+                    '}';
+        }
+    }
+
+    private AmazonSQS client() {
+        return clientRegistry.sqs();
+    }
+
+    public String getQueueUrl(String queueName) {
+        return queueUrls.computeIfAbsent(queueName, name -> client().getQueueUrl(name).getQueueUrl());
     }
 
     public void sendSQSMessage(String queueName, String messageBody) {
-        AmazonSQS amazonSqsClient = buildClient();
+        sendSQSMessage(queueName, messageBody, 10);
+    }
 
-        GetQueueUrlResult getQueueResult = amazonSqsClient.getQueueUrl(queueName);
+    /**
+     * Sends a single message.
+     *
+     * @param delaySeconds per-message delay, or null to use the queue default
+     */
+    public void sendSQSMessage(String queueName, String messageBody, Integer delaySeconds) {
         SendMessageRequest request = new SendMessageRequest()
-                .withQueueUrl(getQueueResult.getQueueUrl())
-                .withMessageBody(messageBody)
-                .withDelaySeconds(10);
-        amazonSqsClient.sendMessage(request);
+                .withQueueUrl(getQueueUrl(queueName))
+                .withMessageBody(messageBody);
+        if (delaySeconds != null) {
+            request.withDelaySeconds(delaySeconds);
+        }
+        long start = System.nanoTime();
+        String outcome = "exception";
+        try {
+            client().sendMessage(request);
+            outcome = "ok";
+            deliveryTracer.sent(messageBody, start, System.nanoTime());
+        } finally {
+            metricsRegistry.recordNanos("sqs.send", System.nanoTime() - start, "queue", queueName, "outcome", outcome);
+        }
+    }
+
+    /**
+     * Sends all bodies with the same delay, 4 batches in flight and up to 3 attempts per entry.
+     */
+    public BatchSendResult sendSQSMessageBatch(String queueName, List<String> messageBodies, Integer delaySeconds) {
+        List<OutboundMessage> messages = new ArrayList<>(messageBodies.size());
+        for (String body : messageBodies) {
+            messages.add(OutboundMessage.of(body, delaySeconds));
+        }
+        return sendSQSMessageBatch(queueName, messages, 4, 3);
+    }
+
+    /**
+     * Sends messages through SendMessageBatch, up to 10 entries (and 256 KB) per call.
+     * Entries SQS rejects as a sender fault are reported as failed; all other failed entries are retried
+     * with exponential backoff until {@code maxAttempts} is reached.
+     *
+     * @param queueName          queue name (".fifo" queues get a message group and deduplication id per entry)
+     * @param messages           messages to send
+     * @param maxInFlightBatches how many SendMessageBatch calls may run concurrently
+     * @param maxAttempts        attempts per entry, including the first one
+     */
+    public BatchSendResult sendSQSMessageBatch(String queueName,
+                                               List<OutboundMessage> messages,
+                                               int maxInFlightBatches,
+                                               int maxAttempts) {
+        String queueUrl = getQueueUrl(queueName);
+        boolean fifo = queueName.endsWith(FIFO_SUFFIX);
+        List<List<SendMessageBatchRequestEntry>> batches = toBatches(messages, fifo);
+
+        LongAdder sent = new LongAdder();
+        LongAdder failed = new LongAdder();
+        AtomicInteger batchCalls = new AtomicInteger();
+        AtomicInteger retried = new AtomicInteger();
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        Semaphore inFlight = new Semaphore(Math.max(1, maxInFlightBatches));
+
+        log.info("Sending {} messages to '{}' in {} batches ({} in flight, {} attempts)",
+                messages.size(), queueName, batches.size(), maxInFlightBatches, maxAttempts);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (List<SendMessageBatchRequestEntry> batch : batches) {
+                inFlight.acquireUninterruptibly();
+                executor.submit(() -> {
+                    try {
+                        sendWithRetry(queueName, queueUrl, batch, Math.max(1, maxAttempts),
+                                sent, failed, batchCalls, retried, failures);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        var result = new BatchSendResult(messages.size(), sent.intValue(), failed.intValue(),
+                batchCalls.get(), retried.get(), elapsedMillis, List.copyOf(failures));
+        metricsRegistry.count("sqs.messages", result.sent, "queue", queueName, "outcome", "sent");
+        metricsRegistry.count("sqs.messages", result.failed, "queue", queueName, "outcome", "failed");
+        if (result.isOk()) {
+            log.info("Batch send to '{}' finished: {}", queueName, result);
+        } else {
+            log.warn("Batch send to '{}' finished with failures: {}", queueName, result);
+        }
+        return result;
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    private void sendWithRetry(String queueName,
+                               String queueUrl,
+                               List<SendMessageBatchRequestEntry> batch,
+                               int maxAttempts,
+                               LongAdder sent,
+                               LongAdder failed,
+                               AtomicInteger batchCalls,
+                               AtomicInteger retried,
+                               Queue<String> failures) {
+        List<SendMessageBatchRequestEntry> pending = batch;
+        String lastError = null;
+
+        for (int attempt = 1; attempt <= maxAttempts && !pending.isEmpty(); attempt++) {
+            if (attempt > 1) {
+                retried.addAndGet(pending.size());
+                backoff(attempt);
+            }
+            batchCalls.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                SendMessageBatchResult result = client().sendMessageBatch(
+                        new SendMessageBatchRequest().withQueueUrl(queueUrl).withEntries(pending));
+                metricsRegistry.recordNanos("sqs.send_batch", System.nanoTime() - start,
+                        "queue", queueName, "outcome", result.getFailed().isEmpty() ? "ok" : "partial");
+                long end = System.nanoTime();
+                sent.add(result.getSuccessful().size());
+
+                Map<String, SendMessageBatchRequestEntry> byId = new HashMap<>();
+                for (SendMessageBatchRequestEntry e : pending) byId.put(e.getId(), e);
+                for (SendMessageBatchResultEntry ok : result.getSuccessful()) {
+                    SendMessageBatchRequestEntry entry = byId.get(ok.getId());
+                    if (entry != null) deliveryTracer.sent(entry.getMessageBody(), start, end);
+                }
+
+                List<SendMessageBatchRequestEntry> retry = new ArrayList<>();
+                for (BatchResultErrorEntry error : result.getFailed()) {
+                    SendMessageBatchRequestEntry entry = byId.get(error.getId());
+                    if (entry == null) continue;
+                    if (Boolean.TRUE.equals(error.getSenderFault())) {
+                        failed.increment();
+                        recordFailure(failures, error.getCode() + " " + error.getMessage(), entry);
+                    } else {
+                        lastError = error.getCode() + " " + error.getMessage();
+                        retry.add(entry);
+                    }
+                }
+                pending = retry;
+            } catch (AmazonServiceException e) {
+                metricsRegistry.recordNanos("sqs.send_batch", System.nanoTime() - start,
+                        "queue", queueName, "outcome", "exception");
+                lastError = e.getErrorCode() + " " + e.getErrorMessage();
+                if (!RetryUtils.isThrottlingException(e) && e.getErrorType() != AmazonServiceException.ErrorType.Service) {
+                    // AccessDenied, QueueDoesNotExist, BatchRequestTooLong...: retrying cannot help
+                    for (SendMessageBatchRequestEntry entry : pending) {
+                        failed.increment();
+                        recordFailure(failures, lastError, entry);
+                    }
+                    return;
+                }
+                // Throttling / 5xx: the whole call failed, so every pending entry is retried
+                log.debug("SendMessageBatch attempt {} failed: {}", attempt, lastError);
+            } catch (SdkClientException e) {
+                metricsRegistry.recordNanos("sqs.send_batch", System.nanoTime() - start,
+                        "queue", queueName, "outcome", "exception");
+                // Socket timeout / connection reset: no response at all, so every pending entry is retried
+                lastError = e.getClass().getSimpleName() + " " + e.getMessage();
+                log.debug("SendMessageBatch attempt {} failed: {}", attempt, lastError);
+            }
+        }
+
+        for (SendMessageBatchRequestEntry entry : pending) {
+            failed.increment();
+            recordFailure(failures, "retries exhausted (" + lastError + ")", entry);
+        }
+    }
+
+    private static List<List<SendMessageBatchRequestEntry>> toBatches(List<OutboundMessage> messages, boolean fifo) {
+        List<List<SendMessageBatchRequestEntry>> batches = new ArrayList<>();
+        List<SendMessageBatchRequestEntry> current = new ArrayList<>();
+        int currentBytes = 0;
+
+        for (OutboundMessage message : messages) {
+            String body = (message.body == null) ? "null" : message.body;
+            int bytes = body.getBytes(StandardCharsets.UTF_8).length;
+
+            if (current.size() == MAX_BATCH_ENTRIES
+                    || (!current.isEmpty() && currentBytes + bytes > MAX_BATCH_PAYLOAD_BYTES)) {
+                batches.add(current);
+                current = new ArrayList<>();
+                currentBytes = 0;
+            }
+
+            // ids only need to be unique within one SendMessageBatch call
+            var entry = new SendMessageBatchRequestEntry()
+                    .withId("m" + current.size())
+                    .withMessageBody(body);
+            if (message.delaySeconds != null) {
+                entry.withDelaySeconds(message.delaySeconds);
+            }
+            if (fifo) {
+                entry.withMessageGroupId(message.messageGroupId == null ? DEFAULT_MESSAGE_GROUP_ID : message.messageGroupId)
+                        .withMessageDeduplicationId(UUID.randomUUID().toString());
+            }
+            current.add(entry);
+            currentBytes += bytes;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+
+    private static void recordFailure(Queue<String> failures, String reason, SendMessageBatchRequestEntry entry) {
+        if (failures.size() < MAX_REPORTED_FAILURES) {
+            failures.add(reason + ": " + truncate(entry.getMessageBody(), 120));
+        }
+    }
+
+    private static void backoff(int attempt) {
+        // 100, 200, 400 ... ms; the shift is capped so large maxAttempts cannot overflow it
+        long millis = Math.min(2_000L, 100L * (1L << Math.min(attempt - 2, 5)));
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String truncate(String s, int max) {
+        if (s == null) return null;
+        return s.length() <= max ? s : s.substring(0, max) + "...";
     }
-}
\ No newline at end of file
+}
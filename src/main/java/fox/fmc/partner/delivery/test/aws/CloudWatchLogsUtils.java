@@ -0,0 +1,341 @@
+package fox.fmc.partner.delivery.test.aws;
+
+import com.amazonaws.services.logs.AWSLogs;
+import com.amazonaws.services.logs.model.FilterLogEventsRequest;
+import com.amazonaws.services.logs.model.FilterLogEventsResult;
+import com.amazonaws.services.logs.model.FilteredLogEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import fox.fmc.partner.delivery.test.cassette.Cassette;
+import fox.fmc.partner.delivery.test.helper.LogTailIndex;
+import fox.fmc.partner.delivery.test.telemetry.DeliveryTracer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the complete CloudWatch log of a single Lambda invocation.
+ * Invoke only returns the last ~4KB of the log ("logTail"); for batches with many records the entries the
+ * specs assert on are often cut off. This pulls every event of the invocation's request id from the
+ * function's log group with paginated FilterLogEvents instead.
+ * Events are kept one per chunk and fed to a {@link LogTailIndex.Builder} as they are, so reading entries
+ * never concatenates the whole log; {@link #readInvocationIndex} is the way in for the log readers.
+ */
+@Component
+public class CloudWatchLogsUtils {
+    private static final Logger log = LoggerFactory.getLogger(CloudWatchLogsUtils.class);
+
+    private static final String LOG_GROUP_PREFIX = "/aws/lambda/";
+    // the delivery Lambda logs this once it has notified the partner queue
+    private static final String SQS_NOTIFICATION_RESPONSE = "SQS notification response for ";
+    private static final Pattern RUNTIME_LINE_REQUEST_ID =
+            Pattern.compile("(?:START|END|REPORT) RequestId: ([0-9a-fA-F-]{36})");
+
+    /**
+     * Where {@link #readInvocationLog} gets its text from.
+     */
+    public enum LogRetrievalMode {
+        TAIL,   // Invoke's logTail only: no extra calls, may be truncated
+        FULL,   // always fetch the full log from CloudWatch (waits for ingestion)
+        AUTO    // fetch only when the logTail does not contain the whole invocation
+    }
+
+    @Autowired
+    private AwsClientRegistry clientRegistry;
+
+    @Autowired
+    private Cassette cassette;
+
+    @Autowired
+    private DeliveryTracer deliveryTracer;
+
+    @Value("${partnerDelivery.lambda.logs.mode:AUTO}")
+    private LogRetrievalMode mode;
+
+    // CloudWatch ingestion usually lags a few seconds behind the invocation
+    @Value("${partnerDelivery.lambda.logs.timeoutSeconds:30}")
+    private long timeoutSeconds;
+
+    @Value("${partnerDelivery.lambda.logs.pollMillis:2000}")
+    private long pollMillis;
+
+    // how far back FilterLogEvents searches; invocations are read right after they return
+    @Value("${partnerDelivery.lambda.logs.lookbackMinutes:15}")
+    private long lookbackMinutes;
+
+    @Value("${partnerDelivery.lambda.logs.cacheMaxEntries:200}")
+    private long cacheMaxEntries;
+
+    // request id -> events of a complete log; bounded, since load runs read thousands of invocations
+    private Cache<String, InvocationLog> completeLogs;
+
+    @PostConstruct
+    void init() {
+        completeLogs = CacheBuilder.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .build();
+    }
+
+    /**
+     * The log events of one invocation, in order. The text is only joined for {@link #text()}; the index is
+     * built from the events one at a time.
+     */
+    private static final class InvocationLog {
+        private static final InvocationLog NONE = new InvocationLog(List.of(), false);
+
+        final List<String> chunks;
+        final boolean complete;
+        private LogTailIndex index;
+        private ObjectMapper indexedWith;
+
+        InvocationLog(List<String> chunks, boolean complete) {
+            this.chunks = chunks;
+            this.complete = complete;
+        }
+
+        static InvocationLog of(String text, String requestId) {
+            if (text == null || text.isEmpty()) return NONE;
+            return new InvocationLog(List.of(text), text.contains(reportLine(requestId)));
+        }
+
+        boolean isEmpty() {
+            return chunks.isEmpty();
+        }
+
+        boolean contains(String s) {
+            for (String chunk : chunks) {
+                if (chunk.contains(s)) return true;
+            }
+            return false;
+        }
+
+        synchronized LogTailIndex index(ObjectMapper mapper) {
+            if (index == null || indexedWith != mapper) {
+                LogTailIndex.Builder builder = LogTailIndex.builder(mapper);
+                chunks.forEach(builder::accept);
+                index = builder.build();
+                indexedWith = mapper;
+            }
+            return index;
+        }
+
+        /** null when there is no log at all. */
+        String text() {
+            if (chunks.isEmpty()) return null;
+            if (chunks.size() == 1) return chunks.get(0);
+            StringBuilder sb = new StringBuilder();
+            for (String chunk : chunks) {
+                sb.append(chunk);
+                if (!chunk.endsWith("\n")) sb.append('\n');
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Log text of the invocation according to the configured {@link LogRetrievalMode}.
+     * The result can be handed to the CloudWatchLogTailHelper readers just like a logTail.
+     */
+    public String readInvocationLog(String functionName, AwsLambdaUtils.LambdaInvocationResult result) {
+        return readInvocationLog(functionName, result, mode);
+    }
+
+    public String readInvocationLog(String functionName,
+                                    AwsLambdaUtils.LambdaInvocationResult result,
+                                    LogRetrievalMode retrievalMode) {
+        return confirmed(result, resolveInvocationLog(functionName, result, retrievalMode)).text();
+    }
+
+    /**
+     * JSON entries of the invocation's log according to the configured {@link LogRetrievalMode}, for the
+     * CloudWatchLogTailHelper readers. The events are indexed one by one instead of being joined first.
+     */
+    public LogTailIndex readInvocationIndex(String functionName,
+                                            AwsLambdaUtils.LambdaInvocationResult result,
+                                            ObjectMapper mapper) {
+        return confirmed(result, resolveInvocationLog(functionName, result, mode)).index(mapper);
+    }
+
+    private InvocationLog confirmed(AwsLambdaUtils.LambdaInvocationResult result, InvocationLog invocationLog) {
+        if (invocationLog.contains(SQS_NOTIFICATION_RESPONSE)) {
+            deliveryTracer.logConfirmed(result.requestId);
+        }
+        return invocationLog;
+    }
+
+    private InvocationLog resolveInvocationLog(String functionName,
+                                               AwsLambdaUtils.LambdaInvocationResult result,
+                                               LogRetrievalMode retrievalMode) {
+        String tail = result.logTail;
+        String requestId = invocationRequestId(result);
+        if (retrievalMode == LogRetrievalMode.TAIL
+                || (retrievalMode == LogRetrievalMode.AUTO && isCompleteTail(tail))) {
+            return InvocationLog.of(tail, requestId);
+        }
+
+        if (requestId == null) {
+            log.warn("No request id for Lambda '{}' invocation, falling back to logTail", functionName);
+            return InvocationLog.of(tail, null);
+        }
+
+        InvocationLog full = fetchInvocationEvents(functionName, requestId, Duration.ofSeconds(timeoutSeconds));
+        // an empty fetch (e.g. no logs:FilterLogEvents permission) should not hide what the tail had
+        return full.isEmpty() ? InvocationLog.of(tail, requestId) : full;
+    }
+
+    /**
+     * All log events of one invocation, in order, joined into a single text.
+     * Polls until the runtime's REPORT line has been ingested or {@code timeout} elapses; on timeout the
+     * events found so far are returned (not cached).
+     */
+    public String fetchInvocationLog(String functionName, String requestId, Duration timeout) {
+        String text = fetchInvocationEvents(functionName, requestId, timeout).text();
+        return (text == null) ? "" : text;
+    }
+
+    private InvocationLog fetchInvocationEvents(String functionName, String requestId, Duration timeout) {
+        InvocationLog cached = completeLogs.getIfPresent(requestId);
+        if (cached != null) return cached;
+
+        InvocationLog fetched;
+        if (cassette.isActive()) {
+            // cassettes store the log as one text; it is indexed as a single chunk
+            fetched = InvocationLog.of(cassette.text("logs " + functionName + " " + requestId,
+                    () -> pollInvocationLog(functionName, requestId, timeout).text()), requestId);
+        } else {
+            fetched = pollInvocationLog(functionName, requestId, timeout);
+        }
+        if (fetched.complete) {
+            completeLogs.put(requestId, fetched);
+        }
+        return fetched;
+    }
+
+    private InvocationLog pollInvocationLog(String functionName, String requestId, Duration timeout) {
+
+        String logGroup = logGroupName(functionName);
+        long startTime = System.currentTimeMillis() - Duration.ofMinutes(lookbackMinutes).toMillis();
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        long started = System.nanoTime();
+        int polls = 0;
+        while (true) {
+            polls++;
+            InvocationLog events = toInvocationLog(filterEvents(logGroup, requestId, startTime), requestId);
+
+            if (events.complete || System.nanoTime() >= deadline) {
+                long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+                if (events.complete) {
+                    log.info("Fetched full log for request {} from '{}': {} events, {} polls, {} ms",
+                            requestId, logGroup, events.chunks.size(), polls, elapsedMillis);
+                } else {
+                    log.warn("Log for request {} in '{}' still incomplete after {} ms ({} events so far)",
+                            requestId, logGroup, elapsedMillis, events.chunks.size());
+                }
+                return events;
+            }
+            sleep(pollMillis);
+        }
+    }
+
+    /**
+     * The Lambda request id of an invocation: taken from the runtime's START/END/REPORT lines when the tail
+     * has them, otherwise the Invoke response's request id (the same value for synchronous invocations).
+     */
+    public static String invocationRequestId(AwsLambdaUtils.LambdaInvocationResult result) {
+        if (result.logTail != null) {
+            Matcher m = RUNTIME_LINE_REQUEST_ID.matcher(result.logTail);
+            if (m.find()) return m.group(1);
+        }
+        return result.requestId;
+    }
+
+    public void clearCache() {
+        completeLogs.invalidateAll();
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    /** The tail holds the whole invocation only if it was not cut before the START line. */
+    private static boolean isCompleteTail(String tail) {
+        return tail != null && tail.contains("START RequestId: ") && tail.contains("REPORT RequestId: ");
+    }
+
+    private List<FilteredLogEvent> filterEvents(String logGroup, String requestId, long startTime) {
+        AWSLogs logs = clientRegistry.logs();
+        // FilterLogEvents pages can overlap across log streams; event ids keep each event once
+        Map<String, FilteredLogEvent> byId = new LinkedHashMap<>();
+
+        String nextToken = null;
+        do {
+            FilterLogEventsResult page = logs.filterLogEvents(new FilterLogEventsRequest()
+                    .withLogGroupName(logGroup)
+                    .withFilterPattern("\"" + requestId + "\"")
+                    .withStartTime(startTime)
+                    .withNextToken(nextToken));
+            for (FilteredLogEvent e : page.getEvents()) {
+                byId.putIfAbsent(e.getEventId(), e);
+            }
+            nextToken = page.getNextToken();
+        } while (nextToken != null);
+
+        List<FilteredLogEvent> events = new ArrayList<>(byId.values());
+        events.sort(Comparator.comparing(FilteredLogEvent::getTimestamp));
+        return events;
+    }
+
+    private static InvocationLog toInvocationLog(List<FilteredLogEvent> events, String requestId) {
+        String report = reportLine(requestId);
+        List<String> messages = new ArrayList<>(events.size());
+        boolean complete = false;
+        for (FilteredLogEvent e : events) {
+            String message = e.getMessage();
+            if (message == null) continue;
+            messages.add(message);
+            complete |= message.contains(report);
+        }
+        return new InvocationLog(messages, complete);
+    }
+
+    private static String reportLine(String requestId) {
+        return "REPORT RequestId: " + requestId;
+    }
+
+    /** "/aws/lambda/name" for a function name, full ARN or partial ARN (qualifier dropped). */
+    static String logGroupName(String functionName) {
+        String name = functionName;
+        int idx = name.indexOf(":function:");
+        if (idx >= 0) {
+            name = name.substring(idx + ":function:".length());
+        }
+        int qualifier = name.indexOf(':');
+        if (qualifier >= 0) {
+            name = name.substring(0, qualifier);
+        }
+        return LOG_GROUP_PREFIX + name;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for CloudWatch logs", e);
+        }
+    }
+}
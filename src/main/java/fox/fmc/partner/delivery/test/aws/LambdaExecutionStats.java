@@ -0,0 +1,152 @@
+package fox.fmc.partner.delivery.test.aws;
+
+/**
+ * What the Lambda platform reports about one invocation, parsed from the START / END / REPORT lines of the log tail:
+ * <pre>
+ * START RequestId: 8f5... Version: 42
+ * END RequestId: 8f5...
+ * REPORT RequestId: 8f5...	Duration: 812.43 ms	Billed Duration: 813 ms	Memory Size: 1024 MB	Max Memory Used: 187 MB	Init Duration: 410.07 ms
+ * </pre>
+ * An invocation is cold when the REPORT line carries an Init Duration (or a SnapStart Restore Duration).
+ */
+public final class LambdaExecutionStats {
+
+    private static final String START = "START RequestId: ";
+    private static final String END = "END RequestId: ";
+    private static final String REPORT = "REPORT RequestId: ";
+
+    public final String requestId;            // Lambda context request id
+    public final String version;              // from the START line; null when the tail cut it off
+    public final double durationMillis;
+    public final long billedDurationMillis;
+    public final int memorySizeMb;
+    public final int maxMemoryUsedMb;
+    public final Double initDurationMillis;   // null on warm invocations
+    public final Double restoreDurationMillis; // SnapStart only
+    public final String status;               // e.g. "timeout", "error"; null when the runtime did not report one
+    public final boolean complete;            // START and END of the same request were both in the tail
+
+    private LambdaExecutionStats(String requestId, String version, double durationMillis, long billedDurationMillis,
+                                 int memorySizeMb, int maxMemoryUsedMb, Double initDurationMillis,
+                                 Double restoreDurationMillis, String status, boolean complete) {
+        this.requestId = requestId;
+        this.version = version;
+        this.durationMillis = durationMillis;
+        this.billedDurationMillis = billedDurationMillis;
+        this.memorySizeMb = memorySizeMb;
+        this.maxMemoryUsedMb = maxMemoryUsedMb;
+        this.initDurationMillis = initDurationMillis;
+        this.restoreDurationMillis = restoreDurationMillis;
+        this.status = status;
+        this.complete = complete;
+    }
+
+    /**
+     * Stats of the last invocation reported in the log text, or null when there is no (complete) REPORT line.
+     */
+    public static LambdaExecutionStats parse(String logText) {
+        if (logText == null) return null;
+        int reportAt = lastLineStartingWith(logText, REPORT, logText.length());
+        if (reportAt < 0) return null;
+
+        String reportLine = line(logText, reportAt);
+        String[] fields = reportLine.substring(REPORT.length()).split("\t");
+        String requestId = fields[0].trim();
+
+        Double duration = null;
+        Long billed = null;
+        Integer memorySize = null;
+        Integer maxMemoryUsed = null;
+        Double init = null;
+        Double restore = null;
+        String status = null;
+        for (int i = 1; i < fields.length; i++) {
+            String field = fields[i].trim();
+            int colon = field.indexOf(": ");
+            if (colon < 0) continue;
+            String name = field.substring(0, colon);
+            String value = field.substring(colon + 2);
+            try {
+                switch (name) {
+                    case "Duration" -> duration = number(value);
+                    case "Billed Duration" -> billed = Math.round(number(value));
+                    case "Memory Size" -> memorySize = (int) number(value);
+                    case "Max Memory Used" -> maxMemoryUsed = (int) number(value);
+                    case "Init Duration" -> init = number(value);
+                    case "Restore Duration" -> restore = number(value);
+                    case "Status" -> status = value;
+                    default -> { }
+                }
+            } catch (NumberFormatException ignored) {
+                // unexpected value format; leave the field unset
+            }
+        }
+        if (requestId.isEmpty() || duration == null || memorySize == null || maxMemoryUsed == null) {
+            return null;
+        }
+
+        int endAt = lastLineStartingWith(logText, END + requestId, reportAt);
+        int startAt = (endAt < 0) ? -1 : lastLineStartingWith(logText, START + requestId, endAt);
+        String version = null;
+        if (startAt >= 0) {
+            String startLine = line(logText, startAt);
+            int v = startLine.indexOf("Version: ");
+            if (v >= 0) version = startLine.substring(v + "Version: ".length()).trim();
+        }
+
+        return new LambdaExecutionStats(requestId, version, duration, (billed == null) ? 0 : billed,
+                memorySize, maxMemoryUsed, init, restore, status, startAt >= 0);
+    }
+
+    public boolean isColdStart() {
+        return initDurationMillis != null || restoreDurationMillis != null;
+    }
+
+    /** Fraction of the configured memory left unused at peak (0.18 = 18% headroom). */
+    public double memoryHeadroom() {
+        return (memorySizeMb <= 0) ? 0 : 1.0 - (double) maxMemoryUsedMb / memorySizeMb;
+    }
+
+    @Override
+    public String toString() {
+        return "LambdaExecutionStats{" +
+                "requestId='" + requestId + '\'' +
+                ", version='" + version + '\'' +
+                ", coldStart=" + isColdStart() +
+                ", durationMillis=" + durationMillis +
+                ", billedDurationMillis=" + billedDurationMillis +
+                ", memory=" + maxMemoryUsedMb + "/" + memorySizeMb + "MB" +
+                (initDurationMillis == null ? "" : ", initDurationMillis=" + initDurationMillis) +
+                (restoreDurationMillis == null ? "" : ", restoreDurationMillis=" + restoreDurationMillis) +
+                (status == null ? "" : ", status=" + status) +
+                '}';
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    /** Offset of the last line before {@code before} that starts with the prefix, or -1. */
+    private static int lastLineStartingWith(String text, String prefix, int before) {
+        int from = before - prefix.length();
+        while (from >= 0) {
+            int at = text.lastIndexOf(prefix, from);
+            if (at < 0) return -1;
+            if (at == 0 || text.charAt(at - 1) == '\n') return at;
+            from = at - 1;
+        }
+        return -1;
+    }
+
+    private static String line(String text, int at) {
+        int end = text.indexOf('\n', at);
+        String line = (end < 0) ? text.substring(at) : text.substring(at, end);
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+
+    /** "812.43 ms" / "1024 MB" -> the number. */
+    private static double number(String value) {
+        int space = value.indexOf(' ');
+        return Double.parseDouble((space < 0) ? value : value.substring(0, space));
+    }
+}
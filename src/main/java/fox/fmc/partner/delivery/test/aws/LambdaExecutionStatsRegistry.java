@@ -0,0 +1,154 @@
+package fox.fmc.partner.delivery.test.aws;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Run-wide {@link LambdaExecutionStats} per function version: cold-start rate, durations and memory headroom.
+ * Fed by {@link AwsLambdaUtils} for every invocation that returned a log tail; the summary is logged on shutdown.
+ */
+@Component
+public class LambdaExecutionStatsRegistry {
+    private static final Logger log = LoggerFactory.getLogger(LambdaExecutionStatsRegistry.class);
+
+    private final Map<String, Accumulator> byVersion = new ConcurrentHashMap<>();
+
+    /**
+     * Aggregates of one function version.
+     */
+    public static class VersionStats {
+        public final String functionName;
+        public final String version;
+        public final long invocations;
+        public final long coldStarts;
+        public final double meanDurationMillis;
+        public final double maxDurationMillis;
+        public final double meanInitDurationMillis; // over cold starts only; 0 when there were none
+        public final double maxInitDurationMillis;
+        public final long billedDurationMillis;    // total
+        public final int memorySizeMb;             // as last reported
+        public final int peakMemoryUsedMb;
+
+        private VersionStats(String functionName, String version, Accumulator a) {
+            this.functionName = functionName;
+            this.version = version;
+            this.invocations = a.invocations;
+            this.coldStarts = a.coldStarts;
+            this.meanDurationMillis = (a.invocations == 0) ? 0 : a.durationMillis / a.invocations;
+            this.maxDurationMillis = a.maxDurationMillis;
+            this.meanInitDurationMillis = (a.coldStarts == 0) ? 0 : a.initDurationMillis / a.coldStarts;
+            this.maxInitDurationMillis = a.maxInitDurationMillis;
+            this.billedDurationMillis = a.billedDurationMillis;
+            this.memorySizeMb = a.memorySizeMb;
+            this.peakMemoryUsedMb = a.peakMemoryUsedMb;
+        }
+
+        public double coldStartRate() {
+            return (invocations == 0) ? 0 : (double) coldStarts / invocations;
+        }
+
+        /** Headroom left at the highest memory use seen in the run. */
+        public double minMemoryHeadroom() {
+            return (memorySizeMb <= 0) ? 0 : 1.0 - (double) peakMemoryUsedMb / memorySizeMb;
+        }
+
+        @Override
+        public String toString() {
+            return "VersionStats{" +
+                    "function='" + functionName + '\'' +
+                    ", version='" + version + '\'' +
+                    ", invocations=" + invocations +
+                    ", coldStarts=" + coldStarts +
+                    ", coldStartRate=" + String.format("%.3f", coldStartRate()) +
+                    ", meanDurationMillis=" + String.format("%.1f", meanDurationMillis) +
+                    ", maxDurationMillis=" + String.format("%.1f", maxDurationMillis) +
+                    ", meanInitDurationMillis=" + String.format("%.1f", meanInitDurationMillis) +
+                    ", billedDurationMillis=" + billedDurationMillis +
+                    ", memory=" + peakMemoryUsedMb + "/" + memorySizeMb + "MB" +
+                    ", minMemoryHeadroom=" + String.format("%.3f", minMemoryHeadroom()) +
+                    '}';
+        }
+    }
+
+    /**
+     * Adds one invocation. The version is the one Lambda reported executing, falling back to the START line
+     * and then to "unknown"; invocations without stats are ignored.
+     */
+    public void record(String functionName, String executedVersion, LambdaExecutionStats stats) {
+        if (stats == null) return;
+        String version = (executedVersion != null && !executedVersion.isBlank()) ? executedVersion
+                : (stats.version != null) ? stats.version
+                : "unknown";
+        byVersion.computeIfAbsent(functionName + ":" + version, k -> new Accumulator(functionName, version))
+                .add(stats);
+    }
+
+    /** Snapshot keyed by "function:version", sorted. */
+    public Map<String, VersionStats> snapshot() {
+        Map<String, VersionStats> out = new TreeMap<>();
+        byVersion.forEach((key, a) -> out.put(key, a.snapshot()));
+        return out;
+    }
+
+    public VersionStats get(String functionName, String version) {
+        Accumulator a = byVersion.get(functionName + ":" + version);
+        return (a == null) ? null : a.snapshot();
+    }
+
+    public void reset() {
+        byVersion.clear();
+    }
+
+    @PreDestroy
+    void logSummary() {
+        snapshot().values().forEach(s -> log.info("Lambda execution stats: {}", s));
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    private static final class Accumulator {
+        private final String functionName;
+        private final String version;
+        private long invocations;
+        private long coldStarts;
+        private double durationMillis;
+        private double maxDurationMillis;
+        private double initDurationMillis;
+        private double maxInitDurationMillis;
+        private long billedDurationMillis;
+        private int memorySizeMb;
+        private int peakMemoryUsedMb;
+
+        Accumulator(String functionName, String version) {
+            this.functionName = functionName;
+            this.version = version;
+        }
+
+        synchronized void add(LambdaExecutionStats s) {
+            invocations++;
+            durationMillis += s.durationMillis;
+            maxDurationMillis = Math.max(maxDurationMillis, s.durationMillis);
+            billedDurationMillis += s.billedDurationMillis;
+            memorySizeMb = s.memorySizeMb;
+            peakMemoryUsedMb = Math.max(peakMemoryUsedMb, s.maxMemoryUsedMb);
+            if (s.isColdStart()) {
+                coldStarts++;
+                double init = (s.initDurationMillis != null) ? s.initDurationMillis : s.restoreDurationMillis;
+                initDurationMillis += init;
+                maxInitDurationMillis = Math.max(maxInitDurationMillis, init);
+            }
+        }
+
+        synchronized VersionStats snapshot() {
+            return new VersionStats(functionName, version, this);
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package fox.fmc.partner.delivery.test.cassette;
+
+import com.amazonaws.ResponseMetadata;
+import com.amazonaws.services.lambda.model.InvokeRequest;
+import com.amazonaws.services.lambda.model.InvokeResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import fox.fmc.partner.delivery.test.utils.JsonFingerprint;
+import fox.fmc.partner.delivery.test.utils.JsonMappers;
+import io.restassured.filter.Filter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Record/replay of the harness' network traffic: MAM/Cognito HTTP exchanges (through the RestAssured
+ * {@link #restAssuredFilter()}), Lambda InvokeResults and fetched CloudWatch invocation logs.
+ * <p>
+ * RECORD passes every call through and appends the response to the cassette, written on {@link #eject()} (and
+ * at shutdown) as gzipped JSON lines to {@code <dir>/<name>.jsonl.gz}. REPLAY serves the responses from memory
+ * without touching the network. Requests are matched on method, URL and a fingerprint of the body, with the
+ * {@code ignoreFields} (per-run ids) left out; repeated identical requests (status polling) get the recorded
+ * responses in order, and the last one again once the recording runs out.
+ * Recorded waits are replayed scaled by {@code replayTimeScale} (0 = no waiting).
+ * JWT signatures in recorded bodies are redacted, so cassettes never hold usable tokens.
+ */
+@Component
+public class Cassette {
+    private static final Logger log = LoggerFactory.getLogger(Cassette.class);
+
+    static final String HTTP = "http";
+    static final String LAMBDA = "lambda";
+    static final String TEXT = "text";
+
+    private static final Pattern JWT = Pattern.compile("(eyJ[A-Za-z0-9_-]+\\.eyJ[A-Za-z0-9_-]+)\\.[A-Za-z0-9_-]+");
+
+    @Value("${partnerDelivery.cassette.mode:OFF}")
+    private CassetteMode mode;
+
+    @Value("${partnerDelivery.cassette.dir:src/test/cassettes}")
+    private String dir;
+
+    @Value("${partnerDelivery.cassette.name:default}")
+    private String name;
+
+    // recorded waits are replayed multiplied by this; 0 = no waiting, 1 = real time
+    @Value("${partnerDelivery.cassette.replayTimeScale:0}")
+    private double replayTimeScale;
+
+    // JSON fields left out of request matching because they change on every run
+    @Value("${partnerDelivery.cassette.ignoreFields:corrId,correlationId}")
+    private String[] ignoreFields;
+
+    private final CassetteFilter filter = new CassetteFilter(this);
+
+    // "<kind> <key>" -> recorded responses in recording order
+    private final Map<String, List<ObjectNode>> tracks = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> cursors = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+
+    private volatile String current;
+    private volatile Set<String> ignored = Set.of();
+
+    /**
+     * Counter snapshot for logging.
+     */
+    public static class Stats {
+        public final String cassette;
+        public final CassetteMode mode;
+        public final long recorded;
+        public final long replayed;
+        public final int tracks;
+
+        public Stats(String cassette, CassetteMode mode, long recorded, long replayed, int tracks) {
+            this.cassette = cassette;
+            this.mode = mode;
+            this.recorded = recorded;
+            this.replayed = replayed;
+            this.tracks = tracks;
+        }
+
+        @Override
+        public String toString() {
+            return "Cassette.Stats{" +
+                    "cassette='" + cassette + '\'' +
+                    ", mode=" + mode +
+                    ", recorded=" + recorded +
+                    ", replayed=" + replayed +
+                    ", tracks=" + tracks +
+                    '}';
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        ignored = Set.of(ignoreFields);
+        if (mode != CassetteMode.OFF) {
+            insert(name);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        eject();
+    }
+
+    public CassetteMode getMode() {
+        return mode;
+    }
+
+    public boolean isRecording() {
+        return mode == CassetteMode.RECORD && current != null;
+    }
+
+    public boolean isReplaying() {
+        return mode == CassetteMode.REPLAY && current != null;
+    }
+
+    public boolean isActive() {
+        return isRecording() || isReplaying();
+    }
+
+    /**
+     * Switches to the cassette {@code cassetteName} (writing the previous one when recording); in REPLAY the file
+     * must exist.
+     */
+    public synchronized void insert(String cassetteName) {
+        eject();
+        tracks.clear();
+        cursors.clear();
+        sequence.set(0);
+        Path file = path(cassetteName);
+        if (mode == CassetteMode.REPLAY) {
+            load(file);
+        }
+        current = cassetteName;
+        log.info("Cassette '{}' inserted ({}, {} tracks, file={})", cassetteName, mode, tracks.size(), file.toAbsolutePath());
+    }
+
+    /** Writes the recording (RECORD) and stops recording/replaying until the next {@link #insert}. */
+    public synchronized void eject() {
+        if (current == null) return;
+        if (mode == CassetteMode.RECORD && !tracks.isEmpty()) {
+            save(path(current));
+        }
+        log.info("Cassette ejected: {}", stats());
+        current = null;
+    }
+
+    public Stats stats() {
+        return new Stats(current, mode, recorded.sum(), replayed.sum(), tracks.size());
+    }
+
+    /** RestAssured filter that records or replays the request; add it to every MAM request. */
+    public Filter restAssuredFilter() {
+        return filter;
+    }
+
+    /**
+     * Poll/back-off delays while replaying, scaled like the recorded waits (unchanged otherwise).
+     */
+    public long scaleDelayMillis(long delayMillis) {
+        return isReplaying() ? Math.round(delayMillis * replayTimeScale) : delayMillis;
+    }
+
+    // ------------------------------
+    // Lambda
+    // ------------------------------
+
+    /** Calls {@code live} (recording its result when RECORD) or, in REPLAY, returns the recorded result. */
+    public InvokeResult invoke(InvokeRequest request, Supplier<InvokeResult> live) {
+        if (isReplaying()) {
+            return replayInvoke(request);
+        }
+        long start = System.nanoTime();
+        InvokeResult result = live.get();
+        if (isRecording()) {
+            recordInvoke(request, result, System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    public InvokeResult replayInvoke(InvokeRequest request) {
+        ObjectNode e = next(LAMBDA, lambdaKey(request));
+        waitRecorded(e);
+        InvokeResult result = new InvokeResult()
+                .withStatusCode(e.path("statusCode").asInt())
+                .withFunctionError(textOrNull(e, "functionError"))
+                .withLogResult(textOrNull(e, "logResult"))
+                .withExecutedVersion(textOrNull(e, "executedVersion"))
+                .withPayload(ByteBuffer.wrap(e.path("payload").asText("").getBytes(StandardCharsets.UTF_8)));
+        String requestId = textOrNull(e, "requestId");
+        if (requestId != null) {
+            result.setSdkResponseMetadata(new ResponseMetadata(Map.of(ResponseMetadata.AWS_REQUEST_ID, requestId)));
+        }
+        return result;
+    }
+
+    public void recordInvoke(InvokeRequest request, InvokeResult result, long elapsedNanos) {
+        ObjectNode data = JsonMappers.MAPPER.createObjectNode();
+        data.put("statusCode", result.getStatusCode())
+                .put("functionError", result.getFunctionError())
+                .put("logResult", result.getLogResult())
+                .put("executedVersion", result.getExecutedVersion())
+                .put("requestId", result.getSdkResponseMetadata() == null ? null : result.getSdkResponseMetadata().getRequestId())
+                .put("payload", result.getPayload() == null ? "" : StandardCharsets.UTF_8.decode(result.getPayload().duplicate()).toString());
+        record(LAMBDA, lambdaKey(request), elapsedNanos, data);
+    }
+
+    // ------------------------------
+    // Other text results (e.g. fetched CloudWatch logs)
+    // ------------------------------
+
+    /** {@code live.get()}, recorded / replayed under {@code key}. */
+    public String text(String key, Supplier<String> live) {
+        if (isReplaying()) {
+            ObjectNode e = next(TEXT, key);
+            waitRecorded(e);
+            return textOrNull(e, "text");
+        }
+        long start = System.nanoTime();
+        String text = live.get();
+        if (isRecording()) {
+            record(TEXT, key, System.nanoTime() - start, JsonMappers.MAPPER.createObjectNode().put("text", text));
+        }
+        return text;
+    }
+
+    // ------------------------------
+    // Shared with CassetteFilter
+    // ------------------------------
+
+    String httpKey(String method, String uri, String body) {
+        return method + " " + uri + " " + fingerprint(body);
+    }
+
+    /** Next recorded response of a track; the last one again once the track is used up. */
+    ObjectNode next(String kind, String key) {
+        List<ObjectNode> track = tracks.get(kind + " " + key);
+        if (track == null || track.isEmpty()) {
+            throw new IllegalStateException("Cassette '" + current + "' has no recorded " + kind + " exchange for " + key
+                    + " (record it again with partnerDelivery.cassette.mode=RECORD)");
+        }
+        int index = cursors.computeIfAbsent(kind + " " + key, k -> new AtomicInteger()).getAndIncrement();
+        replayed.increment();
+        return track.get(Math.min(index, track.size() - 1));
+    }
+
+    void record(String kind, String key, long elapsedNanos, ObjectNode data) {
+        data.put("seq", sequence.getAndIncrement())
+                .put("kind", kind)
+                .put("key", key)
+                .put("elapsedMillis", elapsedNanos / 1_000_000);
+        tracks.computeIfAbsent(kind + " " + key, k -> Collections.synchronizedList(new ArrayList<>())).add(data);
+        recorded.increment();
+    }
+
+    void waitRecorded(ObjectNode entry) {
+        long millis = Math.round(entry.path("elapsedMillis").asLong() * replayTimeScale);
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static String redact(String text) {
+        return (text == null) ? null : JWT.matcher(text).replaceAll("$1.redacted");
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    private String lambdaKey(InvokeRequest request) {
+        String payload = (request.getPayload() == null) ? "" : StandardCharsets.UTF_8.decode(request.getPayload().duplicate()).toString();
+        return request.getFunctionName()
+                + ":" + (request.getQualifier() == null ? "" : request.getQualifier())
+                + " " + request.getInvocationType()
+                + " " + request.getLogType()
+                + " " + fingerprint(payload);
+    }
+
+    /** Structural hash of a JSON body without the ignored fields (also inside JSON-in-string values), else of the text. */
+    private String fingerprint(String body) {
+        if (body == null || body.isEmpty()) return "-";
+        JsonNode node;
+        try {
+            node = normalize(JsonMappers.MAPPER.readTree(body));
+        } catch (IOException e) {
+            node = TextNode.valueOf(body);
+        }
+        return JsonFingerprint.sha256(node).substring(0, 16);
+    }
+
+    private JsonNode normalize(JsonNode node) {
+        if (node instanceof ObjectNode object) {
+            object.remove(ignored);
+            Iterator<Map.Entry<String, JsonNode>> it = object.fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> field = it.next();
+                field.setValue(normalize(field.getValue()));
+            }
+        } else if (node instanceof ArrayNode array) {
+            for (int i = 0; i < array.size(); i++) {
+                array.set(i, normalize(array.get(i)));
+            }
+        } else if (node.isTextual() && looksLikeJson(node.asText())) {
+            // SQS record bodies carry the LambdaRequest (and its corrId) as a JSON string
+            try {
+                return normalize(JsonMappers.MAPPER.readTree(node.asText()));
+            } catch (IOException e) {
+                return node;
+            }
+        }
+        return node;
+    }
+
+    private static boolean looksLikeJson(String s) {
+        String t = s.strip();
+        return (t.startsWith("{") && t.endsWith("}")) || (t.startsWith("[") && t.endsWith("]"));
+    }
+
+    private Path path(String cassetteName) {
+        return Path.of(dir).resolve(cassetteName.replaceAll("[^A-Za-z0-9._-]", "_") + ".jsonl.gz");
+    }
+
+    private void load(Path file) {
+        if (!Files.exists(file)) {
+            throw new IllegalStateException("No cassette at " + file.toAbsolutePath()
+                    + " (record it first with partnerDelivery.cassette.mode=RECORD)");
+        }
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) continue;
+                ObjectNode e = (ObjectNode) JsonMappers.MAPPER.readTree(line);
+                tracks.computeIfAbsent(e.path("kind").asText() + " " + e.path("key").asText(),
+                        k -> Collections.synchronizedList(new ArrayList<>())).add(e);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read cassette " + file, e);
+        }
+    }
+
+    private void save(Path file) {
+        List<ObjectNode> all = new ArrayList<>();
+        tracks.values().forEach(track -> {
+            synchronized (track) {
+                all.addAll(track);
+            }
+        });
+        all.sort(Comparator.comparingLong(e -> e.path("seq").asLong()));
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8))) {
+                for (ObjectNode e : all) {
+                    out.write(JsonMappers.MAPPER.writeValueAsString(e));
+                    out.newLine();
+                }
+            }
+            log.info("Cassette '{}' written: {} exchanges, {} bytes", current, all.size(), Files.size(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write cassette " + file, e);
+        }
+    }
+
+    private static String textOrNull(JsonNode node, String field) {
+        JsonNode v = node.path(field);
+        return v.isTextual() ? v.asText() : null;
+    }
+}
@@ -0,0 +1,86 @@
+package fox.fmc.partner.delivery.test.cassette;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fox.fmc.partner.delivery.test.utils.JsonMappers;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RestAssured side of the {@link Cassette}: replays the recorded response instead of sending the request,
+ * or sends it and records the response.
+ */
+final class CassetteFilter implements Filter {
+
+    private final Cassette cassette;
+
+    CassetteFilter(Cassette cassette) {
+        this.cassette = cassette;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification request,
+                           FilterableResponseSpecification response,
+                           FilterContext ctx) {
+        if (!cassette.isActive()) {
+            return ctx.next(request, response);
+        }
+        Object body = request.getBody();
+        String key = cassette.httpKey(request.getMethod(), request.getURI(), (body == null) ? null : body.toString());
+
+        if (cassette.isReplaying()) {
+            ObjectNode e = cassette.next(Cassette.HTTP, key);
+            cassette.waitRecorded(e);
+            return toResponse(e);
+        }
+
+        long start = System.nanoTime();
+        Response live = ctx.next(request, response);
+        long elapsed = System.nanoTime() - start;
+        if (cassette.isRecording()) {
+            cassette.record(Cassette.HTTP, key, elapsed, fromResponse(live));
+        }
+        return live;
+    }
+
+    private static ObjectNode fromResponse(Response r) {
+        ObjectNode data = JsonMappers.MAPPER.createObjectNode();
+        data.put("status", r.getStatusCode())
+                .put("statusLine", r.getStatusLine())
+                .put("contentType", r.getContentType())
+                .put("body", Cassette.redact(r.asString()));
+        ArrayNode headers = data.putArray("headers");
+        for (Header h : r.getHeaders()) {
+            if ("Set-Cookie".equalsIgnoreCase(h.getName())) continue;
+            headers.addArray().add(h.getName()).add(h.getValue());
+        }
+        return data;
+    }
+
+    private static Response toResponse(ObjectNode e) {
+        List<Header> headers = new ArrayList<>();
+        for (JsonNode h : e.path("headers")) {
+            headers.add(new Header(h.get(0).asText(), h.get(1).asText()));
+        }
+        ResponseBuilder builder = new ResponseBuilder()
+                .setStatusCode(e.path("status").asInt())
+                .setStatusLine(e.path("statusLine").asText("HTTP/1.1 " + e.path("status").asInt()))
+                .setHeaders(new Headers(headers))
+                .setBody(e.path("body").asText(""));
+        String contentType = e.path("contentType").asText("");
+        if (!contentType.isEmpty()) {
+            builder.setContentType(contentType);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,7 @@
+package fox.fmc.partner.delivery.test.cassette;
+
+public enum CassetteMode {
+    OFF,        // live traffic, nothing recorded
+    RECORD,     // live traffic, every exchange is written to the cassette
+    REPLAY      // no network; exchanges are served from the cassette
+}
@@ -1,40 +1,132 @@
 package fox.fmc.partner.delivery.test.helper;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import fox.fmc.partner.delivery.test.service.MediaCloudService;
-import io.restassured.response.Response;
-import lombok.Getter;
+import fox.fmc.partner.delivery.test.service.AssetCache;
+import fox.fmc.partner.delivery.test.utils.JsonFingerprint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
 
 /**
- * Helper component to snapshot an asset state and verify it hasn't changed.
- * Leverages MediaCloudService for API calls and Jackson for deep comparison.
+ * Helper component to snapshot asset state and verify it hasn't changed.
+ * Snapshots are kept per assetId, so several assets (and parallel specs) can be checked at once. A snapshot
+ * holds data.metadata._version and an order-independent SHA-256 of data.metadata; the metadata tree itself
+ * is only retained when {@code partnerDelivery.immutability.keepTrees=true}, which turns a fingerprint
+ * mismatch into a field-level diff.
+ * Assets are read through AssetCache (always revalidated).
  */
 @Component
 public class AssetImmutabilityVerifier {
 
     private static final Logger log = LoggerFactory.getLogger(AssetImmutabilityVerifier.class);
 
-    private final MediaCloudService mediaCloudService;
-    private final ObjectMapper objectMapper;
+    private final AssetCache assetCache;
 
-    // State to hold the snapshot
-    private JsonNode metadataBefore;
-    private Integer versionBefore;
-    @Getter
-    private boolean snapshotTaken = false;
+    private final ConcurrentHashMap<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    // keep the metadata tree with each snapshot so mismatches report a structural diff
+    @Value("${partnerDelivery.immutability.keepTrees:false}")
+    private boolean keepTrees;
+
+    // concurrent asset fetches for the batch methods
+    @Value("${partnerDelivery.immutability.parallelism:16}")
+    private int parallelism;
+
+    @Value("${partnerDelivery.immutability.maxDiffEntries:20}")
+    private int maxDiffEntries;
 
     @Autowired
-    public AssetImmutabilityVerifier(MediaCloudService mediaCloudService, ObjectMapper objectMapper) {
-        this.mediaCloudService = mediaCloudService;
-        this.objectMapper = objectMapper;
+    public AssetImmutabilityVerifier(AssetCache assetCache) {
+        this.assetCache = assetCache;
+    }
+
+    /**
+     * State of one asset at capture time.
+     */
+    public static class Snapshot {
+        public final String assetId;
+        public final int version;
+        public final String fingerprint;   // JsonFingerprint.sha256 of data.metadata
+        public final JsonNode metadata;    // null unless keepTrees is enabled
+
+        Snapshot(String assetId, int version, String fingerprint, JsonNode metadata) {
+            this.assetId = assetId;
+            this.version = version;
+            this.fingerprint = fingerprint;
+            this.metadata = metadata;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{" +
+                    "assetId='" + assetId + '\'' +
+                    ", version=" + version +
+                    ", fingerprint='" + fingerprint + '\'' +
+                    '}';
+        }
+    }
+
+    /**
+     * An asset that changed (or could not be read) since its snapshot.
+     */
+    public static class Mismatch {
+        public final String assetId;
+        public final String reason;
+        public final List<String> differences;   // empty when no tree was kept
+
+        Mismatch(String assetId, String reason, List<String> differences) {
+            this.assetId = assetId;
+            this.reason = reason;
+            this.differences = differences;
+        }
+
+        @Override
+        public String toString() {
+            return assetId + ": " + reason + (differences.isEmpty() ? "" : " " + differences);
+        }
+    }
+
+    /**
+     * Outcome of a batch verification.
+     */
+    public static class BatchResult {
+        public final int verified;
+        public final int skipped;   // no snapshot for the asset
+        public final List<Mismatch> mismatches;
+
+        BatchResult(int verified, int skipped, List<Mismatch> mismatches) {
+            this.verified = verified;
+            this.skipped = skipped;
+            this.mismatches = mismatches;
+        }
+
+        public boolean isUnchanged() {
+            return mismatches.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "BatchResult{" +
+                    "verified=" + verified +
+                    ", skipped=" + skipped +
+                    ", mismatches=" + mismatches.size() +
+                    '}';
+        }
     }
 
     /**
@@ -42,94 +134,194 @@ public class AssetImmutabilityVerifier {
      * Safely skips execution if assetId is invalid or null to prevent 404s during pre-checks.
      */
     public void captureBeforeState(String auth, String assetId) {
-        // Reset state
-        this.snapshotTaken = false;
-        this.metadataBefore = null;
-        this.versionBefore = null;
-
         if (assetId == null || "INVALID".equals(assetId)) {
             log.info("Skipping immutability snapshot for invalid/null assetId: {}", assetId);
             return;
         }
+        // Reset state
+        snapshots.remove(assetId);
 
         log.info("Attempting to snapshot Asset ID: {}", assetId);
-        Response response = mediaCloudService.getAssetById(auth, assetId);
+        AssetCache.CachedAsset asset = assetCache.get(auth, assetId, Duration.ZERO);
 
-        if (response.getStatusCode() != 200) {
+        if (!asset.isOk()) {
             // We throw an exception here because if we can't get the "before" state,
             // the test setup is flawed.
             throw new AssertionError("Precondition failed: Could not retrieve asset '" + assetId +
-                    "' for snapshot. Status: " + response.getStatusCode());
+                    "' for snapshot. Status: " + asset.statusCode);
         }
 
-        parseAndStoreSnapshot(response.asString());
+        Snapshot snapshot = toSnapshot(asset);
+        if (snapshot != null) {
+            snapshots.put(assetId, snapshot);
+            log.info("Snapshot taken. Version: {}", snapshot.version);
+        } else {
+            log.warn("Snapshot failed: 'data.metadata' node not found in response.");
+        }
     }
 
     /**
      * Fetches the asset again and asserts it has not changed since the snapshot.
      */
     public void verifyUnchanged(String auth, String assetId) {
-        if (!snapshotTaken || metadataBefore == null) {
+        Snapshot before = (assetId == null) ? null : snapshots.get(assetId);
+        if (before == null) {
             log.info("Skipping immutability verification (no snapshot taken).");
             return;
         }
 
         log.info("Verifying immutability for Asset ID: {}", assetId);
-        Response response = mediaCloudService.getAssetById(auth, assetId);
-
-        if (response.getStatusCode() != 200) {
-            throw new AssertionError("Post-check failed: Could not retrieve asset '" + assetId +
-                    "'. Status: " + response.getStatusCode());
+        Mismatch mismatch = check(auth, before);
+        if (mismatch != null) {
+            throw new AssertionError("Immutability Failure: " + mismatch);
         }
 
-        verifyJsonAgainstSnapshot(response.asString());
+        log.info("Immutability Verified: Asset matches version {}", before.version);
     }
 
-    // ---------- Internal Logic ----------
-
-    private void parseAndStoreSnapshot(String jsonPayload) {
-        try {
-            JsonNode root = objectMapper.readTree(jsonPayload);
-            // Navigate to data.metadata based on your provided JSON structure
-            this.metadataBefore = root.path("data").path("metadata");
-
-            if (!metadataBefore.isMissingNode()) {
-                this.versionBefore = metadataBefore.path("_version").asInt();
-                this.snapshotTaken = true;
-                log.info("Snapshot taken. Version: {}", versionBefore);
-            } else {
-                log.warn("Snapshot failed: 'data.metadata' node not found in response.");
+    /**
+     * Snapshots many assets in parallel. Null/invalid ids are skipped; any asset that cannot be read fails
+     * the whole capture, like {@link #captureBeforeState}.
+     */
+    public void captureBeforeStates(String auth, Collection<String> assetIds) {
+        List<String> failures = runParallel(distinct(assetIds), assetId -> {
+            try {
+                captureBeforeState(auth, assetId);
+                return null;
+            } catch (AssertionError e) {
+                return e.getMessage();
             }
-        } catch (IOException e) {
-            throw new UncheckedIOException("Failed to parse snapshot JSON", e);
+        });
+        if (!failures.isEmpty()) {
+            throw new AssertionError("Precondition failed for " + failures.size() + " asset(s): " + failures);
         }
+        log.info("Snapshots taken for {} asset(s)", assetIds.size());
     }
 
-    private void verifyJsonAgainstSnapshot(String jsonPayload) {
-        try {
-            JsonNode root = objectMapper.readTree(jsonPayload);
-            JsonNode metadataAfter = root.path("data").path("metadata");
-            int versionAfter = metadataAfter.path("_version").asInt();
+    /**
+     * Verifies many assets in parallel and reports every mismatch instead of stopping at the first.
+     */
+    public BatchResult verifyAll(String auth, Collection<String> assetIds) {
+        List<String> ids = distinct(assetIds);
+        List<Snapshot> toCheck = new ArrayList<>(ids.size());
+        for (String assetId : ids) {
+            Snapshot snapshot = getSnapshot(assetId);
+            if (snapshot != null) toCheck.add(snapshot);
+        }
 
-            // Verification 1: Version Check (Primary Gate)
-            // In Akta/MAM, if _version matches, the object is identical.
-            if (versionBefore != null && versionBefore != versionAfter) {
-                throw new AssertionError(String.format(
-                        "Immutability Failure: Asset version advanced from %d to %d. The invalid request modified the asset.",
-                        versionBefore, versionAfter
-                ));
-            }
+        List<Mismatch> mismatches = runParallel(toCheck, snapshot -> check(auth, snapshot));
+        BatchResult result = new BatchResult(toCheck.size(), ids.size() - toCheck.size(), mismatches);
+        log.info("Immutability batch: {}", result);
+        return result;
+    }
 
-            // Verification 2: Deep Content Comparison
-            // Compares the entire metadata tree node-by-node
-            if (!metadataBefore.equals(metadataAfter)) {
-                throw new AssertionError("Immutability Failure: Asset metadata content changed despite version match.");
+    /**
+     * {@link #verifyAll} that fails with every mismatch listed.
+     */
+    public void verifyAllUnchanged(String auth, Collection<String> assetIds) {
+        BatchResult result = verifyAll(auth, assetIds);
+        if (!result.isUnchanged()) {
+            StringBuilder sb = new StringBuilder("Immutability Failure: ")
+                    .append(result.mismatches.size()).append(" of ").append(result.verified)
+                    .append(" asset(s) changed");
+            for (Mismatch m : result.mismatches) {
+                sb.append(System.lineSeparator()).append("  ").append(m);
             }
+            throw new AssertionError(sb.toString());
+        }
+    }
+
+    public boolean isSnapshotTaken(String assetId) {
+        return assetId != null && snapshots.containsKey(assetId);
+    }
+
+    public Snapshot getSnapshot(String assetId) {
+        return (assetId == null) ? null : snapshots.get(assetId);
+    }
+
+    public void discard(String assetId) {
+        if (assetId != null) snapshots.remove(assetId);
+    }
+
+    public void clear() {
+        snapshots.clear();
+    }
 
-            log.info("Immutability Verified: Asset matches version {}", versionBefore);
+    // ---------- Internal Logic ----------
+
+    private Snapshot toSnapshot(AssetCache.CachedAsset asset) {
+        // Navigate to data.metadata based on your provided JSON structure
+        JsonNode metadata = asset.metadata();
+        if (metadata.isMissingNode()) return null;
+
+        return new Snapshot(asset.assetId,
+                metadata.path("_version").asInt(),
+                JsonFingerprint.sha256(metadata),
+                keepTrees ? metadata : null);
+    }
+
+    /** Null when the asset still matches its snapshot. */
+    private Mismatch check(String auth, Snapshot before) {
+        AssetCache.CachedAsset asset = assetCache.get(auth, before.assetId, Duration.ZERO);
+        if (!asset.isOk()) {
+            return new Mismatch(before.assetId, "could not retrieve asset, status " + asset.statusCode, List.of());
+        }
+
+        JsonNode metadataAfter = asset.metadata();
+        int versionAfter = metadataAfter.path("_version").asInt();
+
+        // Verification 1: Version Check (Primary Gate)
+        // In Akta/MAM, if _version matches, the object is identical.
+        if (before.version != versionAfter) {
+            return new Mismatch(before.assetId, String.format(
+                    "version advanced from %d to %d. The invalid request modified the asset.",
+                    before.version, versionAfter), diff(before, metadataAfter));
+        }
 
-        } catch (IOException e) {
-            throw new UncheckedIOException("Failed to parse verification JSON", e);
+        // Verification 2: Content fingerprint (order-independent)
+        if (!before.fingerprint.equals(JsonFingerprint.sha256(metadataAfter))) {
+            return new Mismatch(before.assetId, "metadata content changed despite version match.",
+                    diff(before, metadataAfter));
+        }
+        return null;
+    }
+
+    private List<String> diff(Snapshot before, JsonNode metadataAfter) {
+        return (before.metadata == null)
+                ? List.of()
+                : JsonFingerprint.diff(before.metadata, metadataAfter, maxDiffEntries);
+    }
+
+    private static List<String> distinct(Collection<String> assetIds) {
+        return new ArrayList<>(new LinkedHashSet<>(assetIds));
+    }
+
+    /** Applies {@code task} on virtual threads, at most {@code parallelism} at a time; collects non-null results. */
+    private <T, R> List<R> runParallel(List<T> items, Function<T, R> task) {
+        Semaphore permits = new Semaphore(Math.max(1, parallelism));
+        List<R> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<R>> futures = new ArrayList<>(items.size());
+            for (T item : items) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return task.apply(item);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (Future<R> future : futures) {
+                R result = future.get();
+                if (result != null) results.add(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while checking assets", e);
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof RuntimeException re) ? re : new IllegalStateException(e.getCause());
         }
+        return results;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package fox.fmc.partner.delivery.test.helper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-asset mutual exclusion for specs that run in parallel.
+ * Two iterations that deliver to, snapshot or await the same asset would see each other's status flips and
+ * version bumps, so each one holds the asset's lock for its whole run; iterations on different assets still
+ * overlap. The locks are static rather than a bean because parallel specs may run in separate Spring contexts.
+ * The wait is bounded by {@code -Dpartner.assetLock.timeoutSeconds} (default 900).
+ */
+public final class AssetLocks {
+
+    private static final Logger log = LoggerFactory.getLogger(AssetLocks.class);
+
+    private static final long TIMEOUT_SECONDS = Long.getLong("partner.assetLock.timeoutSeconds", 900);
+
+    private static final ConcurrentHashMap<String, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+    private AssetLocks() {}
+
+    /**
+     * Locks held by one caller; closing releases them in reverse order.
+     */
+    public static final class Held implements AutoCloseable {
+        private final List<ReentrantLock> locks;
+        private boolean released;
+
+        private Held(List<ReentrantLock> locks) {
+            this.locks = locks;
+        }
+
+        @Override
+        public void close() {
+            if (released) return;
+            released = true;
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    public static Held lock(String assetId) {
+        return lock(List.of(assetId));
+    }
+
+    /**
+     * Locks every asset, always in the same (sorted) order so two callers with overlapping sets cannot deadlock.
+     * Null ids are ignored; the returned handle must be closed by the thread that took it.
+     */
+    public static Held lock(Collection<String> assetIds) {
+        TreeSet<String> ordered = new TreeSet<>();
+        assetIds.stream().filter(Objects::nonNull).forEach(ordered::add);
+
+        List<ReentrantLock> taken = new ArrayList<>(ordered.size());
+        try {
+            for (String assetId : ordered) {
+                ReentrantLock lock = LOCKS.computeIfAbsent(assetId, id -> new ReentrantLock());
+                if (!lock.tryLock()) {
+                    log.info("Waiting for asset {} held by another test", assetId);
+                    if (!lock.tryLock(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("Timed out after " + TIMEOUT_SECONDS
+                                + "s waiting for the lock on asset " + assetId);
+                    }
+                }
+                taken.add(lock);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            new Held(taken).close();
+            throw new IllegalStateException("Interrupted while waiting for an asset lock", e);
+        } catch (RuntimeException e) {
+            new Held(taken).close();
+            throw e;
+        }
+        return new Held(taken);
+    }
+
+    public static boolean isLocked(String assetId) {
+        ReentrantLock lock = (assetId == null) ? null : LOCKS.get(assetId);
+        return lock != null && lock.isLocked();
+    }
+}
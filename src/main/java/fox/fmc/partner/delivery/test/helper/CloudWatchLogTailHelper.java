@@ -5,16 +5,22 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.function.Predicate;
 
 /**
  * Robust extractor for JSON objects embedded in AWS Lambda Invoke's "logTail".
  * Why: AWS returns only the last ~4KB; lines can be truncated and multiple JSONs may be concatenated.
+ * Every reader also takes a {@link LogTailIndex}, e.g. the one CloudWatchLogsUtils.readInvocationIndex
+ * builds from the full log without joining it into one text.
  */
 public final class CloudWatchLogTailHelper {
 
+    // keyed by the logTail text itself; entries go away once the spec drops the invocation result
+    private static final Map<String, LogTailIndex> INDEX_CACHE = new WeakHashMap<>();
+
     private CloudWatchLogTailHelper() {}
 
     // ---------- Public Convenience Methods ----------
@@ -24,22 +30,41 @@ public final class CloudWatchLogTailHelper {
                                             String assetId,
                                             Class<T> type,
                                             ObjectMapper mapper) {
+        return readSqsNotification(index(logTailText, mapper), assetId, type, mapper);
+    }
+
+    public static <T> T readSqsNotification(LogTailIndex index,
+                                            String assetId,
+                                            Class<T> type,
+                                            ObjectMapper mapper) {
         String expected = "SQS notification response for " + assetId;
-        return readLogEntry(logTailText, expected, type, mapper);
+        return readLogEntry(index, expected, type, mapper);
     }
 
     /** Finds the "Batch response" entry. */
     public static <T> T readBatchResponse(String logTailText,
                                           Class<T> type,
                                           ObjectMapper mapper) {
-        return readLogEntry(logTailText, "Batch response", type, mapper);
+        return readBatchResponse(index(logTailText, mapper), type, mapper);
+    }
+
+    public static <T> T readBatchResponse(LogTailIndex index,
+                                          Class<T> type,
+                                          ObjectMapper mapper) {
+        return readLogEntry(index, "Batch response", type, mapper);
     }
 
     /** Finds the "index.handler response" entry. */
     public static <T> T readIndexHandlerResponse(String logTailText,
                                                  Class<T> type,
                                                  ObjectMapper mapper) {
-        return readLogEntry(logTailText, "index.handler response", type, mapper);
+        return readIndexHandlerResponse(index(logTailText, mapper), type, mapper);
+    }
+
+    public static <T> T readIndexHandlerResponse(LogTailIndex index,
+                                                 Class<T> type,
+                                                 ObjectMapper mapper) {
+        return readLogEntry(index, "index.handler response", type, mapper);
     }
 
     // ---------- Generic API ----------
@@ -54,18 +79,15 @@ public final class CloudWatchLogTailHelper {
                                      String messageIdentifier,
                                      Class<T> type,
                                      ObjectMapper objectMapper) {
-        List<JsonNode> entries = parseLogTail(logTailText, objectMapper);
-
-        // 1. Try Exact Match
-        JsonNode node = find(entries, n -> messageIdentifier.equals(n.path("message").asText(null)));
+        return readLogEntry(index(logTailText, objectMapper), messageIdentifier, type, objectMapper);
+    }
 
-        // 2. Try Contains Match (if exact failed)
-        if (node == null) {
-            node = find(entries, n -> {
-                String m = n.path("message").asText(null);
-                return m != null && m.contains(messageIdentifier);
-            });
-        }
+    public static <T> T readLogEntry(LogTailIndex index,
+                                     String messageIdentifier,
+                                     Class<T> type,
+                                     ObjectMapper objectMapper) {
+        // Exact match first, then contains match (both resolved by the index)
+        JsonNode node = index.findByMessage(messageIdentifier);
 
         if (node == null) {
             return null; // Return null so Spock can assert existence with a custom message
@@ -80,46 +102,36 @@ public final class CloudWatchLogTailHelper {
      * 1. Pure concatenated JSONs (e.g. "}{")
      * 2. Line-delimited JSON
      * 3. JSON embedded in AWS log lines (e.g. "TIMESTAMP requestId INFO {json}")
+     * Truncated objects (the tail is cut at ~4KB) are skipped.
      */
     public static List<JsonNode> parseLogTail(String logTailText, ObjectMapper objectMapper) {
-        if (logTailText == null || logTailText.isBlank()) return List.of();
-
-        List<JsonNode> out = new ArrayList<>();
-
-        // Split by newline to handle standard CloudWatch formatting
-        String[] lines = logTailText.split("\\r?\\n");
-
-        for (String line : lines) {
-            String trimmed = line.trim();
-            if (trimmed.isEmpty()) continue;
-
-            // Heuristic: Find the first '{'
-            int jsonStart = trimmed.indexOf('{');
-            if (jsonStart == -1) continue; // No JSON in this line
+        return index(logTailText, objectMapper).entries();
+    }
 
-            // Extract everything from the first '{' to the end
-            String potentialJson = trimmed.substring(jsonStart);
+    /**
+     * Parsed entries of the given log text. Indexes are kept while the text is still referenced,
+     * so reading several entries from the same logTail scans it only once.
+     */
+    public static LogTailIndex index(String logTailText, ObjectMapper objectMapper) {
+        if (logTailText == null || logTailText.isBlank()) return LogTailIndex.empty();
 
-            try {
-                JsonNode node = objectMapper.readTree(potentialJson);
-                out.add(node);
-            } catch (IOException ignored) {
-                // If the line has a '{' but isn't valid JSON (e.g. "INFO: Starting..."), just skip it.
-                // This is expected behavior for non-JSON logs.
-            }
+        synchronized (INDEX_CACHE) {
+            LogTailIndex cached = INDEX_CACHE.get(logTailText);
+            if (cached != null && cached.builtWith(objectMapper)) return cached;
         }
-
-        return out;
+        LogTailIndex index = LogTailIndex.of(logTailText, objectMapper);
+        synchronized (INDEX_CACHE) {
+            INDEX_CACHE.put(logTailText, index);
+        }
+        return index;
     }
 
-
     /** Let callers pass a custom predicate when 'message' isn't reliable. */
     public static <T> T deserializeFirstMatching(String logTailText,
                                                  Class<T> type,
                                                  ObjectMapper objectMapper,
                                                  Predicate<JsonNode> predicate) {
-        List<JsonNode> entries = parseLogTail(logTailText, objectMapper);
-        JsonNode node = find(entries, predicate);
+        JsonNode node = index(logTailText, objectMapper).findFirst(predicate);
 
         if (node == null) {
             return null;
@@ -129,13 +141,6 @@ public final class CloudWatchLogTailHelper {
 
     // ---------- Internals ----------
 
-    private static JsonNode find(List<JsonNode> entries, Predicate<JsonNode> p) {
-        for (JsonNode n : entries) {
-            if (p.test(n)) return n;
-        }
-        return null;
-    }
-
     private static <T> T treeTo(Class<T> type, JsonNode node, ObjectMapper mapper) {
         try {
             return mapper.treeToValue(node, type);
@@ -12,6 +12,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
 
 /**
  * Static utility to build Lambda SQS envelope events.
@@ -24,7 +25,7 @@ public final class LambdaEventHelper {
     }
 
     /**
-     * Creates a LambdaRequest POJO.
+     * Creates a LambdaRequest POJO with a fresh corrId, which the DeliveryTracer follows end to end.
      * Allows nulls to support negative testing scenarios.
      */
     public static LambdaRequest buildLambdaRequest(
@@ -38,6 +39,7 @@ public final class LambdaEventHelper {
                 .assetId(assetId)
                 .action(action)
                 .partner(partner)
+                .corrId(UUID.randomUUID().toString())
                 .build();
     }
 
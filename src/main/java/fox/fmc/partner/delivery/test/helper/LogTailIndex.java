@@ -0,0 +1,197 @@
+package fox.fmc.partner.delivery.test.helper;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * JSON entries found in Lambda log text, indexed by their "message" field.
+ * Built in a single pass: each line is scanned for balanced '{...}' spans (string- and escape-aware),
+ * and only complete spans that start like an object are handed to Jackson. Truncated entries and plain
+ * text lines are skipped without throwing.
+ */
+public final class LogTailIndex {
+
+    private static final LogTailIndex EMPTY = new LogTailIndex(null, List.of(), Map.of());
+
+    private final ObjectMapper mapper;
+    private final List<JsonNode> entries;
+    private final Map<String, JsonNode> byMessage; // first entry per exact message
+
+    private LogTailIndex(ObjectMapper mapper, List<JsonNode> entries, Map<String, JsonNode> byMessage) {
+        this.mapper = mapper;
+        this.entries = entries;
+        this.byMessage = byMessage;
+    }
+
+    public static LogTailIndex empty() {
+        return EMPTY;
+    }
+
+    public static LogTailIndex of(String logText, ObjectMapper mapper) {
+        if (logText == null || logText.isBlank()) return EMPTY;
+        return builder(mapper).accept(logText).build();
+    }
+
+    public static Builder builder(ObjectMapper mapper) {
+        return new Builder(mapper);
+    }
+
+    /** All JSON entries in log order. */
+    public List<JsonNode> entries() {
+        return entries;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    boolean builtWith(ObjectMapper mapper) {
+        return this == EMPTY || this.mapper == mapper;
+    }
+
+    /**
+     * Entry whose "message" equals the identifier (O(1)), otherwise the first entry whose message contains it.
+     *
+     * @return the entry, or null if none matches
+     */
+    public JsonNode findByMessage(String messageIdentifier) {
+        JsonNode exact = byMessage.get(messageIdentifier);
+        if (exact != null) return exact;
+
+        for (Map.Entry<String, JsonNode> e : byMessage.entrySet()) {
+            // byMessage keeps insertion order, so this is still "first in the log"
+            if (e.getKey().contains(messageIdentifier)) return e.getValue();
+        }
+        return null;
+    }
+
+    public JsonNode findFirst(Predicate<JsonNode> predicate) {
+        for (JsonNode n : entries) {
+            if (predicate.test(n)) return n;
+        }
+        return null;
+    }
+
+    // ---------- Builder ----------
+
+    /**
+     * Accepts log text in any number of chunks (e.g. one CloudWatch event at a time).
+     * A JSON entry must not span two chunks.
+     */
+    public static final class Builder {
+        private final ObjectMapper mapper;
+        private final List<JsonNode> entries = new ArrayList<>();
+        private final Map<String, JsonNode> byMessage = new LinkedHashMap<>();
+
+        private Builder(ObjectMapper mapper) {
+            this.mapper = mapper;
+        }
+
+        public Builder accept(String text) {
+            if (text == null || text.isEmpty()) return this;
+            char[] buf = text.toCharArray();
+
+            int lineStart = 0;
+            while (lineStart < buf.length) {
+                int lineEnd = lineStart;
+                while (lineEnd < buf.length && buf[lineEnd] != '\n' && buf[lineEnd] != '\r') lineEnd++;
+                scanLine(buf, lineStart, lineEnd);
+                lineStart = lineEnd + 1;
+            }
+            return this;
+        }
+
+        public LogTailIndex build() {
+            if (entries.isEmpty()) return EMPTY;
+            return new LogTailIndex(mapper,
+                    Collections.unmodifiableList(new ArrayList<>(entries)),
+                    Collections.unmodifiableMap(new LinkedHashMap<>(byMessage)));
+        }
+
+        private void scanLine(char[] buf, int start, int end) {
+            int i = start;
+            while (i < end) {
+                if (buf[i] != '{' || !looksLikeObjectStart(buf, i + 1, end)) {
+                    i++;
+                    continue;
+                }
+                int close = matchingBrace(buf, i, end);
+                if (close < 0) {
+                    return; // truncated entry: nothing after this point on the line is usable
+                }
+                JsonNode node = parse(buf, i, close + 1 - i);
+                if (node != null && node.isObject()) {
+                    add(node);
+                }
+                i = close + 1;
+            }
+        }
+
+        private void add(JsonNode node) {
+            entries.add(node);
+            JsonNode message = node.get("message");
+            if (message != null && message.isValueNode() && !message.isNull()) {
+                byMessage.putIfAbsent(message.asText(), node);
+            }
+        }
+
+        private JsonNode parse(char[] buf, int offset, int length) {
+            try (JsonParser p = mapper.getFactory().createParser(buf, offset, length)) {
+                return mapper.readTree(p);
+            } catch (IOException e) {
+                // balanced but not valid JSON (e.g. JS object literal); rare, so not worth pre-validating
+                return null;
+            }
+        }
+    }
+
+    // ---------- Scanner ----------
+
+    /** After '{' the next non-blank char must open a field name or close an empty object. */
+    private static boolean looksLikeObjectStart(char[] buf, int from, int end) {
+        for (int i = from; i < end; i++) {
+            char c = buf[i];
+            if (c == ' ' || c == '\t') continue;
+            return c == '"' || c == '}';
+        }
+        return false;
+    }
+
+    /**
+     * @return index of the '}' closing the object opened at {@code open}, or -1 if the line ends first
+     */
+    private static int matchingBrace(char[] buf, int open, int end) {
+        int depth = 0;
+        boolean inString = false;
+        for (int i = open; i < end; i++) {
+            char c = buf[i];
+            if (inString) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            switch (c) {
+                case '"' -> inString = true;
+                case '{', '[' -> depth++;
+                case '}', ']' -> {
+                    depth--;
+                    if (depth == 0) return (c == '}') ? i : -1;
+                }
+                default -> { }
+            }
+        }
+        return -1;
+    }
+}
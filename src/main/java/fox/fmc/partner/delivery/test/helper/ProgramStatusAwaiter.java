@@ -1,13 +1,18 @@
 package fox.fmc.partner.delivery.test.helper;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import fox.fmc.partner.delivery.test.cassette.Cassette;
 import fox.fmc.partner.delivery.test.enums.PartnerType;
+import fox.fmc.partner.delivery.test.jfr.StatusAwaitEvent;
+import fox.fmc.partner.delivery.test.jfr.StatusPollEvent;
+import fox.fmc.partner.delivery.test.service.AssetCache;
 import fox.fmc.partner.delivery.test.service.MediaCloudService;
 import fox.fmc.partner.delivery.test.service.PartnerDeliverySetupService;
-import io.restassured.response.Response;
+import fox.fmc.partner.delivery.test.telemetry.DeliveryTracer;
+import fox.fmc.partner.delivery.test.telemetry.MetricsRegistry;
 import jakarta.annotation.PostConstruct;
-import org.awaitility.Awaitility;
+import jakarta.annotation.PreDestroy;
+import org.awaitility.core.ConditionTimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,13 +20,31 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
 
 /**
- * Awaitility-based poller over MediaCloud getAssetById.
+ * Shared poller over MediaCloud getAssetById.
+ * All pending awaits for the same asset share one poll loop: each tick fetches the asset once and
+ * evaluates every waiter against it. Polls start fast and back off exponentially up to pollEverySeconds.
  */
 @Component
 public class ProgramStatusAwaiter {
@@ -51,30 +74,68 @@ public class ProgramStatusAwaiter {
     }
 
     // ---- Static Façade -------------------------------------------------------
-    private static ProgramStatusAwaiter INSTANCE;
+    // Every started bean, newest last. Parallel specs can hold several Spring contexts at once; when one of them
+    // is closed the façade falls back to a bean that is still running instead of a shut-down one.
+    private static final Deque<ProgramStatusAwaiter> INSTANCES = new ConcurrentLinkedDeque<>();
 
     private final MediaCloudService mediaCloudService;
-    private final ObjectMapper objectMapper;
+    private final AssetCache assetCache;
+    // replayed runs poll on the compressed clock
+    private final Cassette cassette;
+    private final MetricsRegistry metricsRegistry;
+    private final DeliveryTracer deliveryTracer;
 
     @Value("${partnerDelivery.status.await.atMostSeconds:120}")
     private long atMostSeconds;
 
+    // Upper bound for the poll interval once backoff has kicked in
     @Value("${partnerDelivery.status.await.pollEverySeconds:5}")
     private long pollEverySeconds;
 
-    /**
-     * Constructor Injection ensures we use the GLOBAL configured ObjectMapper.
-     */
+    @Value("${partnerDelivery.status.await.initialPollMillis:500}")
+    private long initialPollMillis;
+
+    @Value("${partnerDelivery.status.await.backoffMultiplier:2.0}")
+    private double backoffMultiplier;
+
+    // MAM calls have no socket timeout; a getAssetById that hangs longer than this counts as a failed poll
+    @Value("${partnerDelivery.status.await.fetchTimeoutSeconds:30}")
+    private long fetchTimeoutSeconds;
+
+    // assetId -> shared poll loop for every waiter on that asset
+    private final Map<String, AssetPoll> polls = new ConcurrentHashMap<>();
+
+    // One daemon thread only schedules ticks; the HTTP work runs on virtual threads
+    private ScheduledExecutorService scheduler;
+    private ExecutorService fetchers;
+
     @Autowired
-    public ProgramStatusAwaiter(MediaCloudService mediaCloudService, ObjectMapper objectMapper) {
+    public ProgramStatusAwaiter(MediaCloudService mediaCloudService, AssetCache assetCache, Cassette cassette,
+                                MetricsRegistry metricsRegistry, DeliveryTracer deliveryTracer) {
         this.mediaCloudService = mediaCloudService;
-        this.objectMapper = objectMapper;
+        this.assetCache = assetCache;
+        this.cassette = cassette;
+        this.metricsRegistry = metricsRegistry;
+        this.deliveryTracer = deliveryTracer;
     }
 
     @PostConstruct
     public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("program-status-poller").factory());
+        fetchers = Executors.newVirtualThreadPerTaskExecutor();
         // Expose this bean instance to the static context
-        INSTANCE = this;
+        INSTANCES.addLast(this);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        INSTANCES.remove(this);
+        scheduler.shutdownNow();
+        fetchers.shutdownNow();
+        polls.values().forEach(poll -> poll.waiters.forEach(w ->
+                w.future.completeExceptionally(new IllegalStateException("ProgramStatusAwaiter shut down"))));
+        polls.clear();
     }
 
     // ---- Static API -----------------------------------------------------------
@@ -88,34 +149,191 @@ public class ProgramStatusAwaiter {
     }
 
     public static void awaitProgram(String assetId, PartnerType partner, DesiredState desiredState) {
-        Objects.requireNonNull(INSTANCE, "ProgramStatusAwaiter not initialized. Ensure Spring Context is loaded.");
-        INSTANCE.awaitUntil(assetId, partner, predicateFor(desiredState));
+        instance().await(assetId, partner, desiredState);
     }
 
-    // ---- Internals ------------------------------------------------------------
+    public static CompletableFuture<StatusSnapshot> awaitProgramAsync(String assetId, PartnerType partner, DesiredState desiredState) {
+        return instance().awaitAsync(assetId, partner, desiredState);
+    }
+
+    private static ProgramStatusAwaiter instance() {
+        ProgramStatusAwaiter instance = INSTANCES.peekLast();
+        return Objects.requireNonNull(instance, "ProgramStatusAwaiter not initialized. Ensure Spring Context is loaded.");
+    }
+
+    // ---- Instance API ---------------------------------------------------------
 
-    private void awaitUntil(String assetId, PartnerType partner, Predicate<StatusSnapshot> predicate) {
-        Duration atMost = Duration.ofSeconds(atMostSeconds);
-        Duration pollEvery = Duration.ofSeconds(pollEverySeconds);
+    /**
+     * Registers a waiter and returns immediately.
+     * The future completes with the matching snapshot, or exceptionally with a ConditionTimeoutException
+     * after atMostSeconds. A watchdog fails it at the latest fetchTimeoutSeconds later, even if no tick returns.
+     */
+    public CompletableFuture<StatusSnapshot> awaitAsync(String assetId, PartnerType partner, DesiredState desiredState) {
+        Waiter waiter = new Waiter(partner, desiredState, predicateFor(desiredState),
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(atMostSeconds));
+        StatusAwaitEvent event = new StatusAwaitEvent();
+        event.begin();
+        long startedNanos = System.nanoTime();
+        waiter.future.whenComplete((snap, e) -> {
+            event.end();
+            String outcome = (e == null) ? "REACHED"
+                    : (e instanceof ConditionTimeoutException) ? "TIMEOUT"
+                    : e.getClass().getSimpleName();
+            metricsRegistry.recordNanos("status.await", System.nanoTime() - startedNanos,
+                    "partner", String.valueOf(partner), "desired_state", desiredState.name(), "outcome", outcome);
+            if (e == null) {
+                deliveryTracer.statusObserved(assetId, String.valueOf(partner));
+            }
+            if (event.shouldCommit()) {
+                event.assetId = assetId;
+                event.partner = String.valueOf(partner);
+                event.desiredState = desiredState.name();
+                event.outcome = outcome;
+                event.polls = waiter.polls;
+                event.commit();
+            }
+        });
 
         LOG.info("Awaiting Program Status: Asset={}, Partner={}, DesiredState={} (Timeout={}s)",
-                assetId, partner, predicate, atMostSeconds);
-
-        Awaitility.await()
-                .pollInterval(pollEvery)
-                .atMost(atMost)
-                .conditionEvaluationListener(condition -> {
-                    // Optional: Log only on failure or periodically to reduce noise
-                    if (!condition.isSatisfied()) {
-                        LOG.debug("Waiting... current state unsatisfied.");
-                    }
-                })
-                .until(() -> {
-                    StatusSnapshot snap = snapshot(assetId, partner);
-                    LOG.info("Poll: Asset={} Partner={} -> Meta={}, Media={}",
-                            assetId, partner, snap.metadataStatus, snap.mediaStatus);
-                    return predicate.test(snap);
-                });
+                assetId, partner, desiredState, atMostSeconds);
+
+        long hardLimitSeconds = atMostSeconds + fetchTimeoutSeconds;
+        ScheduledFuture<?> watchdog = scheduler.schedule(() -> waiter.future.completeExceptionally(
+                new ConditionTimeoutException(String.format(
+                        "Program status for asset %s / partner %s did not reach %s within %d seconds (no poll completed in time)",
+                        assetId, partner, desiredState, hardLimitSeconds))),
+                hardLimitSeconds, TimeUnit.SECONDS);
+        waiter.future.whenComplete((snap, e) -> watchdog.cancel(false));
+
+        boolean[] started = {false};
+        polls.compute(assetId, (id, poll) -> {
+            if (poll == null) {
+                poll = new AssetPoll(id);
+                started[0] = true;
+            }
+            poll.waiters.add(waiter);
+            return poll;
+        });
+
+        if (started[0]) {
+            schedulePoll(assetId, initialPollMillis);
+        }
+        return waiter.future;
+    }
+
+    /**
+     * Blocks until the asset reaches the desired state, for at most atMostSeconds + fetchTimeoutSeconds;
+     * rethrows the ConditionTimeoutException on timeout. Prefer this over the static façade in specs that run in parallel.
+     */
+    public void await(String assetId, PartnerType partner, DesiredState desiredState) {
+        try {
+            awaitAsync(assetId, partner, desiredState).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // ---- Internals ------------------------------------------------------------
+
+    private void schedulePoll(String assetId, long delayMillis) {
+        delayMillis = Math.max(10, cassette.scaleDelayMillis(delayMillis));
+        scheduler.schedule(() -> fetchers.execute(() -> poll(assetId)), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * One tick for one asset: fetch once, evaluate every waiter, then complete, expire or reschedule.
+     * A tick that dies would leave its AssetPoll in place with nothing to reschedule it, and every later
+     * await on the asset would join that dead loop; so its waiters are failed and the poll is dropped.
+     */
+    private void poll(String assetId) {
+        try {
+            tick(assetId);
+        } catch (RuntimeException | Error e) {
+            LOG.error("Status poll for asset={} failed; failing its waiters", assetId, e);
+            AssetPoll orphan = polls.remove(assetId);
+            if (orphan != null) {
+                orphan.waiters.forEach(w -> w.future.completeExceptionally(e));
+            }
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    private void tick(String assetId) {
+        StatusPollEvent event = new StatusPollEvent();
+        event.begin();
+        JsonNode root = fetchAsset(assetId);
+        Map<PartnerType, StatusSnapshot> byPartner = new HashMap<>();
+
+        List<Runnable> completions = new ArrayList<>();
+        long[] nextDelay = {-1};
+
+        polls.compute(assetId, (id, poll) -> {
+            if (poll == null) return null;
+            long now = System.nanoTime();
+            long earliestDeadline = Long.MAX_VALUE;
+
+            Iterator<Waiter> it = poll.waiters.iterator();
+            while (it.hasNext()) {
+                Waiter w = it.next();
+                if (w.future.isDone()) {           // cancelled by the caller
+                    it.remove();
+                    continue;
+                }
+                StatusSnapshot snap = byPartner.computeIfAbsent(w.partner, p -> snapshotFrom(root, p));
+                w.polls++;
+                LOG.info("Poll #{}: Asset={} Partner={} -> Meta={}, Media={}",
+                        poll.attempt + 1, id, w.partner, snap.metadataStatus, snap.mediaStatus);
+
+                if (w.predicate.test(snap)) {
+                    it.remove();
+                    completions.add(() -> w.future.complete(snap));
+                } else if (now >= w.deadlineNanos) {
+                    it.remove();
+                    String message = String.format(
+                            "Program status for asset %s / partner %s did not reach %s within %d seconds (last: meta=%s, media=%s)",
+                            id, w.partner, w.desiredState, atMostSeconds, snap.metadataStatus, snap.mediaStatus);
+                    completions.add(() -> w.future.completeExceptionally(new ConditionTimeoutException(message)));
+                } else {
+                    earliestDeadline = Math.min(earliestDeadline, w.deadlineNanos);
+                }
+            }
+
+            event.attempt = poll.attempt + 1;
+            if (poll.waiters.isEmpty()) {
+                return null;
+            }
+            poll.attempt++;
+            long backoff = backoffMillis(poll.attempt);
+            long untilDeadline = TimeUnit.NANOSECONDS.toMillis(earliestDeadline - now);
+            // never sleep past the earliest deadline, so timeouts are reported on time
+            nextDelay[0] = Math.max(10, Math.min(backoff, untilDeadline));
+            return poll;
+        });
+
+        event.end();
+        metricsRegistry.increment("status.polls", "outcome", (root != null) ? "fetched" : "failed");
+        if (event.shouldCommit()) {
+            event.assetId = assetId;
+            event.partners = byPartner.keySet().toString();
+            event.fetched = root != null;
+            event.commit();
+        }
+
+        completions.forEach(Runnable::run);
+        if (nextDelay[0] >= 0) {
+            schedulePoll(assetId, nextDelay[0]);
+        }
+    }
+
+    private long backoffMillis(int attempt) {
+        long maxMillis = TimeUnit.SECONDS.toMillis(pollEverySeconds);
+        double delay = initialPollMillis * Math.pow(backoffMultiplier, attempt);
+        return (long) Math.min(maxMillis, delay);
     }
 
     private static Predicate<StatusSnapshot> predicateFor(DesiredState desired) {
@@ -125,47 +343,72 @@ public class ProgramStatusAwaiter {
         };
     }
 
-    private StatusSnapshot snapshot(String assetId, PartnerType partner) {
+    /**
+     * @return the parsed asset, or null when it could not be fetched within fetchTimeoutSeconds
+     */
+    private JsonNode fetchAsset(String assetId) {
+        Future<JsonNode> fetch = fetchers.submit(() -> fetchAssetNow(assetId));
+        try {
+            return fetch.get(fetchTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            // interrupting a virtual thread blocked on a socket closes that socket
+            fetch.cancel(true);
+            LOG.warn("getAssetById for asset={} did not answer within {}s", assetId, fetchTimeoutSeconds);
+            return null;
+        } catch (InterruptedException e) {
+            fetch.cancel(true);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            LOG.warn("Snapshot failed for asset={}: {}", assetId, e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    private JsonNode fetchAssetNow(String assetId) {
         try {
             // Use the instance service
             String auth = mediaCloudService.getMamIdToken(USER_ADMIN);
-            Response resp = mediaCloudService.getAssetById(auth, assetId);
+            // status changes are what we wait for, so never serve a cached copy without revalidating
+            AssetCache.CachedAsset asset = assetCache.get(auth, assetId, Duration.ZERO);
 
-            int http = (resp != null) ? resp.getStatusCode() : -1;
-            if (http != 200) {
-                LOG.warn("getAssetById failed. HTTP={} for asset={}", http, assetId);
-                return StatusSnapshot.unknown();
+            if (!asset.isOk()) {
+                LOG.warn("getAssetById failed. HTTP={} for asset={}", asset.statusCode, assetId);
+                return null;
             }
+            return asset.root;
+        } catch (Exception ex) {
+            LOG.warn("Snapshot failed for asset={}: {}", assetId, ex.getMessage());
+            return null;
+        }
+    }
 
-            String body = resp.asString();
-            // Use the injected, configured ObjectMapper
-            JsonNode root = objectMapper.readTree(body);
-
-            JsonNode deliveryInfo = findDeliveryInfo(root);
-            if (deliveryInfo == null || !deliveryInfo.isObject()) {
-                return StatusSnapshot.unknown();
-            }
+    static StatusSnapshot snapshotFrom(JsonNode root, PartnerType partner) {
+        if (root == null) {
+            return StatusSnapshot.unknown();
+        }
 
-            String partnerName = (partner != null) ? partner.toString() : "";
-            Iterator<Map.Entry<String, JsonNode>> it = deliveryInfo.fields();
+        JsonNode deliveryInfo = findDeliveryInfo(root);
+        if (deliveryInfo == null || !deliveryInfo.isObject()) {
+            return StatusSnapshot.unknown();
+        }
 
-            while (it.hasNext()) {
-                Map.Entry<String, JsonNode> e = it.next();
-                JsonNode node = e.getValue();
+        String partnerName = (partner != null) ? partner.toString() : "";
+        Iterator<Map.Entry<String, JsonNode>> it = deliveryInfo.fields();
 
-                if (!containsDestination(node.path(FtsProgramJson.DESTINATION), partnerName)) {
-                    continue;
-                }
+        while (it.hasNext()) {
+            Map.Entry<String, JsonNode> e = it.next();
+            JsonNode node = e.getValue();
 
-                String meta  = textOrNull(node, FtsProgramJson.METADATA_STATUS);
-                String media = textOrNull(node, FtsProgramJson.MEDIA_STATUS);
-                return new StatusSnapshot(meta, media);
+            if (!containsDestination(node.path(FtsProgramJson.DESTINATION), partnerName)) {
+                continue;
             }
-            return StatusSnapshot.unknown();
-        } catch (Exception ex) {
-            LOG.warn("Snapshot failed for asset={}: {}", assetId, ex.getMessage());
-            return StatusSnapshot.unknown();
+
+            String meta  = textOrNull(node, FtsProgramJson.METADATA_STATUS);
+            String media = textOrNull(node, FtsProgramJson.MEDIA_STATUS);
+            return new StatusSnapshot(meta, media);
         }
+        return StatusSnapshot.unknown();
     }
 
     private static boolean containsDestination(JsonNode destArray, String expected) {
@@ -195,8 +438,37 @@ public class ProgramStatusAwaiter {
         return f.isObject() ? f : null;
     }
 
+    // ---- Poll State -----------------------------------------------------------
+
+    // Only mutated inside polls.compute(...) for its assetId
+    private static final class AssetPoll {
+        final String assetId;
+        final List<Waiter> waiters = new ArrayList<>();
+        int attempt;
+
+        AssetPoll(String assetId) {
+            this.assetId = assetId;
+        }
+    }
+
+    private static final class Waiter {
+        final PartnerType partner;
+        final DesiredState desiredState;
+        final Predicate<StatusSnapshot> predicate;
+        final long deadlineNanos;
+        final CompletableFuture<StatusSnapshot> future = new CompletableFuture<>();
+        int polls; // only touched inside polls.compute(...)
+
+        Waiter(PartnerType partner, DesiredState desiredState, Predicate<StatusSnapshot> predicate, long deadlineNanos) {
+            this.partner = partner;
+            this.desiredState = desiredState;
+            this.predicate = predicate;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+
     // ---- Value Object ---------------------------------------------------------
-    static final class StatusSnapshot {
+    public static final class StatusSnapshot {
         final String metadataStatus;
         final String mediaStatus;
 
@@ -207,14 +479,23 @@ public class ProgramStatusAwaiter {
 
         static StatusSnapshot unknown() { return new StatusSnapshot(null, null); }
 
-        boolean isPublished() {
+        public String getMetadataStatus() { return metadataStatus; }
+
+        public String getMediaStatus() { return mediaStatus; }
+
+        public boolean isPublished() {
             return PUBLISHED.equalsIgnoreCase(metadataStatus)
                     && PUBLISHED.equalsIgnoreCase(mediaStatus);
         }
 
-        boolean isUnpublished() {
+        public boolean isUnpublished() {
             return UNPUBLISHED.equalsIgnoreCase(metadataStatus)
                     && UNPUBLISHED.equalsIgnoreCase(mediaStatus);
         }
+
+        @Override
+        public String toString() {
+            return "StatusSnapshot{metadataStatus=" + metadataStatus + ", mediaStatus=" + mediaStatus + '}';
+        }
     }
-}
\ No newline at end of file
+}
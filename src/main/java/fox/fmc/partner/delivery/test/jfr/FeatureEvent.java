@@ -0,0 +1,25 @@
+package fox.fmc.partner.delivery.test.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One spec feature (iteration), so the harness events above can be read per test on the recording timeline.
+ */
+@Name(HarnessEvents.PREFIX + "Feature")
+@Label("Spec Feature")
+@Category({HarnessEvents.CATEGORY, "Spec"})
+@StackTrace(false)
+public class FeatureEvent extends jdk.jfr.Event {
+
+    @Label("Spec")
+    public String spec;
+
+    @Label("Feature")
+    public String feature;
+
+    @Label("Iteration")
+    public String iteration;
+}
@@ -0,0 +1,25 @@
+package fox.fmc.partner.delivery.test.jfr;
+
+import java.util.List;
+
+/**
+ * Custom Java Flight Recorder events emitted by the harness.
+ * Events are always created but only committed while a recording has them enabled, so a run without a recording
+ * pays a field write and a flag check per call. Record with {@code -Djfr.record=true} (see README) or with any
+ * JFR tooling, e.g. {@code jcmd <pid> JFR.start}, enabling the event names below.
+ */
+public final class HarnessEvents {
+
+    static final String PREFIX = "fox.fmc.partnerDelivery.";
+    static final String CATEGORY = "Partner Delivery";
+
+    public static final List<Class<? extends jdk.jfr.Event>> ALL = List.of(
+            LambdaInvokeEvent.class,
+            MamHttpEvent.class,
+            MamTokenEvent.class,
+            StatusPollEvent.class,
+            StatusAwaitEvent.class,
+            FeatureEvent.class);
+
+    private HarnessEvents() {}
+}
@@ -0,0 +1,50 @@
+package fox.fmc.partner.delivery.test.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One Lambda Invoke call made by {@code AwsLambdaUtils}, sync or non-blocking; the event duration is the client-side latency.
+ */
+@Name(HarnessEvents.PREFIX + "LambdaInvoke")
+@Label("Lambda Invoke")
+@Category({HarnessEvents.CATEGORY, "AWS"})
+@Description("Lambda Invoke call from the harness")
+@StackTrace(false)
+public class LambdaInvokeEvent extends jdk.jfr.Event {
+
+    @Label("Function")
+    public String functionName;
+
+    @Label("Invocation Type")
+    public String invocationType;
+
+    @Label("Qualifier")
+    public String qualifier;
+
+    @Label("Asset Id")
+    @Description("assetId of the invoke payload; null when it carries none")
+    public String assetId;
+
+    @Label("Partner")
+    public String partner;
+
+    @Label("Status Code")
+    public int statusCode;
+
+    @Label("Function Error")
+    public String functionError;
+
+    @Label("Executed Version")
+    public String executedVersion;
+
+    @Label("Cold Start")
+    public boolean coldStart;
+
+    @Label("Replayed")
+    @Description("Served from a cassette instead of AWS")
+    public boolean replayed;
+}
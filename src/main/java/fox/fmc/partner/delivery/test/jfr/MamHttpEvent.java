@@ -0,0 +1,31 @@
+package fox.fmc.partner.delivery.test.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One HTTP exchange with MAM or Cognito made through {@code ServiceBase}.
+ */
+@Name(HarnessEvents.PREFIX + "MamHttp")
+@Label("MAM HTTP Call")
+@Category({HarnessEvents.CATEGORY, "HTTP"})
+@Description("HTTP call from the harness to MAM or Cognito")
+@StackTrace(false)
+public class MamHttpEvent extends jdk.jfr.Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Path")
+    @Description("Path as written in the request, before path parameters are filled in")
+    public String path;
+
+    @Label("Host")
+    public String host;
+
+    @Label("Status")
+    public int status;
+}
@@ -0,0 +1,46 @@
+package fox.fmc.partner.delivery.test.jfr;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.net.URI;
+
+/**
+ * Emits a {@link MamHttpEvent} per RestAssured request; passes straight through when no recording enables it.
+ * Added ahead of the cassette filter, so replayed exchanges show up too.
+ */
+public final class MamHttpEventFilter implements Filter {
+
+    public static final MamHttpEventFilter INSTANCE = new MamHttpEventFilter();
+
+    private MamHttpEventFilter() {}
+
+    @Override
+    public Response filter(FilterableRequestSpecification request,
+                           FilterableResponseSpecification response,
+                           FilterContext ctx) {
+        MamHttpEvent event = new MamHttpEvent();
+        if (!event.isEnabled()) {
+            return ctx.next(request, response);
+        }
+        event.begin();
+        Response result = null;
+        try {
+            result = ctx.next(request, response);
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                URI uri = URI.create(request.getURI());
+                event.method = request.getMethod();
+                event.host = uri.getHost();
+                event.path = uri.getPath();
+                event.status = (result == null) ? -1 : result.getStatusCode();
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package fox.fmc.partner.delivery.test.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One {@code ServiceBase.getMamIdToken} call, including the Cognito and run-as requests when the token was not cached.
+ */
+@Name(HarnessEvents.PREFIX + "MamToken")
+@Label("MAM Token")
+@Category({HarnessEvents.CATEGORY, "HTTP"})
+@StackTrace(false)
+public class MamTokenEvent extends jdk.jfr.Event {
+
+    @Label("Username")
+    public String username;
+
+    @Label("Fetched")
+    public boolean fetched;
+}
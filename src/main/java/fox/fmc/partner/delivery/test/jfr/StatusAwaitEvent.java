@@ -0,0 +1,32 @@
+package fox.fmc.partner.delivery.test.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The whole wait for one asset / partner to reach a state, from registration until it matched or timed out.
+ * Covers the time spent sleeping between polls.
+ */
+@Name(HarnessEvents.PREFIX + "StatusAwait")
+@Label("Program Status Await")
+@Category({HarnessEvents.CATEGORY, "Status"})
+@StackTrace(false)
+public class StatusAwaitEvent extends jdk.jfr.Event {
+
+    @Label("Asset Id")
+    public String assetId;
+
+    @Label("Partner")
+    public String partner;
+
+    @Label("Desired State")
+    public String desiredState;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Polls")
+    public int polls;
+}
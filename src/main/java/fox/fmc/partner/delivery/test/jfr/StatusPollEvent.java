@@ -0,0 +1,28 @@
+package fox.fmc.partner.delivery.test.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One {@code ProgramStatusAwaiter} tick: a single asset fetch evaluated against every waiter on that asset.
+ */
+@Name(HarnessEvents.PREFIX + "StatusPoll")
+@Label("Program Status Poll")
+@Category({HarnessEvents.CATEGORY, "Status"})
+@StackTrace(false)
+public class StatusPollEvent extends jdk.jfr.Event {
+
+    @Label("Asset Id")
+    public String assetId;
+
+    @Label("Attempt")
+    public int attempt;
+
+    @Label("Partners")
+    public String partners;
+
+    @Label("Fetched")
+    public boolean fetched;
+}
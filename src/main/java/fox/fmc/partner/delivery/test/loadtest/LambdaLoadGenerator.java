@@ -0,0 +1,179 @@
+package fox.fmc.partner.delivery.test.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fox.fmc.partner.delivery.test.aws.AwsLambdaUtils;
+import fox.fmc.partner.delivery.test.enums.Action;
+import fox.fmc.partner.delivery.test.enums.PartnerType;
+import fox.fmc.partner.delivery.test.enums.RequestType;
+import fox.fmc.partner.delivery.test.helper.LambdaEventHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for the partner-delivery Lambda.
+ * Requests are sent on the schedule of a {@link LoadProfile} regardless of how fast earlier ones complete,
+ * through the non-blocking Lambda client (virtual threads, bounded by {@code maxInFlight}). If the cap is
+ * reached the dispatcher waits, but every latency is still measured from the request's intended start, so
+ * the wait shows up in the response times instead of silently lowering the offered load.
+ * Point {@code aws.endpoint.override} at a local stand-in to run offline.
+ */
+@Component
+public class LambdaLoadGenerator {
+    private static final Logger log = LoggerFactory.getLogger(LambdaLoadGenerator.class);
+
+    private final AwsLambdaUtils awsLambdaUtils;
+    private final ObjectMapper objectMapper;
+
+    // client-side cap on concurrent invocations (keep <= aws.lambda.async.maxConnections)
+    @Value("${partnerDelivery.loadtest.maxInFlight:50}")
+    private int maxInFlight;
+
+    // how long to wait for outstanding invocations after the last one was sent
+    @Value("${partnerDelivery.loadtest.drainTimeoutSeconds:120}")
+    private long drainTimeoutSeconds;
+
+    @Value("${partnerDelivery.loadtest.outputDir:target/loadtest}")
+    private String outputDir;
+
+    @Autowired
+    public LambdaLoadGenerator(AwsLambdaUtils awsLambdaUtils, ObjectMapper objectMapper) {
+        this.awsLambdaUtils = awsLambdaUtils;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * One kind of request in the mix; results are grouped by {@link #key()}.
+     */
+    public static class Target {
+        public final PartnerType partner;
+        public final Action action;
+        public final RequestType requestType;
+        public final String assetId;
+
+        public Target(PartnerType partner, Action action, RequestType requestType, String assetId) {
+            this.partner = partner;
+            this.action = action;
+            this.requestType = requestType;
+            this.assetId = assetId;
+        }
+
+        public String key() {
+            return partner + "/" + action;
+        }
+
+        @Override
+        public String toString() {
+            return key() + "(" + assetId + ")";
+        }
+    }
+
+    /**
+     * Runs {@code profile} against {@code functionName}, cycling through {@code targets} in order,
+     * and writes the report under {@code partnerDelivery.loadtest.outputDir}.
+     */
+    public LoadTestReport run(String runName, String functionName, LoadProfile profile, List<Target> targets) {
+        LoadTestReport report = execute(runName, functionName, profile, targets);
+        Path dir = report.writeTo(Path.of(outputDir));
+        log.info("Load run '{}' written to {}", runName, dir.toAbsolutePath());
+        return report;
+    }
+
+    /**
+     * Same as {@link #run} without writing files.
+     */
+    public LoadTestReport execute(String runName, String functionName, LoadProfile profile, List<Target> targets) {
+        if (targets.isEmpty()) throw new IllegalArgumentException("At least one target is required");
+
+        // payloads are built once; the run measures the Lambda, not event serialization
+        String[] payloads = new String[targets.size()];
+        for (int i = 0; i < payloads.length; i++) {
+            Target t = targets.get(i);
+            payloads[i] = toJson(LambdaEventHelper.buildSqsEvent(objectMapper, t.requestType, t.assetId, t.action, t.partner));
+        }
+
+        long total = profile.totalRequests();
+        log.info("Load run '{}': {} against '{}' ({} requests, {} targets, maxInFlight={})",
+                runName, profile, functionName, total, targets.size(), maxInFlight);
+
+        LoadTestReport report = new LoadTestReport(runName, profile.toString(), Instant.now());
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long lagWarnings = 0;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intended = start + profile.intendedOffsetNanos(i);
+            sleepUntil(intended);
+
+            Target target = targets.get((int) (i % targets.size()));
+            inFlight.acquireUninterruptibly();
+            long sent = System.nanoTime();
+            if (sent - intended > TimeUnit.SECONDS.toNanos(1) && lagWarnings++ % 100 == 0) {
+                log.warn("Load run '{}' is {} ms behind schedule (maxInFlight reached?)",
+                        runName, (sent - intended) / 1_000_000);
+            }
+
+            String key = target.key();
+            try {
+                awsLambdaUtils.invokeFuture(functionName, payloads[(int) (i % payloads.length)],
+                                AwsLambdaUtils.InvocationMode.REQUEST_RESPONSE, null, false)
+                        .whenComplete((result, error) -> {
+                            report.record(key, intended, sent, System.nanoTime(), error == null && result.isOk());
+                            inFlight.release();
+                        });
+            } catch (RuntimeException e) {
+                report.record(key, intended, sent, System.nanoTime(), false);
+                inFlight.release();
+            }
+        }
+
+        long timedOut = drain(inFlight);
+        report.finish(total, timedOut, (System.nanoTime() - start) / 1_000_000);
+        log.info("Load run finished: {}", report);
+        return report;
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    /** Waits for outstanding invocations; returns how many were still running at the timeout. */
+    private long drain(Semaphore inFlight) {
+        try {
+            if (inFlight.tryAcquire(maxInFlight, drainTimeoutSeconds, TimeUnit.SECONDS)) {
+                inFlight.release(maxInFlight);
+                return 0;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long outstanding = maxInFlight - inFlight.availablePermits();
+        log.warn("{} invocation(s) still outstanding after {}s", outstanding, drainTimeoutSeconds);
+        return outstanding;
+    }
+
+    private static void sleepUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize load payload", e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package fox.fmc.partner.delivery.test.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arrival schedule of an open-loop run: when request number {@code i} is supposed to start, independent of
+ * how long earlier requests take. Latencies are measured from these intended start times, so a stalled
+ * system is charged for the requests it delayed (coordinated omission correction).
+ */
+public abstract class LoadProfile {
+
+    /**
+     * Offset from the start of the run at which request {@code index} (0-based) should be sent,
+     * or -1 when the profile has no such request.
+     */
+    public abstract long intendedOffsetNanos(long index);
+
+    /** Number of requests the profile schedules. */
+    public abstract long totalRequests();
+
+    public abstract Duration duration();
+
+    /** {@code ratePerSecond} requests per second for {@code duration}. */
+    public static LoadProfile constant(double ratePerSecond, Duration duration) {
+        return new Ramp(ratePerSecond, ratePerSecond, duration);
+    }
+
+    /** Rate changes linearly from {@code fromRatePerSecond} to {@code toRatePerSecond} over {@code duration}. */
+    public static LoadProfile ramp(double fromRatePerSecond, double toRatePerSecond, Duration duration) {
+        return new Ramp(fromRatePerSecond, toRatePerSecond, duration);
+    }
+
+    /** Profiles run back to back, e.g. ramp up then hold. */
+    public static LoadProfile stages(LoadProfile... stages) {
+        return new Stages(List.of(stages));
+    }
+
+    // ------------------------------
+    // Implementations
+    // ------------------------------
+
+    /** Linear rate r(t) = from + (to - from) * t / T; a constant rate is a ramp with from == to. */
+    private static final class Ramp extends LoadProfile {
+        private final double from;
+        private final double to;
+        private final double seconds;
+        private final long total;
+
+        Ramp(double from, double to, Duration duration) {
+            if (from < 0 || to < 0 || (from == 0 && to == 0)) {
+                throw new IllegalArgumentException("Rates must be >= 0 and not both 0: " + from + " -> " + to);
+            }
+            this.from = from;
+            this.to = to;
+            this.seconds = duration.toNanos() / 1e9;
+            // requests in [0, T): integral of the rate
+            this.total = (long) Math.floor((from + to) / 2 * seconds);
+        }
+
+        @Override
+        public long intendedOffsetNanos(long index) {
+            if (index < 0 || index >= total) return -1;
+            double t;
+            double slope = (to - from) / seconds;
+            if (Math.abs(slope) < 1e-12) {
+                t = index / from;
+            } else {
+                // solve from*t + slope*t^2/2 = index for t >= 0
+                t = (-from + Math.sqrt(from * from + 2 * slope * index)) / slope;
+            }
+            return (long) (t * 1e9);
+        }
+
+        @Override
+        public long totalRequests() {
+            return total;
+        }
+
+        @Override
+        public Duration duration() {
+            return Duration.ofNanos((long) (seconds * 1e9));
+        }
+
+        @Override
+        public String toString() {
+            return (from == to)
+                    ? String.format("constant(%.1f/s, %.0fs)", from, seconds)
+                    : String.format("ramp(%.1f/s -> %.1f/s, %.0fs)", from, to, seconds);
+        }
+    }
+
+    private static final class Stages extends LoadProfile {
+        private final List<LoadProfile> stages;
+        private final long[] firstIndex;   // index of the first request of each stage
+        private final long[] startNanos;   // offset of each stage
+        private final long total;
+
+        Stages(List<LoadProfile> stages) {
+            if (stages.isEmpty()) throw new IllegalArgumentException("At least one stage is required");
+            this.stages = new ArrayList<>(stages);
+            this.firstIndex = new long[stages.size()];
+            this.startNanos = new long[stages.size()];
+            long index = 0;
+            long nanos = 0;
+            for (int i = 0; i < stages.size(); i++) {
+                firstIndex[i] = index;
+                startNanos[i] = nanos;
+                index += stages.get(i).totalRequests();
+                nanos += stages.get(i).duration().toNanos();
+            }
+            this.total = index;
+        }
+
+        @Override
+        public long intendedOffsetNanos(long index) {
+            if (index < 0 || index >= total) return -1;
+            for (int i = stages.size() - 1; i >= 0; i--) {
+                if (index >= firstIndex[i]) {
+                    return startNanos[i] + stages.get(i).intendedOffsetNanos(index - firstIndex[i]);
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public long totalRequests() {
+            return total;
+        }
+
+        @Override
+        public Duration duration() {
+            return Duration.ofNanos(startNanos[startNanos.length - 1] + stages.get(stages.size() - 1).duration().toNanos());
+        }
+
+        @Override
+        public String toString() {
+            return "stages" + stages;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package fox.fmc.partner.delivery.test.loadtest;
+
+import fox.fmc.partner.delivery.test.utils.JsonMappers;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies of one load run, per "PARTNER/ACTION" key and overall, recorded in microseconds.
+ * Response time is measured from the intended start of each request (what a user arriving on schedule would
+ * see); service time from the moment it was actually sent. A gap between the two means the client or the
+ * function could not keep up with the arrival rate.
+ * {@link #writeTo} exports HdrHistogram interval logs (.hlog), percentile distributions (.hgrm, the input of
+ * the HdrHistogram plotter for comparing runs) and a summary.json.
+ */
+public class LoadTestReport {
+
+    public static final String ALL = "ALL";
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    public final String runName;
+    public final String profile;
+    public final Instant startedAt;
+
+    private final Map<String, KeyStats> stats = new ConcurrentHashMap<>();
+    private final KeyStats all = new KeyStats(ALL);
+    private volatile long wallClockMillis;
+    private volatile long scheduled;
+    private volatile long timedOut;
+
+    LoadTestReport(String runName, String profile, Instant startedAt) {
+        this.runName = runName;
+        this.profile = profile;
+        this.startedAt = startedAt;
+    }
+
+    /**
+     * Histograms and counters of one key.
+     */
+    public static class KeyStats {
+        public final String key;
+        final Histogram responseTime = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        final Histogram serviceTime = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        final LongAdder errors = new LongAdder();
+
+        KeyStats(String key) {
+            this.key = key;
+        }
+
+        void record(long intendedNanos, long sentNanos, long endNanos, boolean ok) {
+            responseTime.recordValue(Math.max(0, (endNanos - intendedNanos) / 1_000));
+            serviceTime.recordValue(Math.max(0, (endNanos - sentNanos) / 1_000));
+            if (!ok) errors.increment();
+        }
+
+        public Summary summary() {
+            return new Summary(key, responseTime.getTotalCount(), errors.sum(),
+                    percentiles(responseTime), percentiles(serviceTime));
+        }
+    }
+
+    /**
+     * Percentiles in milliseconds.
+     */
+    public static class Summary {
+        public final String key;
+        public final long count;
+        public final long errors;
+        public final Map<String, Double> responseTimeMillis;
+        public final Map<String, Double> serviceTimeMillis;
+
+        Summary(String key, long count, long errors,
+                Map<String, Double> responseTimeMillis, Map<String, Double> serviceTimeMillis) {
+            this.key = key;
+            this.count = count;
+            this.errors = errors;
+            this.responseTimeMillis = responseTimeMillis;
+            this.serviceTimeMillis = serviceTimeMillis;
+        }
+
+        public double errorRate() {
+            return (count == 0) ? 0 : (double) errors / count;
+        }
+
+        @Override
+        public String toString() {
+            return key + "{count=" + count + ", errors=" + errors
+                    + ", responseTimeMs=" + responseTimeMillis + ", serviceTimeMs=" + serviceTimeMillis + '}';
+        }
+    }
+
+    // ------------------------------
+    // Recording (LambdaLoadGenerator)
+    // ------------------------------
+
+    void record(String key, long intendedNanos, long sentNanos, long endNanos, boolean ok) {
+        stats.computeIfAbsent(key, KeyStats::new).record(intendedNanos, sentNanos, endNanos, ok);
+        all.record(intendedNanos, sentNanos, endNanos, ok);
+    }
+
+    void finish(long scheduled, long timedOut, long wallClockMillis) {
+        this.scheduled = scheduled;
+        this.timedOut = timedOut;
+        this.wallClockMillis = wallClockMillis;
+        long endMillis = startedAt.toEpochMilli() + wallClockMillis;
+        for (KeyStats s : allStats().values()) {
+            for (Histogram h : new Histogram[]{s.responseTime, s.serviceTime}) {
+                h.setStartTimeStamp(startedAt.toEpochMilli());
+                h.setEndTimeStamp(endMillis);
+                h.setTag(s.key);
+            }
+        }
+    }
+
+    // ------------------------------
+    // Results
+    // ------------------------------
+
+    public Summary overall() {
+        return all.summary();
+    }
+
+    /** Per-key summaries, sorted by key. */
+    public Map<String, Summary> byKey() {
+        Map<String, Summary> out = new TreeMap<>();
+        stats.forEach((key, s) -> out.put(key, s.summary()));
+        return out;
+    }
+
+    public long getScheduled() {
+        return scheduled;
+    }
+
+    /** Requests still outstanding when the drain timeout expired; not in the histograms. */
+    public long getTimedOut() {
+        return timedOut;
+    }
+
+    public long getWallClockMillis() {
+        return wallClockMillis;
+    }
+
+    /** Achieved completion rate over the whole run. */
+    public double throughputPerSecond() {
+        return (wallClockMillis == 0) ? 0 : all.responseTime.getTotalCount() * 1000.0 / wallClockMillis;
+    }
+
+    /**
+     * Writes responseTime.hlog, serviceTime.hlog, one &lt;key&gt;.hgrm per key (response time, ms) and
+     * summary.json to {@code dir/runName}.
+     *
+     * @return the run directory
+     */
+    public Path writeTo(Path dir) {
+        Path runDir = dir.resolve(fileName(runName));
+        try {
+            Files.createDirectories(runDir);
+            writeLog(runDir.resolve("responseTime.hlog"), true);
+            writeLog(runDir.resolve("serviceTime.hlog"), false);
+            for (KeyStats s : allStats().values()) {
+                try (PrintStream out = printStream(runDir.resolve(fileName(s.key) + ".hgrm"))) {
+                    // values are recorded in microseconds; 1000.0 prints milliseconds
+                    s.responseTime.outputPercentileDistribution(out, 1000.0);
+                }
+            }
+            Files.writeString(runDir.resolve("summary.json"),
+                    JsonMappers.PRETTY_WRITER.writeValueAsString(summaryDocument()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write load test report to " + runDir, e);
+        }
+        return runDir;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadTestReport{" +
+                "runName='" + runName + '\'' +
+                ", profile=" + profile +
+                ", scheduled=" + scheduled +
+                ", timedOut=" + timedOut +
+                ", throughput=" + String.format("%.1f/s", throughputPerSecond()) +
+                ", overall=" + overall() +
+                '}';
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    private Map<String, KeyStats> allStats() {
+        Map<String, KeyStats> out = new TreeMap<>(stats);
+        out.put(ALL, all);
+        return out;
+    }
+
+    private void writeLog(Path file, boolean responseTime) throws IOException {
+        try (PrintStream out = printStream(file)) {
+            HistogramLogWriter writer = new HistogramLogWriter(out);
+            writer.outputLogFormatVersion();
+            writer.outputStartTime(startedAt.toEpochMilli());
+            writer.setBaseTime(startedAt.toEpochMilli());
+            writer.outputLegend();
+            for (KeyStats s : allStats().values()) {
+                writer.outputIntervalHistogram(responseTime ? s.responseTime : s.serviceTime);
+            }
+        }
+    }
+
+    private Map<String, Object> summaryDocument() {
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("runName", runName);
+        doc.put("profile", profile);
+        doc.put("startedAt", startedAt.toString());
+        doc.put("wallClockMillis", wallClockMillis);
+        doc.put("scheduled", scheduled);
+        doc.put("timedOut", timedOut);
+        doc.put("throughputPerSecond", throughputPerSecond());
+        doc.put("overall", overall());
+        doc.put("byKey", byKey());
+        return doc;
+    }
+
+    private static Map<String, Double> percentiles(Histogram h) {
+        Map<String, Double> out = new LinkedHashMap<>();
+        if (h.getTotalCount() == 0) return out;
+        out.put("p50", h.getValueAtPercentile(50) / 1000.0);
+        out.put("p90", h.getValueAtPercentile(90) / 1000.0);
+        out.put("p99", h.getValueAtPercentile(99) / 1000.0);
+        out.put("p99.9", h.getValueAtPercentile(99.9) / 1000.0);
+        out.put("max", h.getMaxValue() / 1000.0);
+        out.put("mean", h.getMean() / 1000.0);
+        return out;
+    }
+
+    private static PrintStream printStream(Path file) throws IOException {
+        return new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8);
+    }
+
+    private static String fileName(String s) {
+        return s.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
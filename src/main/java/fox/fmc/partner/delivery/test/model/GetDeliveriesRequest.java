@@ -1,6 +1,8 @@
 package fox.fmc.partner.delivery.test.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.annotations.SerializedName;
@@ -29,6 +31,12 @@ public class GetDeliveriesRequest {
     @SerializedName("sort")
     private List<Map<String, String>> sort;
 
+    // sort values of the last hit of the previous page; only sent when paging with search_after
+    @JsonProperty("search_after")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @SerializedName("search_after")
+    private List<Object> searchAfter;
+
     @Override
     public String toString() {
         try {
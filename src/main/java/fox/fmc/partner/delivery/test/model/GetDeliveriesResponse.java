@@ -2,6 +2,8 @@ package fox.fmc.partner.delivery.test.model;
 
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 public class GetDeliveriesResponse {
 
@@ -38,6 +40,7 @@ public class GetDeliveriesResponse {
         private String _id;
         private Float _score;
         private Source _source;
+        private List<Object> sort; // only present when the request is sorted
     }
 
     @Data
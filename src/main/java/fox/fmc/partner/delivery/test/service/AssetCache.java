@@ -0,0 +1,258 @@
+package fox.fmc.partner.delivery.test.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.restassured.response.Response;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-through cache for getAssetById, keyed by assetId.
+ * Stores the parsed asset tree together with data.metadata._version and the validators the API returned
+ * (ETag / Last-Modified). Entries younger than the caller's max staleness are served without a request;
+ * older ones are revalidated with a conditional GET when validators are known, so an unchanged asset costs
+ * a 304 instead of a full body download and parse. Size is LRU-bounded.
+ * Cached trees are shared between callers and must not be modified.
+ */
+@Component
+public class AssetCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AssetCache.class);
+
+    private final MediaCloudService mediaCloudService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${mam.asset.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mam.asset.cache.maxEntries:500}")
+    private long maxEntries;
+
+    // default max age of a cached asset for get(auth, assetId)
+    @Value("${mam.asset.cache.maxStalenessSeconds:30}")
+    private long maxStalenessSeconds;
+
+    private Cache<String, CachedAsset> assets;
+    private final ConcurrentHashMap<String, ReentrantLock> fetchLocks = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidated = new LongAdder();   // 304: cached copy still current
+    private final LongAdder refetched = new LongAdder();     // stale entry replaced by a full 200
+
+    @Autowired
+    public AssetCache(MediaCloudService mediaCloudService, ObjectMapper objectMapper) {
+        this.mediaCloudService = mediaCloudService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void init() {
+        assets = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    /**
+     * A fetched asset. {@link #root} is null when the request did not return 200.
+     */
+    public static class CachedAsset {
+        public final String assetId;
+        public final int statusCode;
+        public final JsonNode root;
+        public final Integer version;      // data.metadata._version, null when absent
+        public final String etag;
+        public final String lastModified;
+        public final long fetchedAtNanos;
+
+        CachedAsset(String assetId, int statusCode, JsonNode root, Integer version,
+                    String etag, String lastModified, long fetchedAtNanos) {
+            this.assetId = assetId;
+            this.statusCode = statusCode;
+            this.root = root;
+            this.version = version;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.fetchedAtNanos = fetchedAtNanos;
+        }
+
+        public boolean isOk() {
+            return statusCode == 200 && root != null;
+        }
+
+        /** data.metadata, or a missing node. */
+        public JsonNode metadata() {
+            return (root == null) ? MissingNode.getInstance() : root.path("data").path("metadata");
+        }
+
+        CachedAsset revalidatedAt(long nanos) {
+            return new CachedAsset(assetId, statusCode, root, version, etag, lastModified, nanos);
+        }
+
+        boolean isYoungerThan(Duration maxStaleness, long now) {
+            return now - fetchedAtNanos <= maxStaleness.toNanos();
+        }
+
+        @Override
+        public String toString() {
+            return "CachedAsset{" +
+                    "assetId='" + assetId + '\'' +
+                    ", statusCode=" + statusCode +
+                    ", version=" + version +
+                    ", etag='" + etag + '\'' +
+                    '}';
+        }
+    }
+
+    /**
+     * Counter snapshot for logging and assertions.
+     */
+    public static class Stats {
+        public final long hits;         // served from cache without a request
+        public final long misses;       // nothing cached for the asset
+        public final long revalidated;  // conditional request answered 304
+        public final long refetched;    // stale entry replaced by a full response
+        public final long size;
+
+        public Stats(long hits, long misses, long revalidated, long refetched, long size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.revalidated = revalidated;
+            this.refetched = refetched;
+            this.size = size;
+        }
+
+        @Override
+        public String toString() {
+            return "AssetCache.Stats{" +
+                    "hits=" + hits +
+                    ", misses=" + misses +
+                    ", revalidated=" + revalidated +
+                    ", refetched=" + refetched +
+                    ", size=" + size +
+                    '}';
+        }
+    }
+
+    /**
+     * Asset no older than the configured max staleness.
+     */
+    public CachedAsset get(String auth, String assetId) {
+        return get(auth, assetId, Duration.ofSeconds(maxStalenessSeconds));
+    }
+
+    /**
+     * Asset no older than {@code maxStaleness}. Pass {@link Duration#ZERO} to always go to the API
+     * (conditionally, when the cached entry has validators).
+     */
+    public CachedAsset get(String auth, String assetId, Duration maxStaleness) {
+        if (!enabled) {
+            misses.increment();
+            return fetch(auth, assetId, null);
+        }
+
+        CachedAsset cached = assets.getIfPresent(assetId);
+        if (cached != null && cached.isYoungerThan(maxStaleness, System.nanoTime())) {
+            hits.increment();
+            return cached;
+        }
+
+        ReentrantLock lock = fetchLocks.computeIfAbsent(assetId, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            // Another caller may have fetched while we were waiting for the lock
+            cached = assets.getIfPresent(assetId);
+            if (cached != null && cached.isYoungerThan(maxStaleness, System.nanoTime())) {
+                hits.increment();
+                return cached;
+            }
+
+            CachedAsset fetched = fetch(auth, assetId, cached);
+            if (cached == null) {
+                misses.increment();
+            } else if (fetched.root == cached.root) {
+                revalidated.increment(); // 304: same tree, new timestamp
+            } else {
+                refetched.increment();
+            }
+
+            if (fetched.isOk()) {
+                assets.put(assetId, fetched);
+            } else {
+                assets.invalidate(assetId);
+            }
+            return fetched;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the cached copy, e.g. after a Lambda invocation that may have modified the asset.
+     */
+    public void invalidate(String assetId) {
+        if (assetId != null) {
+            assets.invalidate(assetId);
+        }
+    }
+
+    public void invalidateAll() {
+        assets.invalidateAll();
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), revalidated.sum(), refetched.sum(), assets.size());
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    private CachedAsset fetch(String auth, String assetId, CachedAsset previous) {
+        Map<String, String> conditional = new HashMap<>();
+        if (previous != null && previous.etag != null) {
+            conditional.put("If-None-Match", previous.etag);
+        } else if (previous != null && previous.lastModified != null) {
+            conditional.put("If-Modified-Since", previous.lastModified);
+        }
+
+        Response response = mediaCloudService.getAssetById(auth, assetId, conditional);
+        long now = System.nanoTime();
+
+        if (response.getStatusCode() == 304 && previous != null) {
+            log.debug("Asset {} not modified (version {})", assetId, previous.version);
+            return previous.revalidatedAt(now);
+        }
+        if (response.getStatusCode() != 200) {
+            return new CachedAsset(assetId, response.getStatusCode(), null, null, null, null, now);
+        }
+
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(response.asString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse asset " + assetId, e);
+        }
+        JsonNode versionNode = root.path("data").path("metadata").path("_version");
+        Integer version = versionNode.canConvertToInt() ? versionNode.asInt() : null;
+
+        return new CachedAsset(assetId, 200, root, version,
+                response.getHeader("ETag"), response.getHeader("Last-Modified"), now);
+    }
+}
@@ -0,0 +1,202 @@
+package fox.fmc.partner.delivery.test.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import fox.fmc.partner.delivery.test.model.GetDeliveriesRequest;
+import fox.fmc.partner.delivery.test.model.GetDeliveriesResponse;
+import fox.fmc.partner.delivery.test.utils.JsonMappers;
+import io.restassured.response.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Lazily walks every delivery matching a getDeliveries query, one page at a time.
+ * While the caller consumes page N, page N+1 is already being fetched on a virtual thread, so at most two
+ * pages are held in memory regardless of how many deliveries match.
+ * Offsets are used while from + size stays within the index's result window; beyond that the iterator
+ * switches to search_after with the sort values of the last hit, which requires a sort on the request.
+ * A unique tiebreaker field is appended to that sort (unless it is already there) so the cursor is unambiguous:
+ * with a sort on a non-unique field alone, hits that tie across a page boundary would be skipped or repeated.
+ * Close it (or the stream built on it) when stopping early so an in-flight prefetch is cancelled.
+ */
+public class DeliveryPageIterator implements Iterator<GetDeliveriesResponse.Hit>, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(DeliveryPageIterator.class);
+
+    // sort values must keep their JSON types (epoch millis as long), so pages are read with Jackson, not Gson
+    private static final ObjectReader RESPONSE_READER = JsonMappers.MAPPER
+            .readerFor(GetDeliveriesResponse.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final Function<String, Response> fetcher;
+    private final GetDeliveriesRequest template;
+    private final List<Map<String, String>> sort;   // the template's sort plus the tiebreaker; null when unsorted
+    private final int pageSize;
+    private final int maxResultWindow;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private int nextFrom;
+    private List<Object> searchAfter;   // non-null once in cursor mode
+    private boolean exhausted;          // no page after the one being prefetched / consumed
+
+    private GetDeliveriesResponse.Hit[] current = new GetDeliveriesResponse.Hit[0];
+    private int position;
+    private CompletableFuture<GetDeliveriesResponse.Hit[]> prefetch;
+
+    private int pagesFetched;
+    private long hitsReturned;
+
+    /**
+     * @param fetcher         posts a request body and returns the raw response
+     * @param template        query and sort to page through; its from is the starting offset
+     * @param pageSize        hits per request
+     * @param maxResultWindow highest from + size served with offsets (Elasticsearch defaults to 10000)
+     * @param tiebreakerField unique keyword field appended to a sort that does not end on it, e.g. batchId.keyword
+     */
+    DeliveryPageIterator(Function<String, Response> fetcher,
+                         GetDeliveriesRequest template,
+                         int pageSize,
+                         int maxResultWindow,
+                         String tiebreakerField) {
+        this.fetcher = fetcher;
+        this.template = template;
+        this.sort = withTiebreaker(template.getSort(), tiebreakerField);
+        this.pageSize = Math.max(1, pageSize);
+        this.maxResultWindow = maxResultWindow;
+        this.nextFrom = Math.max(0, template.getFrom());
+        this.prefetch = fetchAsync(nextRequest());
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (position >= current.length) {
+            if (prefetch == null) return false;
+            current = awaitPrefetch();
+            position = 0;
+            prefetch = exhausted ? null : fetchAsync(nextRequest());
+        }
+        return true;
+    }
+
+    @Override
+    public GetDeliveriesResponse.Hit next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        hitsReturned++;
+        GetDeliveriesResponse.Hit hit = current[position];
+        current[position++] = null; // let consumed hits go
+        return hit;
+    }
+
+    public int getPagesFetched() {
+        return pagesFetched;
+    }
+
+    @Override
+    public void close() {
+        if (prefetch != null) {
+            prefetch.cancel(true);
+            prefetch = null;
+        }
+        executor.shutdownNow();
+        log.debug("Delivery paging closed after {} pages / {} hits", pagesFetched, hitsReturned);
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    private GetDeliveriesResponse.Hit[] awaitPrefetch() {
+        try {
+            GetDeliveriesResponse.Hit[] hits = prefetch.join();
+            pagesFetched++;
+            advanceCursor(hits);
+            return hits;
+        } catch (CompletionException e) {
+            close();
+            throw (e.getCause() instanceof RuntimeException re) ? re : e;
+        }
+    }
+
+    /** Decides where the page after {@code hits} starts, or that there is none. */
+    private void advanceCursor(GetDeliveriesResponse.Hit[] hits) {
+        if (hits.length < pageSize) {
+            exhausted = true;
+            return;
+        }
+        nextFrom += hits.length;
+        if (searchAfter != null || nextFrom + pageSize > maxResultWindow) {
+            List<Object> sortValues = hits[hits.length - 1].getSort();
+            if (sortValues == null || sortValues.isEmpty()) {
+                throw new IllegalStateException("Cannot page past " + maxResultWindow
+                        + " deliveries: the request needs a sort so search_after can be used");
+            }
+            if (searchAfter == null) {
+                log.info("Delivery paging switched to search_after at offset {}", nextFrom);
+            }
+            searchAfter = sortValues;
+        }
+    }
+
+    private GetDeliveriesRequest nextRequest() {
+        GetDeliveriesRequest request = new GetDeliveriesRequest();
+        request.setQuery(template.getQuery());
+        request.setSort(sort);
+        request.setSize(pageSize);
+        if (searchAfter == null) {
+            request.setFrom(nextFrom);
+        } else {
+            request.setFrom(0);
+            request.setSearchAfter(new ArrayList<>(searchAfter));
+        }
+        return request;
+    }
+
+    private static List<Map<String, String>> withTiebreaker(List<Map<String, String>> sort, String tiebreakerField) {
+        if (sort == null || sort.isEmpty() || tiebreakerField == null || tiebreakerField.isBlank()) {
+            return sort;
+        }
+        if (sort.get(sort.size() - 1).containsKey(tiebreakerField)) {
+            return sort;
+        }
+        List<Map<String, String>> out = new ArrayList<>(sort);
+        out.add(Map.of(tiebreakerField, "asc"));
+        return out;
+    }
+
+    private CompletableFuture<GetDeliveriesResponse.Hit[]> fetchAsync(GetDeliveriesRequest request) {
+        String body = request.toString();
+        return CompletableFuture.supplyAsync(() -> fetchPage(body), executor);
+    }
+
+    private GetDeliveriesResponse.Hit[] fetchPage(String body) {
+        Response response = fetcher.apply(body);
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new IllegalStateException("getDeliveries returned " + response.statusCode() + ": "
+                    + truncate(response.asString(), 500));
+        }
+        try {
+            GetDeliveriesResponse page = RESPONSE_READER.readValue(response.asString());
+            if (page.getHits() == null || page.getHits().getHits() == null) {
+                return new GetDeliveriesResponse.Hit[0];
+            }
+            return page.getHits().getHits();
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot parse getDeliveries page", e);
+        }
+    }
+
+    private static String truncate(String s, int max) {
+        if (s == null) return null;
+        return s.length() <= max ? s : s.substring(0, max) + "...";
+    }
+}
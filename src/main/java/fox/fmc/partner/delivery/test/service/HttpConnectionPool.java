@@ -0,0 +1,321 @@
+package fox.fmc.partner.delivery.test.service;
+
+import fox.fmc.partner.delivery.test.telemetry.MetricsRegistry;
+import io.restassured.RestAssured;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.http.HeaderElement;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HTTP;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opt-in keep-alive transport for the MAM REST calls ({@code mam.http.pool.enabled=true}).
+ * By default every request sends "Connection: close" and pays a TCP + TLS handshake; with the pool enabled
+ * RestAssured's requests share one connection manager whose connections stay open between calls.
+ * RestAssured only accepts AbstractHttpClient implementations, hence DefaultHttpClient with the
+ * (HttpClient 4.x) PoolingClientConnectionManager.
+ * <p>
+ * Concurrency: the connection manager is thread-safe, but RestAssured applies its HttpClientConfig params to the
+ * client on every request, so one DefaultHttpClient must not serve two requests at once (parallel specs, the
+ * verifier's virtual threads). {@link #restAssuredFilter()} therefore borrows an idle client for the length of
+ * each request and hands it back afterwards; at most maxTotal clients are ever built, all over the shared manager.
+ * Pool occupancy is exported as the "http.pool.connections" gauge of the {@link MetricsRegistry}.
+ */
+@Component
+// RestAssured only accepts AbstractHttpClient implementations, so the deprecated HttpClient 4.x API is deliberate
+@SuppressWarnings("deprecation")
+public class HttpConnectionPool {
+    private static final Logger log = LoggerFactory.getLogger(HttpConnectionPool.class);
+
+    @Value("${mam.http.pool.enabled:false}")
+    private boolean enabled;
+
+    @Value("${mam.http.pool.maxPerRoute:20}")
+    private int maxPerRoute;
+
+    @Value("${mam.http.pool.maxTotal:50}")
+    private int maxTotal;
+
+    // used when the server does not send a "Keep-Alive: timeout=..." header
+    @Value("${mam.http.pool.keepAliveSeconds:30}")
+    private long keepAliveSeconds;
+
+    // connections idle for longer than this are closed by the evictor
+    @Value("${mam.http.pool.idleEvictSeconds:60}")
+    private long idleEvictSeconds;
+
+    @Value("${mam.http.pool.evictionIntervalSeconds:10}")
+    private long evictionIntervalSeconds;
+
+    // null for standalone() pools
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    private PoolingClientConnectionManager connectionManager;
+    // what the clients see: RestAssured shuts down the manager of a client it does not reuse
+    private ClientConnectionManager sharedManager;
+    private ConnectionKeepAliveStrategy keepAliveStrategy;
+    private RestAssuredConfig config;
+    private ScheduledExecutorService evictor;
+
+    // clients not serving a request; at most maxTotal are ever created
+    private final BlockingQueue<DefaultHttpClient> idleClients = new LinkedBlockingQueue<>();
+    private final AtomicInteger createdClients = new AtomicInteger();
+    // the client borrowed by the request running on this thread; only set inside restAssuredFilter()
+    private final ThreadLocal<DefaultHttpClient> borrowed = new ThreadLocal<>();
+    private final Filter borrowFilter = new BorrowFilter();
+
+    /**
+     * Point-in-time pool utilization.
+     */
+    public static class Stats {
+        public final boolean enabled;
+        public final int leased;     // connections currently serving a request
+        public final int available;  // open, idle connections ready for reuse
+        public final int pending;    // requests waiting for a connection
+        public final int max;
+
+        public Stats(boolean enabled, int leased, int available, int pending, int max) {
+            this.enabled = enabled;
+            this.leased = leased;
+            this.available = available;
+            this.pending = pending;
+            this.max = max;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{" +
+                    "enabled=" + enabled +
+                    ", leased=" + leased +
+                    ", available=" + available +
+                    ", pending=" + pending +
+                    ", max=" + max +
+                    '}';
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) return;
+
+        connectionManager = new PoolingClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        sharedManager = new NonClosingConnectionManager(connectionManager);
+
+        keepAliveStrategy = keepAliveStrategy(keepAliveSeconds * 1000);
+        config = RestAssured.config().httpClient(HttpClientConfig.httpClientConfig()
+                .httpClientFactory(this::currentClient));
+
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "http-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        evictor.scheduleWithFixedDelay(this::evictIdle, evictionIntervalSeconds, evictionIntervalSeconds, TimeUnit.SECONDS);
+
+        if (metricsRegistry != null) {
+            metricsRegistry.gauge("http.pool.connections", () -> stats().leased, "state", "leased");
+            metricsRegistry.gauge("http.pool.connections", () -> stats().available, "state", "available");
+            metricsRegistry.gauge("http.pool.connections", () -> stats().pending, "state", "pending");
+            metricsRegistry.gauge("http.pool.connections", () -> stats().max, "state", "max");
+        }
+
+        log.info("HTTP connection pool enabled (maxPerRoute={}, maxTotal={}, keepAlive={}s, idleEvict={}s)",
+                maxPerRoute, maxTotal, keepAliveSeconds, idleEvictSeconds);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * RestAssured config that routes requests through the pool; null when the pool is disabled.
+     * Use it together with {@link #restAssuredFilter()}, which supplies the client each request runs on.
+     */
+    public RestAssuredConfig restAssuredConfig() {
+        return enabled ? config : null;
+    }
+
+    /**
+     * Filter that borrows a pooled client for one request and returns it once the response has been read.
+     */
+    public Filter restAssuredFilter() {
+        return borrowFilter;
+    }
+
+    /**
+     * An enabled pool built outside Spring, e.g. for MamTransportBenchmark; call {@link #shutdown()} when done.
+     */
+    static HttpConnectionPool standalone(int maxPerRoute, int maxTotal) {
+        HttpConnectionPool pool = new HttpConnectionPool();
+        pool.enabled = true;
+        pool.maxPerRoute = maxPerRoute;
+        pool.maxTotal = maxTotal;
+        pool.keepAliveSeconds = 30;
+        pool.idleEvictSeconds = 60;
+        pool.evictionIntervalSeconds = 10;
+        pool.init();
+        return pool;
+    }
+
+    public Stats stats() {
+        if (!enabled) {
+            return new Stats(false, 0, 0, 0, 0);
+        }
+        PoolStats total = connectionManager.getTotalStats();
+        return new Stats(true, total.getLeased(), total.getAvailable(), total.getPending(), total.getMax());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) return;
+        evictor.shutdownNow();
+        log.info("Shutting down HTTP connection pool: {}", stats());
+        connectionManager.shutdown();
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    private class BorrowFilter implements Filter {
+        @Override
+        public Response filter(FilterableRequestSpecification requestSpec,
+                               FilterableResponseSpecification responseSpec,
+                               FilterContext ctx) {
+            DefaultHttpClient client = borrowClient();
+            borrowed.set(client);
+            try {
+                return ctx.next(requestSpec, responseSpec);
+            } finally {
+                borrowed.remove();
+                idleClients.offer(client);
+            }
+        }
+    }
+
+    private DefaultHttpClient borrowClient() {
+        DefaultHttpClient client = idleClients.poll();
+        if (client != null) return client;
+        if (createdClients.getAndIncrement() < maxTotal) {
+            return newClient();
+        }
+        createdClients.decrementAndGet();
+        try {
+            // every client is in use, and so are maxTotal connections: wait for one to come back
+            return idleClients.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a pooled HTTP client", e);
+        }
+    }
+
+    // called by RestAssured when it sends the request, on the thread that ran the filter
+    private DefaultHttpClient currentClient() {
+        DefaultHttpClient client = borrowed.get();
+        // config used without the filter: a throwaway client still shares the pooled connections
+        return (client != null) ? client : newClient();
+    }
+
+    private DefaultHttpClient newClient() {
+        DefaultHttpClient client = new DefaultHttpClient(sharedManager);
+        client.setKeepAliveStrategy(keepAliveStrategy);
+        return client;
+    }
+
+    /** Delegates to the pool but ignores shutdown(); the pool itself is shut down by {@link #shutdown()}. */
+    private static final class NonClosingConnectionManager implements ClientConnectionManager {
+        private final ClientConnectionManager delegate;
+
+        NonClosingConnectionManager(ClientConnectionManager delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public SchemeRegistry getSchemeRegistry() {
+            return delegate.getSchemeRegistry();
+        }
+
+        @Override
+        public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+            return delegate.requestConnection(route, state);
+        }
+
+        @Override
+        public void releaseConnection(ManagedClientConnection conn, long validDuration, TimeUnit timeUnit) {
+            delegate.releaseConnection(conn, validDuration, timeUnit);
+        }
+
+        @Override
+        public void closeExpiredConnections() {
+            delegate.closeExpiredConnections();
+        }
+
+        @Override
+        public void closeIdleConnections(long idletime, TimeUnit timeUnit) {
+            delegate.closeIdleConnections(idletime, timeUnit);
+        }
+
+        @Override
+        public void shutdown() {
+            // shared by every client
+        }
+    }
+
+    private void evictIdle() {
+        try {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(idleEvictSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("HTTP pool eviction failed: {}", e.getMessage());
+        }
+    }
+
+    /** Honours the server's "Keep-Alive: timeout=N", otherwise keeps connections for the default. */
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long defaultMillis) {
+        return (response, context) -> {
+            var it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+            while (it.hasNext()) {
+                HeaderElement he = it.nextElement();
+                if ("timeout".equalsIgnoreCase(he.getName()) && he.getValue() != null) {
+                    try {
+                        return Long.parseLong(he.getValue()) * 1000;
+                    } catch (NumberFormatException ignored) {
+                        // fall through to the default
+                    }
+                }
+            }
+            return defaultMillis;
+        };
+    }
+}
@@ -0,0 +1,195 @@
+package fox.fmc.partner.delivery.test.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Per-user cache for MAM ID tokens.
+ * Tokens are kept until shortly before the JWT "exp" claim and refreshed on the next read after that point.
+ * Only one refresh per user runs at a time; concurrent callers for the same user wait for it and reuse the result.
+ */
+@Component
+public class MamTokenCache {
+
+    private static final Logger log = LoggerFactory.getLogger(MamTokenCache.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Value("${mam.token.cache.enabled:true}")
+    private boolean enabled;
+
+    // how long before "exp" a token is considered stale and refreshed
+    @Value("${mam.token.cache.refreshBeforeExpirySeconds:120}")
+    private long refreshBeforeExpirySeconds;
+
+    // used when the token carries no readable "exp" claim
+    @Value("${mam.token.cache.fallbackTtlSeconds:300}")
+    private long fallbackTtlSeconds;
+
+    private final ConcurrentHashMap<String, CachedToken> tokens = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ReentrantLock> refreshLocks = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Counter snapshot for logging and assertions.
+     */
+    public static class Stats {
+        public final long hits;       // served from cache
+        public final long misses;     // no token cached for the user yet
+        public final long refreshes;  // cached token was stale and got replaced
+        public final long failures;   // loader returned no token (never cached)
+
+        public Stats(long hits, long misses, long refreshes, long failures) {
+            this.hits = hits;
+            this.misses = misses;
+            this.refreshes = refreshes;
+            this.failures = failures;
+        }
+
+        @Override
+        public String toString() {
+            return "MamTokenCache.Stats{" +
+                    "hits=" + hits +
+                    ", misses=" + misses +
+                    ", refreshes=" + refreshes +
+                    ", failures=" + failures +
+                    '}';
+        }
+    }
+
+    /**
+     * Returns the cached raw ID token for the user, calling the loader when nothing fresh is cached.
+     *
+     * @param username MAM username the token is issued for
+     * @param loader   fetches a new raw ID token (without the "Bearer " prefix); may return null
+     * @return the raw ID token, or null when the loader could not provide one
+     */
+    public String get(String username, Supplier<String> loader) {
+        if (!enabled) {
+            misses.increment();
+            return loader.get();
+        }
+
+        String key = (username == null) ? "" : username;
+
+        CachedToken cached = tokens.get(key);
+        if (cached != null && cached.isFresh(Instant.now())) {
+            hits.increment();
+            return cached.token;
+        }
+
+        ReentrantLock lock = refreshLocks.computeIfAbsent(key, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            // Another caller may have refreshed while we were waiting for the lock
+            cached = tokens.get(key);
+            if (cached != null && cached.isFresh(Instant.now())) {
+                hits.increment();
+                return cached.token;
+            }
+
+            if (cached == null) {
+                misses.increment();
+            } else {
+                refreshes.increment();
+            }
+
+            String token = loader.get();
+            if (token == null || token.isBlank()) {
+                failures.increment();
+                tokens.remove(key);
+                log.warn("MAM token fetch for user '{}' returned no token; not caching", key);
+                return token;
+            }
+
+            CachedToken fresh = CachedToken.of(token, Instant.now(),
+                    Duration.ofSeconds(refreshBeforeExpirySeconds), Duration.ofSeconds(fallbackTtlSeconds));
+            tokens.put(key, fresh);
+            log.debug("Cached MAM token for user '{}' (expiresAt={}, refreshAt={})",
+                    key, fresh.expiresAt, fresh.refreshAt);
+            return token;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(String username) {
+        tokens.remove((username == null) ? "" : username);
+    }
+
+    public void invalidateAll() {
+        tokens.clear();
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), refreshes.sum(), failures.sum());
+    }
+
+    /**
+     * Reads the "exp" claim (seconds since epoch) from a JWT without verifying its signature.
+     *
+     * @return the expiry instant, or null if the token is not a readable JWT
+     */
+    static Instant decodeExpiry(String jwt) {
+        if (jwt == null) return null;
+        String[] parts = jwt.split("\\.");
+        if (parts.length < 2) return null;
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+            JsonNode claims = MAPPER.readTree(new String(payload, StandardCharsets.UTF_8));
+            JsonNode exp = claims.path("exp");
+            return exp.canConvertToLong() ? Instant.ofEpochSecond(exp.asLong()) : null;
+        } catch (Exception e) {
+            log.debug("Unable to decode JWT expiry: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // ---- Value Object ---------------------------------------------------------
+    private static final class CachedToken {
+        final String token;
+        final Instant expiresAt;
+        final Instant refreshAt;
+
+        private CachedToken(String token, Instant expiresAt, Instant refreshAt) {
+            this.token = token;
+            this.expiresAt = expiresAt;
+            this.refreshAt = refreshAt;
+        }
+
+        static CachedToken of(String token, Instant fetchedAt, Duration refreshBefore, Duration fallbackTtl) {
+            Instant exp = decodeExpiry(token);
+            if (exp == null) {
+                Instant expiresAt = fetchedAt.plus(fallbackTtl);
+                return new CachedToken(token, expiresAt, expiresAt);
+            }
+            // Short-lived tokens: never refresh earlier than half-way through their lifetime
+            Duration lifetime = Duration.between(fetchedAt, exp);
+            Duration margin = lifetime.isNegative() ? Duration.ZERO : lifetime.dividedBy(2);
+            if (refreshBefore.compareTo(margin) < 0) {
+                margin = refreshBefore;
+            }
+            return new CachedToken(token, exp, exp.minus(margin));
+        }
+
+        boolean isFresh(Instant now) {
+            return now.isBefore(refreshAt);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package fox.fmc.partner.delivery.test.service;
 
 import com.amazonaws.HttpMethod;
 import com.fox.mediacloud.core.model.User;
+import fox.fmc.partner.delivery.test.model.GetDeliveriesRequest;
+import fox.fmc.partner.delivery.test.model.GetDeliveriesResponse;
 import fox.fmc.partner.delivery.test.model.map.RequestParameterMap;
 import io.restassured.response.Response;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,8 +13,10 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
-import static io.restassured.RestAssured.given;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Component
 public class MediaCloudService extends ServiceBase {
@@ -32,11 +36,22 @@ public class MediaCloudService extends ServiceBase {
     @Value("${mam.api.partnerDelivery.getPartnerMetadata}")
     private String mamGetPartnerMetadataPath;
 
+    @Value("${partnerDelivery.deliveries.pageSize:100}")
+    private int deliveriesPageSize;
+
+    // Elasticsearch index.max_result_window; deeper pages are read with search_after
+    @Value("${partnerDelivery.deliveries.maxResultWindow:10000}")
+    private int deliveriesMaxResultWindow;
+
+    // unique field that breaks sort ties so search_after never skips or repeats a delivery
+    @Value("${partnerDelivery.deliveries.tiebreakerField:batchId.keyword}")
+    private String deliveriesTiebreakerField;
+
     public Response getUserDetails(String user, Boolean includeGroups) {
-        RequestParameterMap headerMap = buildRequestHeaders(getMamIdToken(PartnerDeliverySetupService.getAdminUser()));
+        RequestParameterMap headerMap = requestHeaders(getMamIdToken(PartnerDeliverySetupService.getAdminUser()));
         RequestParameterMap requestPathParameterMap = buildRequestPathParameters(user);
         String path = includeGroups ? mamGetUserPath + "?include=groups" : mamGetUserPath;
-        return given()
+        return request()
                 .contentType("application/json;charset=UTF-8")
                 .headers(headerMap)
                 .pathParams(requestPathParameterMap)
@@ -65,14 +80,37 @@ public class MediaCloudService extends ServiceBase {
     }
 
     public Response getAssetById(String auth, String assetId) {
+        return getAssetById(auth, assetId, null);
+    }
+
+    /**
+     * @param extraHeaders e.g. If-None-Match for a conditional GET; may be null
+     */
+    public Response getAssetById(String auth, String assetId, Map<String, String> extraHeaders) {
         RequestParameterMap requestPathParameterMap = buildRequestPathParameters("assetId", assetId);
-        return response(mamGetAssetPath, auth, null, buildRequestParameters(), requestPathParameterMap, HttpMethod.GET);
+        return response(mamGetAssetPath, auth, null, buildRequestParameters(), requestPathParameterMap, HttpMethod.GET, extraHeaders);
     }
 
     public Response getDeliveries(String auth, String body) {
         return response(mamGetDeliveriesPath, auth, body, buildRequestParameters(), null, HttpMethod.POST);
     }
 
+    /**
+     * Every delivery matching the request's query, fetched lazily page by page (see {@link DeliveryPageIterator}).
+     * The request's size is used as page size when set. Close the stream when not consuming it to the end.
+     */
+    public Stream<GetDeliveriesResponse.Hit> streamDeliveries(String auth, GetDeliveriesRequest request) {
+        DeliveryPageIterator iterator = deliveryIterator(auth, request);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    public DeliveryPageIterator deliveryIterator(String auth, GetDeliveriesRequest request) {
+        int pageSize = request.getSize() > 0 ? request.getSize() : deliveriesPageSize;
+        return new DeliveryPageIterator(body -> getDeliveries(auth, body), request, pageSize, deliveriesMaxResultWindow,
+                deliveriesTiebreakerField);
+    }
+
     public Response getDeliveryByBatchId(String auth, String batchId) {
         RequestParameterMap requestPathParameterMap = buildRequestPathParameters("batchId", batchId);
         return response(mamGetDeliveryByBatchIdPath, auth, null, buildRequestParameters(), requestPathParameterMap, HttpMethod.GET);
@@ -1,15 +1,22 @@
 package fox.fmc.partner.delivery.test.service;
 
 import com.amazonaws.HttpMethod;
+import fox.fmc.partner.delivery.test.cassette.Cassette;
 import fox.fmc.partner.delivery.test.constants.FMCConstants;
+import fox.fmc.partner.delivery.test.jfr.MamHttpEventFilter;
+import fox.fmc.partner.delivery.test.jfr.MamTokenEvent;
 import fox.fmc.partner.delivery.test.model.map.MapOfObjects;
 import fox.fmc.partner.delivery.test.model.map.RequestParameterMap;
-import fox.fmc.partner.delivery.test.utils.JsonObjectMapper;
+import fox.fmc.partner.delivery.test.telemetry.MetricsRegistry;
 import fox.fmc.partner.delivery.test.utils.LogHandler;
+import fox.fmc.partner.delivery.test.utils.StreamingJsonFlattener;
 import fox.fmc.partner.delivery.test.utils.SystemUtils;
 import io.restassured.RestAssured;
+import io.restassured.config.RestAssuredConfig;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -27,20 +34,42 @@ public class ServiceBase {
     @Value("${mam.cognito.token.url}")
     private String cognitoUrl;
 
+    @Autowired
+    private MamTokenCache mamTokenCache;
+
+    @Autowired
+    private HttpConnectionPool httpConnectionPool;
+
+    @Autowired
+    private Cassette cassette;
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
     protected static final String CONTENT_TYPE_APPLICATION_JSON_UTF8 = "application/json;charset=UTF-8";
     protected static final String AUTHORIZATION = "Authorization";
     protected static final String CONNECTION = "Connection";
     protected static final String CLOSE = "close";
 
     public Response response(String path, String auth, String body, RequestParameterMap requestParameterMap, RequestParameterMap requestPathParameterMap, HttpMethod httpMethod) {
-        RequestParameterMap headerMap = buildRequestHeaders(auth);
+        return response(path, auth, body, requestParameterMap, requestPathParameterMap, httpMethod, null);
+    }
+
+    /**
+     * @param extraHeaders added to the standard headers (e.g. conditional request headers); may be null
+     */
+    public Response response(String path, String auth, String body, RequestParameterMap requestParameterMap, RequestParameterMap requestPathParameterMap, HttpMethod httpMethod, Map<String, String> extraHeaders) {
+        RequestParameterMap headerMap = requestHeaders(auth);
+        if (extraHeaders != null) {
+            extraHeaders.forEach(headerMap::put);
+        }
         logRequestParameters(requestParameterMap);
         logRequestHeaders(headerMap);
         Response response;
         switch (httpMethod) {
             case GET -> {
                 if (requestPathParameterMap != null) {
-                    response = given()
+                    response = request()
                             .contentType(CONTENT_TYPE_APPLICATION_JSON_UTF8)
                             .headers(headerMap)
                             .params(requestParameterMap)
@@ -50,7 +79,7 @@ public class ServiceBase {
                             .when()
                             .get(path);
                 } else {
-                    response = given()
+                    response = request()
                             .contentType(CONTENT_TYPE_APPLICATION_JSON_UTF8)
                             .headers(headerMap)
                             .params(requestParameterMap)
@@ -62,7 +91,7 @@ public class ServiceBase {
             }
             case POST -> {
                 if (body == null) {
-                    response = given()
+                    response = request()
                             .contentType(CONTENT_TYPE_APPLICATION_JSON_UTF8)
                             .headers(headerMap)
                             .params(requestParameterMap)
@@ -71,7 +100,7 @@ public class ServiceBase {
                             .when()
                             .post(path);
                 } else {
-                    response = given()
+                    response = request()
                             .contentType(CONTENT_TYPE_APPLICATION_JSON_UTF8)
                             .headers(headerMap)
                             .queryParams(requestParameterMap)
@@ -83,7 +112,7 @@ public class ServiceBase {
             }
             case PUT -> {
                 if (body == null) {
-                    response = given()
+                    response = request()
                             .urlEncodingEnabled(false)
                             .contentType(CONTENT_TYPE_APPLICATION_JSON_UTF8)
                             .headers(headerMap)
@@ -92,7 +121,7 @@ public class ServiceBase {
                             .log().all().when()
                             .put(path);
                 } else if (requestPathParameterMap == null) {
-                    response = given()
+                    response = request()
                             .contentType(CONTENT_TYPE_APPLICATION_JSON_UTF8)
                             .headers(headerMap)
                             .queryParams(requestParameterMap)
@@ -101,7 +130,7 @@ public class ServiceBase {
                             .when()
                             .put(path);
                 } else {
-                    response = given()
+                    response = request()
                             .contentType(CONTENT_TYPE_APPLICATION_JSON_UTF8)
                             .headers(headerMap)
                             .queryParams(requestParameterMap)
@@ -113,14 +142,14 @@ public class ServiceBase {
                             .put(path);
                 }
             }
-            case DELETE -> response = given()
+            case DELETE -> response = request()
                     .contentType(CONTENT_TYPE_APPLICATION_JSON_UTF8)
                     .headers(headerMap)
                     .params(requestParameterMap)
                     .log().all()
                     .when()
                     .delete(path);
-            case PATCH -> response = given()
+            case PATCH -> response = request()
                     .contentType(CONTENT_TYPE_APPLICATION_JSON_UTF8)
                     .headers(headerMap)
                     .params(requestParameterMap)
@@ -135,22 +164,63 @@ public class ServiceBase {
     }
 
     public static RequestParameterMap buildRequestHeaders(String auth) {
+        return buildRequestHeaders(auth, false);
+    }
+
+    /**
+     * @param keepAlive leave the connection open for reuse instead of sending "Connection: close"
+     */
+    public static RequestParameterMap buildRequestHeaders(String auth, boolean keepAlive) {
         RequestParameterMap headerMap = new RequestParameterMap();
         if (auth != null && auth.contains("Bearer")) {
             headerMap.put(AUTHORIZATION, auth);
         }
         headerMap.put("Accept", "application/json");
-        headerMap.put(CONNECTION, CLOSE);
+        if (!keepAlive) {
+            headerMap.put(CONNECTION, CLOSE);
+        }
         return headerMap;
     }
 
+    /**
+     * Request headers for this transport: "Connection: close" unless the connection pool is enabled.
+     */
+    protected RequestParameterMap requestHeaders(String auth) {
+        return buildRequestHeaders(auth, httpConnectionPool.isEnabled());
+    }
+
+    /**
+     * Starting point for every MAM request; uses the pooled HTTP client when {@code mam.http.pool.enabled}
+     * and goes through the {@link Cassette} when recording or replaying. Every call emits a JFR MamHttpEvent
+     * and is timed in the {@link MetricsRegistry}.
+     */
+    protected RequestSpecification request() {
+        return filtered(httpConnectionPool.isEnabled() ? given().config(httpConnectionPool.restAssuredConfig()) : given());
+    }
+
+    private RequestSpecification filtered(RequestSpecification spec) {
+        spec = spec.filter(MamHttpEventFilter.INSTANCE).filter(metricsRegistry.restAssuredFilter());
+        if (cassette.isActive()) {
+            spec = spec.filter(cassette.restAssuredFilter());
+        }
+        // last, so a replayed response never borrows a pooled client
+        return httpConnectionPool.isEnabled() ? spec.filter(httpConnectionPool.restAssuredFilter()) : spec;
+    }
+
+    public HttpConnectionPool.Stats getHttpPoolStats() {
+        return httpConnectionPool.stats();
+    }
+
     public static MapOfObjects parseResponse(Response response) {
         MapOfObjects responseMap = new MapOfObjects();
-        if (!response.asString().isEmpty()) {
-            if (JsonObjectMapper.isValidJson(response.asString())) {
-                responseMap.putAll(JsonObjectMapper.jsonToMapFlattener_v2(response.asString()));
+        String body = response.asString();
+        if (!body.isEmpty()) {
+            // one streaming pass both validates and flattens (no intermediate tree)
+            MapOfObjects flattened = StreamingJsonFlattener.V2.flattenIfValid(body);
+            if (flattened != null) {
+                responseMap.putAll(flattened);
             }
-            responseMap.put("JSON", response.asString());
+            responseMap.put("JSON", body);
         } else {
             responseMap.put("JSON", "NOT_PRESENT");
         }
@@ -159,13 +229,13 @@ public class ServiceBase {
 
     private void logRequestParameters(RequestParameterMap requestParameterMap) {
         if (!requestParameterMap.isEmpty()) {
-            LogHandler.debugPrint("Request Parameters: " + requestParameterMap);
+            LogHandler.debugPrint("Request Parameters: {}", requestParameterMap);
         }
     }
 
     private void logRequestHeaders(RequestParameterMap headerMap) {
         if (!headerMap.isEmpty()) {
-            LogHandler.debugPrint("Request Headers: " + headerMap);
+            LogHandler.debugPrint("Request Headers: {}", headerMap);
         }
     }
 
@@ -181,9 +251,10 @@ public class ServiceBase {
         requestBody.put("AuthFlow", "USER_PASSWORD_AUTH");
         requestBody.put("ClientId", SystemUtils.getProperty(FMCConstants.CLIENT_ID));
         requestBody.put("AuthParameters", authParameters);
-        Response response = given()
+        RestAssuredConfig config = httpConnectionPool.isEnabled() ? httpConnectionPool.restAssuredConfig() : RestAssured.config();
+        Response response = filtered(given())
                 .headers(headerMap)
-                .config(RestAssured.config().encoderConfig(encoderConfig().encodeContentTypeAs("application/x-amz-json-1.1", ContentType.JSON)))
+                .config(config.encoderConfig(encoderConfig().encodeContentTypeAs("application/x-amz-json-1.1", ContentType.JSON)))
                 .body(requestBody)
                 .when()
                 .post(cognitoUrl);
@@ -200,16 +271,42 @@ public class ServiceBase {
         Map<String, Object> requestParameterMap = new HashMap<>();
         requestParameterMap.put("username", username);
         requestParameterMap.put("allow_cache", "true");
-        return given()
+        return request()
                 .headers(buildMamTokenHeaders())
                 .queryParams(requestParameterMap)
                 .when()
                 .post(tokenUrl);
     }
 
+    /**
+     * Returns a "Bearer" MAM ID token for the user, served from {@link MamTokenCache} while the token is fresh.
+     */
     public String getMamIdToken(String username) {
+        MamTokenEvent event = new MamTokenEvent();
+        event.begin();
+        boolean[] fetched = {false};
+        try {
+            return "Bearer " + mamTokenCache.get(username, () -> {
+                fetched[0] = true;
+                return fetchMamIdToken(username);
+            });
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.username = username;
+                event.fetched = fetched[0];
+                event.commit();
+            }
+        }
+    }
+
+    private String fetchMamIdToken(String username) {
         Response response = getMamTokenRequest(username);
-        return "Bearer " + response.getBody().jsonPath().get("data.tokens.IdToken");
+        return response.getBody().jsonPath().get("data.tokens.IdToken");
+    }
+
+    public MamTokenCache.Stats getMamTokenCacheStats() {
+        return mamTokenCache.stats();
     }
 
     //apikey not needed for new mam
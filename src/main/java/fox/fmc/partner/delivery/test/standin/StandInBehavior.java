@@ -0,0 +1,170 @@
+package fox.fmc.partner.delivery.test.standin;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Latency and failure settings of the {@link StandInServer}, per endpoint.
+ * Latencies are log-normal: {@code latency.medianMillis} and {@code latency.p99Millis} fix the distribution,
+ * which gives the long right tail real services have (equal values mean a constant latency).
+ * Each endpoint draws from its own Random seeded from {@code standin.seed}, so a run with the same settings
+ * and the same request mix sees the same distributions.
+ * Properties are read per endpoint ({@code standin.asset.latency.medianMillis}) and fall back to
+ * {@code standin.default.*}.
+ */
+@Component
+@Profile("standin")
+public class StandInBehavior {
+
+    // z-score of the 99th percentile of the standard normal distribution
+    private static final double Z_99 = 2.3263;
+
+    public enum Endpoint {
+        COGNITO("cognito"),
+        RUN_AS("runAs"),
+        ASSET("asset"),
+        DELIVERIES("deliveries"),
+        DELIVERY_BY_BATCH_ID("deliveryByBatchId"),
+        LAMBDA("lambda"),
+        SQS("sqs"),
+        LOGS("logs"),
+        PUSH_GATEWAY("pushGateway");
+
+        public final String propertyKey;
+
+        Endpoint(String propertyKey) {
+            this.propertyKey = propertyKey;
+        }
+    }
+
+    /**
+     * Settings of one endpoint. A failed request answers {@code failureStatus}; Lambda invocations fail as a
+     * function error instead (HTTP 200 with X-Amz-Function-Error), as the real service does.
+     */
+    public static class EndpointBehavior {
+        public final double medianMillis;
+        public final double p99Millis;
+        public final double failureRate;   // 0..1
+        public final int failureStatus;
+
+        public EndpointBehavior(double medianMillis, double p99Millis, double failureRate, int failureStatus) {
+            if (medianMillis < 0 || p99Millis < 0) throw new IllegalArgumentException("Latencies must be >= 0");
+            if (failureRate < 0 || failureRate > 1) throw new IllegalArgumentException("failureRate must be in [0, 1]");
+            this.medianMillis = medianMillis;
+            this.p99Millis = Math.max(medianMillis, p99Millis);
+            this.failureRate = failureRate;
+            this.failureStatus = failureStatus;
+        }
+
+        public static EndpointBehavior constant(double millis) {
+            return new EndpointBehavior(millis, millis, 0, 503);
+        }
+
+        long sampleMillis(Random random) {
+            if (medianMillis == 0) return 0;
+            if (p99Millis <= medianMillis) return Math.round(medianMillis);
+            double sigma = Math.log(p99Millis / medianMillis) / Z_99;
+            return Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+        }
+
+        @Override
+        public String toString() {
+            return "EndpointBehavior{" +
+                    "medianMillis=" + medianMillis +
+                    ", p99Millis=" + p99Millis +
+                    ", failureRate=" + failureRate +
+                    ", failureStatus=" + failureStatus +
+                    '}';
+        }
+    }
+
+    private final Map<Endpoint, EndpointBehavior> behaviors = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Random> randoms = new EnumMap<>(Endpoint.class);
+
+    // extra latency and Init Duration of the first invocation of each function
+    private final long lambdaColdStartMillis;
+
+    // size of the generated delivery index behind getDeliveries
+    private final int deliveriesTotal;
+
+    @Autowired
+    public StandInBehavior(Environment env) {
+        this(readBehaviors(env),
+                env.getProperty("standin.seed", Long.class, 42L),
+                env.getProperty("standin.lambda.coldStartMillis", Long.class, 600L),
+                env.getProperty("standin.deliveries.total", Integer.class, 250));
+    }
+
+    public StandInBehavior(Map<Endpoint, EndpointBehavior> behaviors, long seed, long lambdaColdStartMillis, int deliveriesTotal) {
+        for (Endpoint endpoint : Endpoint.values()) {
+            this.behaviors.put(endpoint, behaviors.getOrDefault(endpoint, EndpointBehavior.constant(0)));
+            this.randoms.put(endpoint, new Random(seed + endpoint.ordinal()));
+        }
+        this.lambdaColdStartMillis = lambdaColdStartMillis;
+        this.deliveriesTotal = deliveriesTotal;
+    }
+
+    /** No latency, no failures. */
+    public static StandInBehavior instant() {
+        return new StandInBehavior(Map.of(), 42L, 0, 250);
+    }
+
+    public EndpointBehavior get(Endpoint endpoint) {
+        return behaviors.get(endpoint);
+    }
+
+    /** Changes an endpoint while the server runs, e.g. to inject failures halfway through a load run. */
+    public synchronized void set(Endpoint endpoint, EndpointBehavior behavior) {
+        behaviors.put(endpoint, behavior);
+    }
+
+    public long getLambdaColdStartMillis() {
+        return lambdaColdStartMillis;
+    }
+
+    public int getDeliveriesTotal() {
+        return deliveriesTotal;
+    }
+
+    long sampleLatencyMillis(Endpoint endpoint) {
+        return behaviors.get(endpoint).sampleMillis(randoms.get(endpoint));
+    }
+
+    boolean shouldFail(Endpoint endpoint) {
+        double rate = behaviors.get(endpoint).failureRate;
+        return rate > 0 && randoms.get(endpoint).nextDouble() < rate;
+    }
+
+    @Override
+    public String toString() {
+        return "StandInBehavior{" + behaviors + ", lambdaColdStartMillis=" + lambdaColdStartMillis + '}';
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    private static Map<Endpoint, EndpointBehavior> readBehaviors(Environment env) {
+        double median = env.getProperty("standin.default.latency.medianMillis", Double.class, 0d);
+        double p99 = env.getProperty("standin.default.latency.p99Millis", Double.class, median);
+        double failureRate = env.getProperty("standin.default.failureRate", Double.class, 0d);
+        int failureStatus = env.getProperty("standin.default.failureStatus", Integer.class, 503);
+
+        Map<Endpoint, EndpointBehavior> out = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            String prefix = "standin." + endpoint.propertyKey + ".";
+            double m = env.getProperty(prefix + "latency.medianMillis", Double.class, median);
+            out.put(endpoint, new EndpointBehavior(m,
+                    env.getProperty(prefix + "latency.p99Millis", Double.class, Math.max(m, p99)),
+                    env.getProperty(prefix + "failureRate", Double.class, failureRate),
+                    env.getProperty(prefix + "failureStatus", Integer.class, failureStatus)));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,335 @@
+package fox.fmc.partner.delivery.test.standin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fox.fmc.partner.delivery.test.utils.JsonMappers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Response bodies of the {@link StandInServer}, shaped like the recorded MAM, Cognito and AWS responses the
+ * harness parses (see src/jmh/resources/fixtures for the originals).
+ */
+final class StandInResponses {
+
+    static final String ACCOUNT_ID = "000000000000";
+    static final String SQS_NAMESPACE = "http://queue.amazonaws.com/doc/2012-11-05/";
+
+    private static final List<String> STEPS = List.of("validate", "fetchAsset", "buildPayload", "publishCms", "notify");
+
+    private StandInResponses() {
+        throw new AssertionError();
+    }
+
+    // ------------------------------
+    // Tokens
+    // ------------------------------
+
+    /** Unsigned JWT with the claims MamTokenCache reads ("exp"). */
+    static String jwt(String username, Instant issuedAt, Instant expiresAt) {
+        ObjectNode header = JsonMappers.MAPPER.createObjectNode().put("alg", "none").put("typ", "JWT");
+        ObjectNode claims = JsonMappers.MAPPER.createObjectNode()
+                .put("sub", "standin-" + Integer.toHexString(String.valueOf(username).hashCode()))
+                .put("cognito:username", String.valueOf(username))
+                .put("token_use", "id")
+                .put("iat", issuedAt.getEpochSecond())
+                .put("exp", expiresAt.getEpochSecond());
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(header.toString().getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(claims.toString().getBytes(StandardCharsets.UTF_8)) + ".standin";
+    }
+
+    /** Cognito InitiateAuth (USER_PASSWORD_AUTH) result. */
+    static String cognitoAuth(String idToken, long expiresInSeconds) {
+        ObjectNode root = JsonMappers.MAPPER.createObjectNode();
+        root.putObject("AuthenticationResult")
+                .put("IdToken", idToken)
+                .put("AccessToken", idToken)
+                .put("ExpiresIn", expiresInSeconds)
+                .put("TokenType", "Bearer");
+        root.putObject("ChallengeParameters");
+        return root.toString();
+    }
+
+    /** MAM /auth/run_as result. */
+    static String runAs(String username, String idToken) {
+        ObjectNode root = JsonMappers.MAPPER.createObjectNode();
+        ObjectNode data = root.putObject("data");
+        data.put("username", username);
+        data.putObject("tokens").put("IdToken", idToken);
+        return root.toString();
+    }
+
+    // ------------------------------
+    // MAM asset / partner delivery API
+    // ------------------------------
+
+    /**
+     * getAssetById body of an FTS program whose Delivery Info has one entry per partner in
+     * {@code statusByPartner} (metadata and media status both set to the value).
+     */
+    static String asset(String assetId, int version, Instant updatedAt, Map<String, String> statusByPartner) {
+        ObjectNode root = JsonMappers.MAPPER.createObjectNode();
+        ObjectNode data = root.putObject("data");
+        data.put("id", assetId).put("type", "asset");
+        ObjectNode metadata = data.putObject("metadata");
+        metadata.put("_version", version)
+                .put("_id", assetId)
+                .put("title", "Stand-in program " + assetId)
+                .put("asset_type", "episode")
+                .put("created_at", "2025-05-02T09:11:42Z")
+                .put("updated_at", updatedAt.toString());
+
+        ObjectNode assetInfo = metadata.putObject("Asset Info");
+        ObjectNode deliveryInfo = assetInfo.putObject("Delivery Info");
+        int i = 0;
+        for (Map.Entry<String, String> e : statusByPartner.entrySet()) {
+            ObjectNode entry = deliveryInfo.putObject(String.valueOf(i++));
+            entry.putArray("custom_field_destination").add(e.getKey());
+            entry.put("custom_field_metadata_status", e.getValue())
+                    .put("custom_field_media_status", e.getValue())
+                    .put("custom_field_delivery_date", updatedAt.toString())
+                    .put("custom_field_delivery_id", "D-" + e.getKey());
+        }
+        assetInfo.put("custom_field_network", "FOX")
+                .put("custom_field_series", "Stand-in")
+                .put("custom_field_rating", "TV-PG")
+                .put("custom_field_closed_captions", true);
+
+        ObjectNode program = metadata.putObject("FTS Program Info");
+        program.put("custom_field_program_id", "EP" + String.format("%010d", Integer.toUnsignedLong(assetId.hashCode())));
+        program.putArray("custom_field_genres").add("Animation").add("Comedy");
+        return root.toString();
+    }
+
+    /**
+     * One Elasticsearch page of the generated delivery index: hit i has batch id B-&lt;i&gt; and is one minute
+     * older than hit i-1; sort values are [createdAt millis, batchId], the batchId being the tiebreaker the
+     * harness appends to every sort, so search_after can resume after any hit.
+     */
+    static String deliveriesPage(int total, int from, int size, Instant newest) {
+        ObjectNode root = JsonMappers.MAPPER.createObjectNode();
+        root.put("took", 3).put("timed_out", false);
+        root.putObject("_shards").put("total", 1).put("successful", 1).put("skipped", 0).put("failed", 0);
+        ObjectNode hits = root.putObject("hits");
+        hits.putObject("total").put("value", total).put("relation", "eq");
+        hits.putNull("max_score");
+        ArrayNode list = hits.putArray("hits");
+        for (int i = from; i < Math.min(total, from + size); i++) {
+            Instant createdAt = newest.minusSeconds(60L * i);
+            ObjectNode hit = list.addObject();
+            hit.put("_index", "partner-deliveries").put("_type", "_doc").put("_id", batchId(i));
+            hit.putNull("_score");
+            hit.putObject("_source")
+                    .put("batchId", batchId(i))
+                    .put("status", "COMPLETED")
+                    .put("createdAt", createdAt.toString())
+                    .put("updatedAt", createdAt.plusSeconds(5).toString())
+                    .put("completedAt", createdAt.plusSeconds(5).toString());
+            hit.putArray("sort").add(createdAt.toEpochMilli()).add(batchId(i));
+        }
+        return root.toString();
+    }
+
+    static String deliveryByBatchId(String batchId, Instant createdAt) {
+        ObjectNode root = JsonMappers.MAPPER.createObjectNode();
+        root.put("batchId", batchId)
+                .put("status", "COMPLETED")
+                .put("createdAt", createdAt.toString())
+                .put("completedAt", createdAt.plusSeconds(5).toString());
+        return root.toString();
+    }
+
+    static String batchId(int index) {
+        return String.format("B-%06d", index);
+    }
+
+    static String error(String message) {
+        return JsonMappers.MAPPER.createObjectNode().put("message", message).toString();
+    }
+
+    // ------------------------------
+    // Lambda
+    // ------------------------------
+
+    /** One SQS record as the delivery Lambda sees it: the LambdaRequest fields of the record body. */
+    record LambdaRecord(String assetId, String partner, String action) {
+    }
+
+    /** Records of an SQS envelope payload; records without a readable body are kept with null fields. */
+    static List<LambdaRecord> lambdaRecords(String payload) {
+        List<LambdaRecord> out = new ArrayList<>();
+        try {
+            JsonNode records = JsonMappers.MAPPER.readTree(payload).path("Records");
+            for (JsonNode record : records) {
+                JsonNode body = JsonMappers.MAPPER.readTree(record.path("body").asText("{}"));
+                out.add(new LambdaRecord(textOrNull(body, "assetId"), textOrNull(body, "partner"), textOrNull(body, "action")));
+            }
+        } catch (Exception e) {
+            out.add(new LambdaRecord(null, null, null));
+        }
+        return out;
+    }
+
+    /**
+     * CloudWatch log of one invocation, in the runtime's format (START, tab-separated entries, END, REPORT),
+     * with the entries CloudWatchLogTailHelper reads.
+     */
+    static List<String> lambdaLog(String requestId, Instant start, long durationMillis, Long initMillis,
+                                  List<LambdaRecord> records, String functionError) {
+        List<String> messages = new ArrayList<>();
+        ObjectNode received = logEntry("info", "Received SQS event");
+        received.putObject("context").put("records", records.size()).put("source", "aws:sqs");
+        messages.add(received.toString());
+
+        ArrayNode batch = JsonMappers.MAPPER.createArrayNode();
+        int n = 0;
+        for (LambdaRecord r : records) {
+            boolean valid = r.assetId() != null && r.partner() != null;
+            String status = (valid && functionError == null) ? "completed" : "failed";
+            messages.add("Processing asset " + r.assetId() + " for partner " + r.partner());
+            if (valid) {
+                ObjectNode notification = logEntry("info", "SQS notification response for " + r.assetId())
+                        .put("partner", r.partner())
+                        .put("assetId", r.assetId());
+                notification.putObject("context")
+                        .put("status", status)
+                        .put("statusCode", "completed".equals(status) ? 200 : 500)
+                        .put("messageId", requestId.substring(0, 8) + "-" + String.format("%04d", n++));
+                messages.add(notification.toString());
+            }
+            ObjectNode item = batch.addObject()
+                    .put("partner", r.partner())
+                    .put("assetId", r.assetId())
+                    .put("deliveryStatus", status);
+            ObjectNode steps = item.putObject("steps");
+            for (String s : STEPS) steps.put(s, status);
+        }
+        if (functionError != null) {
+            ObjectNode error = logEntry("error", "Invoke Error");
+            error.putObject("context").put("errorType", "Error").put("errorMessage", functionError);
+            messages.add(error.toString());
+        }
+        messages.add(logEntry("info", "Batch response").set("context", batch).toString());
+        ObjectNode handlerResponse = logEntry("info", "index.handler response");
+        handlerResponse.putObject("context").set("response", batch);
+        messages.add(handlerResponse.toString());
+
+        // entries spread evenly over the reported duration
+        List<String> lines = new ArrayList<>(messages.size() + 3);
+        lines.add("START RequestId: " + requestId + " Version: $LATEST");
+        long step = Math.max(1, durationMillis / (messages.size() + 1));
+        for (int i = 0; i < messages.size(); i++) {
+            lines.add(start.plusMillis(step * (i + 1)) + "\t" + requestId + "\tINFO\t" + messages.get(i));
+        }
+        lines.add("END RequestId: " + requestId);
+        lines.add("REPORT RequestId: " + requestId
+                + "\tDuration: " + durationMillis + ".00 ms"
+                + "\tBilled Duration: " + Math.max(1, durationMillis) + " ms"
+                + "\tMemory Size: 1024 MB\tMax Memory Used: 187 MB"
+                + (initMillis == null ? "" : "\tInit Duration: " + initMillis + ".00 ms"));
+        return lines;
+    }
+
+    /** What Invoke with LogType=Tail returns: the base64 of the last 4 KB of the log. */
+    static String logResult(List<String> lines) {
+        byte[] full = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+        int from = Math.max(0, full.length - 4096);
+        return Base64.getEncoder().encodeToString(Arrays.copyOfRange(full, from, full.length));
+    }
+
+    static String lambdaPayload(String functionError) {
+        if (functionError != null) {
+            return JsonMappers.MAPPER.createObjectNode().put("errorType", "Error").put("errorMessage", functionError).toString();
+        }
+        ObjectNode root = JsonMappers.MAPPER.createObjectNode();
+        root.putArray("batchItemFailures");
+        return root.toString();
+    }
+
+    static String filterLogEvents(String logStream, List<String> lines, long firstTimestamp) {
+        ObjectNode root = JsonMappers.MAPPER.createObjectNode();
+        ArrayNode events = root.putArray("events");
+        for (int i = 0; i < lines.size(); i++) {
+            events.addObject()
+                    .put("logStreamName", logStream)
+                    .put("timestamp", firstTimestamp + i)
+                    .put("message", lines.get(i) + "\n")
+                    .put("ingestionTime", firstTimestamp + lines.size())
+                    .put("eventId", logStream.hashCode() + "-" + firstTimestamp + "-" + i);
+        }
+        root.putArray("searchedLogStreams");
+        return root.toString();
+    }
+
+    // ------------------------------
+    // SQS (query protocol XML and JSON protocol)
+    // ------------------------------
+
+    static String sqsGetQueueUrlXml(String queueUrl, String requestId) {
+        return "<GetQueueUrlResponse xmlns=\"" + SQS_NAMESPACE + "\"><GetQueueUrlResult><QueueUrl>" + xml(queueUrl)
+                + "</QueueUrl></GetQueueUrlResult>" + responseMetadata(requestId) + "</GetQueueUrlResponse>";
+    }
+
+    static String sqsSendMessageXml(String body, String messageId, String requestId) {
+        return "<SendMessageResponse xmlns=\"" + SQS_NAMESPACE + "\"><SendMessageResult><MD5OfMessageBody>" + md5(body)
+                + "</MD5OfMessageBody><MessageId>" + messageId + "</MessageId></SendMessageResult>"
+                + responseMetadata(requestId) + "</SendMessageResponse>";
+    }
+
+    /** {@code entries} are (entry id, body) pairs. */
+    static String sqsSendMessageBatchXml(List<String[]> entries, String requestId) {
+        StringBuilder sb = new StringBuilder("<SendMessageBatchResponse xmlns=\"" + SQS_NAMESPACE + "\"><SendMessageBatchResult>");
+        for (String[] e : entries) {
+            sb.append("<SendMessageBatchResultEntry><Id>").append(xml(e[0])).append("</Id><MessageId>")
+                    .append(UUID.randomUUID()).append("</MessageId><MD5OfMessageBody>").append(md5(e[1]))
+                    .append("</MD5OfMessageBody></SendMessageBatchResultEntry>");
+        }
+        return sb.append("</SendMessageBatchResult>").append(responseMetadata(requestId)).append("</SendMessageBatchResponse>").toString();
+    }
+
+    static String sqsErrorXml(String code, String message, String requestId) {
+        return "<ErrorResponse><Error><Type>Receiver</Type><Code>" + code + "</Code><Message>" + xml(message)
+                + "</Message></Error><RequestId>" + requestId + "</RequestId></ErrorResponse>";
+    }
+
+    static String md5(String s) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    private static String responseMetadata(String requestId) {
+        return "<ResponseMetadata><RequestId>" + requestId + "</RequestId></ResponseMetadata>";
+    }
+
+    private static String xml(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static ObjectNode logEntry(String level, String message) {
+        return JsonMappers.MAPPER.createObjectNode().put("level", level).put("message", message);
+    }
+
+    private static String textOrNull(JsonNode node, String field) {
+        JsonNode v = node.path(field);
+        return v.isTextual() ? v.asText() : null;
+    }
+}
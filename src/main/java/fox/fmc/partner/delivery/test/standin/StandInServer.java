@@ -0,0 +1,590 @@
+package fox.fmc.partner.delivery.test.standin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import fox.fmc.partner.delivery.test.standin.StandInBehavior.Endpoint;
+import fox.fmc.partner.delivery.test.standin.StandInResponses.LambdaRecord;
+import fox.fmc.partner.delivery.test.utils.JsonMappers;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process stand-in for the endpoints the harness calls, so client-side throughput and latency can be
+ * measured without network access or AWS credentials:
+ * <ul>
+ *     <li>Cognito InitiateAuth and MAM /auth/run_as (unsigned JWTs with a real "exp" claim)</li>
+ *     <li>getAssetById (with ETag / If-None-Match), getDeliveries (from/size and search_after) and
+ *     getDeliveryByBatchId</li>
+ *     <li>Lambda Invoke (RequestResponse, Event, DryRun) with a generated log and LogResult tail, and
+ *     CloudWatch FilterLogEvents for those logs</li>
+ *     <li>SQS GetQueueUrl, SendMessage and SendMessageBatch (query and JSON protocol)</li>
+ * </ul>
+ * Assets are generated on first read; a successful Lambda invocation bumps the asset's _version and sets its
+ * Delivery Info status for the partner, so ProgramStatusAwaiter and AssetCache see the change.
+ * Latencies and failures come from {@link StandInBehavior}. Active with the "standin" Spring profile
+ * (application-standin.properties points every URL and {@code aws.endpoint.override} here); it can also be
+ * constructed and started directly.
+ */
+@Component
+@Profile("standin")
+public class StandInServer {
+    private static final Logger log = LoggerFactory.getLogger(StandInServer.class);
+
+    private static final String JSON = "application/json";
+    private static final String AMZ_JSON_1_0 = "application/x-amz-json-1.0";
+    private static final String AMZ_JSON_1_1 = "application/x-amz-json-1.1";
+    private static final String XML = "text/xml";
+
+    private static final long TOKEN_TTL_SECONDS = 3600;
+    // Elasticsearch index.max_result_window of the real delivery index
+    private static final int MAX_RESULT_WINDOW = 10_000;
+    private static final int MAX_KEPT_LOGS = 1_000;
+    // fixed so generated delivery pages are the same on every run
+    private static final Instant NEWEST_DELIVERY = Instant.parse("2025-06-10T14:00:00Z");
+
+    private final StandInBehavior behavior;
+    private final int configuredPort;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private final Map<String, AssetState> assets = new ConcurrentHashMap<>();
+    private final Set<String> warmFunctions = ConcurrentHashMap.newKeySet();
+    // push gateway group ("<job>[/<label>/<value>...]") -> last pushed Prometheus text
+    private final Map<String, String> pushedMetrics = new ConcurrentHashMap<>();
+    private final Map<String, InvocationLog> invocationLogs = Collections.synchronizedMap(
+            new LinkedHashMap<String, InvocationLog>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, InvocationLog> eldest) {
+                    return size() > MAX_KEPT_LOGS;
+                }
+            });
+
+    private final Map<Endpoint, LongAdder> requests = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> injectedFailures = new EnumMap<>(Endpoint.class);
+    private final LongAdder sqsMessages = new LongAdder();
+
+    @Autowired
+    public StandInServer(StandInBehavior behavior, @Value("${standin.port:18080}") int port) {
+        this.behavior = behavior;
+        this.configuredPort = port;
+        for (Endpoint endpoint : Endpoint.values()) {
+            requests.put(endpoint, new LongAdder());
+            injectedFailures.put(endpoint, new LongAdder());
+        }
+    }
+
+    private record AssetState(int version, Instant updatedAt, Map<String, String> statusByPartner) {
+    }
+
+    private record InvocationLog(String functionName, Instant start, List<String> lines) {
+    }
+
+    private record Call(HttpExchange exchange, String body, long latencyMillis, boolean fail) {
+    }
+
+    private record Reply(int status, String contentType, String body, Map<String, String> headers) {
+        static Reply of(int status, String contentType, String body) {
+            return new Reply(status, contentType, body, Map.of());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Reply handle(Call call) throws IOException;
+    }
+
+    /**
+     * Request counters per endpoint.
+     */
+    public static class Stats {
+        public final Map<Endpoint, Long> requests;
+        public final Map<Endpoint, Long> injectedFailures;
+        public final long sqsMessages;
+        public final int assets;
+
+        public Stats(Map<Endpoint, Long> requests, Map<Endpoint, Long> injectedFailures, long sqsMessages, int assets) {
+            this.requests = requests;
+            this.injectedFailures = injectedFailures;
+            this.sqsMessages = sqsMessages;
+            this.assets = assets;
+        }
+
+        @Override
+        public String toString() {
+            return "StandInServer.Stats{" +
+                    "requests=" + requests +
+                    ", injectedFailures=" + injectedFailures +
+                    ", sqsMessages=" + sqsMessages +
+                    ", assets=" + assets +
+                    '}';
+        }
+    }
+
+    // ------------------------------
+    // Lifecycle
+    // ------------------------------
+
+    @PostConstruct
+    public synchronized void start() {
+        if (server != null) return;
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), configuredPort), 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start stand-in server on port " + configuredPort, e);
+        }
+        server.createContext("/", this::dispatchAws);
+        server.createContext("/auth/run_as", ex -> serve(ex, Endpoint.RUN_AS, this::runAs));
+        server.createContext("/assets/", ex -> serve(ex, Endpoint.ASSET, this::asset));
+        server.createContext("/partners/deliveries", ex -> serve(ex,
+                ex.getRequestURI().getPath().startsWith("/partners/deliveries/details/")
+                        ? Endpoint.DELIVERY_BY_BATCH_ID : Endpoint.DELIVERIES,
+                this::deliveries));
+        server.createContext("/2015-03-31/functions/", ex -> serve(ex, Endpoint.LAMBDA, this::invoke));
+        server.createContext("/metrics/job/", ex -> serve(ex, Endpoint.PUSH_GATEWAY, this::pushMetrics));
+        // latencies are simulated with sleeps, so every request gets its own (virtual) thread
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.start();
+        log.info("Stand-in server listening on {} ({})", baseUrl(), behavior);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (server == null) return;
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+        log.info("Stand-in server stopped: {}", stats());
+    }
+
+    /** The bound port (differs from the configured one when that was 0). */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + getPort();
+    }
+
+    public StandInBehavior getBehavior() {
+        return behavior;
+    }
+
+    public Stats stats() {
+        Map<Endpoint, Long> r = new EnumMap<>(Endpoint.class);
+        Map<Endpoint, Long> f = new EnumMap<>(Endpoint.class);
+        requests.forEach((k, v) -> r.put(k, v.sum()));
+        injectedFailures.forEach((k, v) -> f.put(k, v.sum()));
+        return new Stats(r, f, sqsMessages.sum(), assets.size());
+    }
+
+    /** Last metrics pushed for a job (Prometheus text), or null. */
+    public String pushedMetrics(String job) {
+        return pushedMetrics.get(job);
+    }
+
+    /** Forgets assets, warm functions, logs, pushed metrics and counters. */
+    public void reset() {
+        pushedMetrics.clear();
+        assets.clear();
+        warmFunctions.clear();
+        invocationLogs.clear();
+        requests.values().forEach(LongAdder::reset);
+        injectedFailures.values().forEach(LongAdder::reset);
+        sqsMessages.reset();
+    }
+
+    // ------------------------------
+    // Dispatch
+    // ------------------------------
+
+    /** Everything AWS posts to the endpoint root: Cognito, CloudWatch Logs and SQS. */
+    private void dispatchAws(HttpExchange ex) throws IOException {
+        String target = ex.getRequestHeaders().getFirst("X-Amz-Target");
+        if (target != null && target.startsWith("AWSCognitoIdentityProviderService.")) {
+            serve(ex, Endpoint.COGNITO, this::cognito);
+        } else if (target != null && target.startsWith("Logs_")) {
+            serve(ex, Endpoint.LOGS, this::filterLogEvents);
+        } else if (target != null && target.startsWith("AmazonSQS.")) {
+            serve(ex, Endpoint.SQS, this::sqsJson);
+        } else if ("POST".equals(ex.getRequestMethod())) {
+            serve(ex, Endpoint.SQS, this::sqsQuery);
+        } else {
+            try {
+                write(ex, Reply.of(404, JSON, StandInResponses.error("No stand-in for " + ex.getRequestURI())));
+            } finally {
+                ex.close();
+            }
+        }
+    }
+
+    private void serve(HttpExchange ex, Endpoint endpoint, Handler handler) throws IOException {
+        try {
+            Reply reply;
+            try {
+                String body = new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                requests.get(endpoint).increment();
+                long latency = behavior.sampleLatencyMillis(endpoint);
+                boolean fail = behavior.shouldFail(endpoint);
+                if (fail) injectedFailures.get(endpoint).increment();
+                sleep(latency);
+
+                reply = (fail && endpoint != Endpoint.LAMBDA)
+                        ? failure(endpoint)
+                        : handler.handle(new Call(ex, body, latency, fail));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Stand-in {} request {} failed: {}", endpoint, ex.getRequestURI(), e.toString());
+                reply = Reply.of(500, JSON, StandInResponses.error(e.toString()));
+            }
+            write(ex, reply);
+        } finally {
+            ex.close();
+        }
+    }
+
+    private Reply failure(Endpoint endpoint) {
+        int status = behavior.get(endpoint).failureStatus;
+        String requestId = UUID.randomUUID().toString();
+        return switch (endpoint) {
+            case SQS -> Reply.of(status, XML, StandInResponses.sqsErrorXml("ServiceUnavailable", "Injected stand-in failure", requestId));
+            case COGNITO, LOGS -> new Reply(status, AMZ_JSON_1_1,
+                    JsonMappers.MAPPER.createObjectNode().put("__type", "InternalErrorException")
+                            .put("message", "Injected stand-in failure").toString(),
+                    Map.of("x-amzn-RequestId", requestId));
+            default -> Reply.of(status, JSON, StandInResponses.error("Injected stand-in failure"));
+        };
+    }
+
+    // ------------------------------
+    // Tokens
+    // ------------------------------
+
+    private Reply cognito(Call call) throws IOException {
+        JsonNode request = JsonMappers.MAPPER.readTree(call.body().isEmpty() ? "{}" : call.body());
+        String username = request.path("AuthParameters").path("USERNAME").asText("standin");
+        Instant now = Instant.now();
+        String token = StandInResponses.jwt(username, now, now.plusSeconds(TOKEN_TTL_SECONDS));
+        return Reply.of(200, AMZ_JSON_1_1, StandInResponses.cognitoAuth(token, TOKEN_TTL_SECONDS));
+    }
+
+    private Reply runAs(Call call) {
+        if (!isAuthorized(call)) return unauthorized();
+        String username = queryParams(call.exchange().getRequestURI().getRawQuery()).getOrDefault("username", "standin");
+        Instant now = Instant.now();
+        return Reply.of(200, JSON, StandInResponses.runAs(username,
+                StandInResponses.jwt(username, now, now.plusSeconds(TOKEN_TTL_SECONDS))));
+    }
+
+    // ------------------------------
+    // MAM asset / partner delivery API
+    // ------------------------------
+
+    private Reply asset(Call call) {
+        if (!isAuthorized(call)) return unauthorized();
+        String assetId = lastSegment(call.exchange().getRequestURI().getPath());
+        AssetState state = assets.computeIfAbsent(assetId, id -> new AssetState(1, NEWEST_DELIVERY, Map.of()));
+
+        String etag = "\"" + state.version() + "\"";
+        Map<String, String> headers = Map.of(
+                "ETag", etag,
+                "Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(state.updatedAt().atOffset(ZoneOffset.UTC)));
+        if (etag.equals(call.exchange().getRequestHeaders().getFirst("If-None-Match"))) {
+            return new Reply(304, null, null, headers);
+        }
+        return new Reply(200, JSON,
+                StandInResponses.asset(assetId, state.version(), state.updatedAt(), state.statusByPartner()), headers);
+    }
+
+    private Reply deliveries(Call call) throws IOException {
+        if (!isAuthorized(call)) return unauthorized();
+        String path = call.exchange().getRequestURI().getPath();
+        if (path.startsWith("/partners/deliveries/details/")) {
+            String batchId = lastSegment(path);
+            int index = batchIndex(batchId);
+            if (index < 0 || index >= behavior.getDeliveriesTotal()) {
+                return Reply.of(404, JSON, StandInResponses.error("Delivery " + batchId + " not found"));
+            }
+            return Reply.of(200, JSON, StandInResponses.deliveryByBatchId(batchId, NEWEST_DELIVERY.minusSeconds(60L * index)));
+        }
+
+        JsonNode request = JsonMappers.MAPPER.readTree(call.body().isEmpty() ? "{}" : call.body());
+        int size = request.path("size").asInt(10);
+        int from = request.path("from").asInt(0);
+        JsonNode searchAfter = request.path("search_after");
+        if (searchAfter.isArray() && searchAfter.size() == 2) {
+            // sort values are [createdAt millis, batchId]; resume after that delivery
+            from = batchIndex(searchAfter.get(1).asText()) + 1;
+        } else if (from + size > MAX_RESULT_WINDOW) {
+            return Reply.of(400, JSON, StandInResponses.error("Result window is too large, from + size must be less than or equal to: ["
+                    + MAX_RESULT_WINDOW + "] but was [" + (from + size) + "]"));
+        }
+        return Reply.of(200, JSON, StandInResponses.deliveriesPage(behavior.getDeliveriesTotal(), from, size, NEWEST_DELIVERY));
+    }
+
+    // ------------------------------
+    // Lambda / CloudWatch Logs
+    // ------------------------------
+
+    private Reply invoke(Call call) {
+        HttpExchange ex = call.exchange();
+        // /2015-03-31/functions/{name}/invocations
+        String[] segments = ex.getRequestURI().getPath().split("/");
+        if (segments.length != 5 || !"invocations".equals(segments[4])) {
+            return Reply.of(404, JSON, StandInResponses.error("No stand-in for " + ex.getRequestURI()));
+        }
+        String functionName = URLDecoder.decode(segments[3], StandardCharsets.UTF_8);
+        String invocationType = headerOr(ex, "X-Amz-Invocation-Type", "RequestResponse");
+        String requestId = UUID.randomUUID().toString();
+        if ("DryRun".equals(invocationType)) {
+            return new Reply(204, null, null, Map.of("x-amzn-RequestId", requestId));
+        }
+
+        Long initMillis = null;
+        if (warmFunctions.add(functionName) && behavior.getLambdaColdStartMillis() > 0) {
+            initMillis = behavior.getLambdaColdStartMillis();
+            sleep(initMillis);
+        }
+
+        Instant start = Instant.now();
+        String functionError = call.fail() ? "Injected stand-in failure" : null;
+        List<LambdaRecord> records = StandInResponses.lambdaRecords(call.body());
+        if (functionError == null) {
+            for (LambdaRecord r : records) {
+                if (r.assetId() != null && r.partner() != null) deliver(r);
+            }
+        }
+        List<String> lines = StandInResponses.lambdaLog(requestId, start, call.latencyMillis(), initMillis, records, functionError);
+        invocationLogs.put(requestId, new InvocationLog(functionName, start, lines));
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("x-amzn-RequestId", requestId);
+        if ("Event".equals(invocationType)) {
+            return new Reply(202, null, null, headers);
+        }
+        String qualifier = queryParams(ex.getRequestURI().getRawQuery()).get("Qualifier");
+        headers.put("X-Amz-Executed-Version", (qualifier == null) ? "$LATEST" : qualifier);
+        if ("Tail".equals(ex.getRequestHeaders().getFirst("X-Amz-Log-Type"))) {
+            headers.put("X-Amz-Log-Result", StandInResponses.logResult(lines));
+        }
+        if (functionError != null) {
+            headers.put("X-Amz-Function-Error", "Unhandled");
+        }
+        return new Reply(200, JSON, StandInResponses.lambdaPayload(functionError), headers);
+    }
+
+    /** What the delivery Lambda does to the asset: new version, partner status per the action. */
+    private void deliver(LambdaRecord r) {
+        String status = (r.action() != null && r.action().toLowerCase().contains("unpublish")) ? "UNPUBLISHED" : "PUBLISHED";
+        assets.compute(r.assetId(), (id, previous) -> {
+            Map<String, String> statuses = new LinkedHashMap<>((previous == null) ? Map.of() : previous.statusByPartner());
+            statuses.put(r.partner(), status);
+            int version = (previous == null) ? 2 : previous.version() + 1;
+            return new AssetState(version, Instant.now(), Map.copyOf(statuses));
+        });
+    }
+
+    private Reply filterLogEvents(Call call) throws IOException {
+        JsonNode request = JsonMappers.MAPPER.readTree(call.body().isEmpty() ? "{}" : call.body());
+        String logGroup = request.path("logGroupName").asText();
+        // CloudWatchLogsUtils filters on the quoted request id
+        String requestId = request.path("filterPattern").asText().replace("\"", "").trim();
+
+        InvocationLog invocation = invocationLogs.get(requestId);
+        if (invocation == null || !logGroup.equals("/aws/lambda/" + invocation.functionName())) {
+            return Reply.of(200, AMZ_JSON_1_1, StandInResponses.filterLogEvents("", List.of(), 0));
+        }
+        String logStream = DateTimeFormatter.ISO_LOCAL_DATE.format(invocation.start().atOffset(ZoneOffset.UTC))
+                + "/[$LATEST]standin";
+        return Reply.of(200, AMZ_JSON_1_1,
+                StandInResponses.filterLogEvents(logStream, invocation.lines(), invocation.start().toEpochMilli()));
+    }
+
+    // ------------------------------
+    // SQS
+    // ------------------------------
+
+    private Reply sqsQuery(Call call) {
+        Map<String, String> params = queryParams(call.body());
+        String action = params.getOrDefault("Action", "");
+        String requestId = UUID.randomUUID().toString();
+        switch (action) {
+            case "GetQueueUrl":
+                return Reply.of(200, XML, StandInResponses.sqsGetQueueUrlXml(queueUrl(params.get("QueueName")), requestId));
+            case "SendMessage": {
+                sqsMessages.increment();
+                String body = params.getOrDefault("MessageBody", "");
+                return Reply.of(200, XML, StandInResponses.sqsSendMessageXml(body, UUID.randomUUID().toString(), requestId));
+            }
+            case "SendMessageBatch": {
+                List<String[]> entries = new ArrayList<>();
+                for (int i = 1; params.containsKey("SendMessageBatchRequestEntry." + i + ".Id"); i++) {
+                    String prefix = "SendMessageBatchRequestEntry." + i + ".";
+                    entries.add(new String[]{params.get(prefix + "Id"), params.getOrDefault(prefix + "MessageBody", "")});
+                }
+                sqsMessages.add(entries.size());
+                return Reply.of(200, XML, StandInResponses.sqsSendMessageBatchXml(entries, requestId));
+            }
+            default:
+                return Reply.of(400, XML, StandInResponses.sqsErrorXml("InvalidAction", "Unsupported action " + action, requestId));
+        }
+    }
+
+    private Reply sqsJson(Call call) throws IOException {
+        String action = call.exchange().getRequestHeaders().getFirst("X-Amz-Target").substring("AmazonSQS.".length());
+        JsonNode request = JsonMappers.MAPPER.readTree(call.body().isEmpty() ? "{}" : call.body());
+        ObjectNode response = JsonMappers.MAPPER.createObjectNode();
+        switch (action) {
+            case "GetQueueUrl" -> response.put("QueueUrl", queueUrl(request.path("QueueName").asText()));
+            case "SendMessage" -> {
+                sqsMessages.increment();
+                response.put("MD5OfMessageBody", StandInResponses.md5(request.path("MessageBody").asText()))
+                        .put("MessageId", UUID.randomUUID().toString());
+            }
+            case "SendMessageBatch" -> {
+                ArrayNode successful = response.putArray("Successful");
+                response.putArray("Failed");
+                for (JsonNode entry : request.path("Entries")) {
+                    sqsMessages.increment();
+                    successful.addObject()
+                            .put("Id", entry.path("Id").asText())
+                            .put("MessageId", UUID.randomUUID().toString())
+                            .put("MD5OfMessageBody", StandInResponses.md5(entry.path("MessageBody").asText()));
+                }
+            }
+            default -> {
+                return Reply.of(400, AMZ_JSON_1_0, JsonMappers.MAPPER.createObjectNode()
+                        .put("__type", "com.amazonaws.sqs#InvalidAction")
+                        .put("message", "Unsupported action " + action).toString());
+            }
+        }
+        return Reply.of(200, AMZ_JSON_1_0, response.toString());
+    }
+
+    private String queueUrl(String queueName) {
+        return baseUrl() + "/" + StandInResponses.ACCOUNT_ID + "/" + queueName;
+    }
+
+    // ------------------------------
+    // Prometheus push gateway
+    // ------------------------------
+
+    /** {@code PUT|POST /metrics/job/<job>[/<label>/<value>...]} replaces what was pushed for that group; DELETE drops it. */
+    private Reply pushMetrics(Call call) {
+        String method = call.exchange().getRequestMethod();
+        String group = call.exchange().getRequestURI().getPath().substring("/metrics/job/".length());
+        if (group.isEmpty()) {
+            return Reply.of(400, JSON, StandInResponses.error("job name missing"));
+        }
+        switch (method) {
+            case "PUT", "POST" -> pushedMetrics.put(group, call.body());
+            case "DELETE" -> pushedMetrics.remove(group);
+            default -> {
+                return Reply.of(405, JSON, StandInResponses.error("Unsupported method " + method));
+            }
+        }
+        return Reply.of(200, "text/plain", "");
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    private static boolean isAuthorized(Call call) {
+        String auth = call.exchange().getRequestHeaders().getFirst("Authorization");
+        return auth != null && auth.startsWith("Bearer ") && auth.length() > "Bearer ".length();
+    }
+
+    private static Reply unauthorized() {
+        return Reply.of(401, JSON, StandInResponses.error("Unauthorized"));
+    }
+
+    private static void write(HttpExchange ex, Reply reply) throws IOException {
+        reply.headers().forEach(ex.getResponseHeaders()::set);
+        byte[] bytes = (reply.body() == null) ? new byte[0] : reply.body().getBytes(StandardCharsets.UTF_8);
+        if (reply.contentType() != null) {
+            ex.getResponseHeaders().set("Content-Type", reply.contentType());
+        }
+        if (bytes.length == 0) {
+            ex.sendResponseHeaders(reply.status(), -1);
+            return;
+        }
+        ex.sendResponseHeaders(reply.status(), bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /** Form or query string parameters (later duplicates win). */
+    private static Map<String, String> queryParams(String raw) {
+        Map<String, String> out = new LinkedHashMap<>();
+        if (raw == null || raw.isEmpty()) return out;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = (eq < 0) ? pair : pair.substring(0, eq);
+            String value = (eq < 0) ? "" : pair.substring(eq + 1);
+            out.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return out;
+    }
+
+    private static String lastSegment(String path) {
+        String trimmed = path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+        return URLDecoder.decode(trimmed.substring(trimmed.lastIndexOf('/') + 1), StandardCharsets.UTF_8);
+    }
+
+    private static int batchIndex(String batchId) {
+        if (batchId == null || !batchId.startsWith("B-")) return -1;
+        try {
+            return Integer.parseInt(batchId.substring(2));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String headerOr(HttpExchange ex, String name, String fallback) {
+        String value = ex.getRequestHeaders().getFirst(name);
+        return (value == null) ? fallback : value;
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package fox.fmc.partner.delivery.test.telemetry;
+
+import fox.fmc.partner.delivery.test.aws.AwsLambdaUtils.LatencySummary;
+import fox.fmc.partner.delivery.test.aws.LambdaExecutionStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end timeline of each delivery, keyed by the {@code corrId} that LambdaEventHelper stamps on every request.
+ * Stages, all in milliseconds:
+ * <ul>
+ *   <li>SEND: the SQS SendMessage or Lambda Invoke call as seen by the client</li>
+ *   <li>LAMBDA: the Duration from the Lambda REPORT line (part of SEND for direct invokes)</li>
+ *   <li>LOG_CONFIRMED: from the end of SEND until the "SQS notification response" log entry was read</li>
+ *   <li>PUBLISH_OBSERVED: from the log confirmation (or the end of SEND) until ProgramStatusAwaiter saw the status flip</li>
+ *   <li>TOTAL: from the start of SEND until the status flip was observed</li>
+ * </ul>
+ * Completed traces go into the "delivery.stage" timer of the {@link MetricsRegistry} per partner and stage,
+ * and a per-partner breakdown is logged when the context closes.
+ */
+@Component
+public class DeliveryTracer {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryTracer.class);
+
+    private static final Pattern CORR_ID = fieldPattern("corrId");
+    private static final Pattern ASSET_ID = fieldPattern("assetId");
+    private static final Pattern PARTNER = fieldPattern("partner");
+    private static final Pattern ACTION = fieldPattern("action");
+
+    // completed traces kept for breakdown(); the metrics registry has the full distribution
+    private static final int MAX_COMPLETED = 10_000;
+
+    public enum Stage { SEND, LAMBDA, LOG_CONFIRMED, PUBLISH_OBSERVED, TOTAL }
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @Value("${partnerDelivery.trace.enabled:true}")
+    private boolean enabled = true;
+
+    private final Map<String, Trace> byCorrId = new ConcurrentHashMap<>();
+    private final Map<String, Trace> byRequestId = new ConcurrentHashMap<>();
+    // "assetId|partner" -> latest trace still waiting for its status flip
+    private final Map<String, Trace> pendingByAsset = new ConcurrentHashMap<>();
+    private final Queue<Trace> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completedCount = new AtomicInteger();
+
+    /**
+     * The request fields a trace is keyed and tagged by, read from a Lambda SQS event or an SQS message body
+     * without deserializing it. The first record wins when the event carries several.
+     */
+    public record EventFields(String corrId, String assetId, String partner, String action) {
+
+        public static EventFields of(String payload) {
+            if (payload == null || payload.isEmpty()) return new EventFields(null, null, null, null);
+            return new EventFields(find(CORR_ID, payload), find(ASSET_ID, payload),
+                    find(PARTNER, payload), find(ACTION, payload));
+        }
+
+        private static String find(Pattern field, String payload) {
+            Matcher m = field.matcher(payload);
+            return m.find() ? m.group(1) : null;
+        }
+    }
+
+    /**
+     * Stage timestamps of one delivery (System.nanoTime; 0 = not reached).
+     */
+    public static final class Trace {
+        public final String corrId;
+        public final String assetId;
+        public final String partner;
+        public final String action;
+        volatile long sendStartNanos;
+        volatile long sendEndNanos;
+        volatile double lambdaMillis = -1;
+        volatile long logConfirmedNanos;
+        volatile long publishObservedNanos;
+        volatile String lambdaRequestId;
+
+        Trace(EventFields fields) {
+            this.corrId = fields.corrId();
+            this.assetId = fields.assetId();
+            this.partner = fields.partner();
+            this.action = fields.action();
+        }
+
+        /** Durations of the stages reached so far. */
+        public Map<Stage, Long> stagesMillis() {
+            Map<Stage, Long> out = new EnumMap<>(Stage.class);
+            if (sendEndNanos > 0) out.put(Stage.SEND, millis(sendStartNanos, sendEndNanos));
+            if (lambdaMillis >= 0) out.put(Stage.LAMBDA, Math.round(lambdaMillis));
+            if (logConfirmedNanos > 0) out.put(Stage.LOG_CONFIRMED, millis(sendEndNanos, logConfirmedNanos));
+            if (publishObservedNanos > 0) {
+                long from = (logConfirmedNanos > 0) ? logConfirmedNanos : sendEndNanos;
+                out.put(Stage.PUBLISH_OBSERVED, millis(from, publishObservedNanos));
+                out.put(Stage.TOTAL, millis(sendStartNanos, publishObservedNanos));
+            }
+            return out;
+        }
+
+        private static long millis(long fromNanos, long toNanos) {
+            return TimeUnit.NANOSECONDS.toMillis(Math.max(0, toNanos - fromNanos));
+        }
+
+        @Override
+        public String toString() {
+            return "DeliveryTrace{" +
+                    "corrId='" + corrId + '\'' +
+                    ", assetId='" + assetId + '\'' +
+                    ", partner=" + partner +
+                    ", action=" + action +
+                    ", stagesMillis=" + stagesMillis() +
+                    '}';
+        }
+    }
+
+    // ------------------------------
+    // Stage hooks
+    // ------------------------------
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** An SQS message carrying a LambdaRequest was sent. */
+    public void sent(String payload, long startNanos, long endNanos) {
+        start(EventFields.of(payload), startNanos, endNanos);
+    }
+
+    /** The delivery Lambda was invoked directly and returned; see the EventFields overload. */
+    public void invoked(String payload, long startNanos, long endNanos, String requestId,
+                        LambdaExecutionStats executionStats) {
+        invoked(EventFields.of(payload), startNanos, endNanos, requestId, executionStats);
+    }
+
+    /**
+     * The delivery Lambda was invoked directly and returned.
+     *
+     * @param fields         the invoke payload's fields, already read by the caller
+     * @param requestId      id the invocation log is later read by
+     * @param executionStats REPORT-line stats; may be null
+     */
+    public void invoked(EventFields fields, long startNanos, long endNanos, String requestId,
+                        LambdaExecutionStats executionStats) {
+        Trace trace = start(fields, startNanos, endNanos);
+        if (trace == null) return;
+        if (executionStats != null) {
+            trace.lambdaMillis = executionStats.durationMillis;
+        }
+        if (requestId != null) {
+            trace.lambdaRequestId = requestId;
+            byRequestId.put(requestId, trace);
+        }
+    }
+
+    /** The invocation log of {@code requestId} was read and holds the SQS notification response. */
+    public void logConfirmed(String requestId) {
+        if (!enabled || requestId == null) return;
+        Trace trace = byRequestId.remove(requestId);
+        if (trace != null && trace.logConfirmedNanos == 0) {
+            trace.logConfirmedNanos = System.nanoTime();
+        }
+    }
+
+    /** ProgramStatusAwaiter saw the asset reach the state the latest request for it asked for. */
+    public void statusObserved(String assetId, String partner) {
+        if (!enabled) return;
+        Trace trace = pendingByAsset.remove(assetId + "|" + partner);
+        if (trace == null) return;
+        trace.publishObservedNanos = System.nanoTime();
+        forget(trace);
+
+        trace.stagesMillis().forEach((stage, millis) -> metricsRegistry.recordNanos("delivery.stage",
+                TimeUnit.MILLISECONDS.toNanos(millis), "partner", trace.partner, "stage", stage.name()));
+        log.info("Delivery trace: {}", trace);
+
+        completed.add(trace);
+        if (completedCount.incrementAndGet() > MAX_COMPLETED) {
+            completed.poll();
+            completedCount.decrementAndGet();
+        }
+    }
+
+    // ------------------------------
+    // Reporting
+    // ------------------------------
+
+    public Trace get(String corrId) {
+        return byCorrId.get(corrId);
+    }
+
+    public List<Trace> completed() {
+        return new ArrayList<>(completed);
+    }
+
+    /** Partner -> stage -> latency percentiles over the completed traces. */
+    public Map<String, Map<Stage, LatencySummary>> breakdown() {
+        Map<String, Map<Stage, List<Long>>> samples = new TreeMap<>();
+        for (Trace trace : completed) {
+            Map<Stage, List<Long>> byStage = samples.computeIfAbsent(String.valueOf(trace.partner),
+                    p -> new EnumMap<>(Stage.class));
+            trace.stagesMillis().forEach((stage, millis) ->
+                    byStage.computeIfAbsent(stage, s -> new ArrayList<>()).add(millis));
+        }
+        Map<String, Map<Stage, LatencySummary>> out = new LinkedHashMap<>();
+        samples.forEach((partner, byStage) -> {
+            Map<Stage, LatencySummary> summaries = new EnumMap<>(Stage.class);
+            byStage.forEach((stage, values) ->
+                    summaries.put(stage, LatencySummary.of(values.stream().mapToLong(Long::longValue).toArray())));
+            out.put(partner, summaries);
+        });
+        return out;
+    }
+
+    public void reset() {
+        byCorrId.clear();
+        byRequestId.clear();
+        pendingByAsset.clear();
+        completed.clear();
+        completedCount.set(0);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void logBreakdown() {
+        breakdown().forEach((partner, stages) ->
+                stages.forEach((stage, summary) -> log.info("Delivery latency {} {}: {}", partner, stage, summary)));
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    private Trace start(EventFields fields, long startNanos, long endNanos) {
+        if (!enabled) return null;
+        // without an asset there is no status flip to wait for
+        if (fields.corrId() == null || fields.assetId() == null) return null;
+
+        Trace trace = byCorrId.computeIfAbsent(fields.corrId(), id -> new Trace(fields));
+        // a retried send keeps the first start, so TOTAL covers the retries
+        if (trace.sendStartNanos == 0) {
+            trace.sendStartNanos = startNanos;
+        }
+        trace.sendEndNanos = endNanos;
+        // only the latest request per asset and partner can be matched to the status flip
+        Trace superseded = pendingByAsset.put(trace.assetId + "|" + trace.partner, trace);
+        if (superseded != null && superseded != trace) {
+            forget(superseded);
+        }
+        return trace;
+    }
+
+    private void forget(Trace trace) {
+        byCorrId.remove(trace.corrId, trace);
+        if (trace.lambdaRequestId != null) {
+            byRequestId.remove(trace.lambdaRequestId, trace);
+        }
+    }
+
+    /** "field":"value" in plain JSON or inside an escaped JSON string (an SQS record body). */
+    private static Pattern fieldPattern(String field) {
+        return Pattern.compile("\\\\?\"" + field + "\\\\?\"\\s*:\\s*\\\\?\"([A-Za-z0-9_\\-]+)");
+    }
+}
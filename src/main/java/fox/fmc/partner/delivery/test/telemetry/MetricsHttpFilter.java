@@ -0,0 +1,62 @@
+package fox.fmc.partner.delivery.test.telemetry;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.net.URI;
+
+/**
+ * Times every RestAssured request into the "mam.http" timer, tagged by endpoint and status class.
+ * Id-like path segments are folded into "{id}" so the number of endpoints stays small.
+ */
+final class MetricsHttpFilter implements Filter {
+
+    private final MetricsRegistry registry;
+
+    MetricsHttpFilter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification request,
+                           FilterableResponseSpecification response,
+                           FilterContext ctx) {
+        if (!registry.isEnabled()) {
+            return ctx.next(request, response);
+        }
+        long start = System.nanoTime();
+        Response result = null;
+        try {
+            result = ctx.next(request, response);
+            return result;
+        } finally {
+            String outcome = (result == null) ? "error" : (result.getStatusCode() / 100) + "xx";
+            registry.recordNanos("mam.http", System.nanoTime() - start,
+                    "endpoint", endpoint(request.getMethod(), request.getURI()),
+                    "outcome", outcome);
+        }
+    }
+
+    /** "GET /assets/{id}" for "GET https://host/assets/0d8a7f3c91?x=1". */
+    static String endpoint(String method, String uri) {
+        String path = URI.create(uri).getPath();
+        StringBuilder sb = new StringBuilder(method).append(' ');
+        int start = sb.length();
+        for (String segment : (path == null) ? new String[0] : path.split("/")) {
+            if (segment.isEmpty()) continue;
+            sb.append('/').append(isId(segment) ? "{id}" : segment);
+        }
+        return (sb.length() == start) ? sb.append('/').toString() : sb.toString();
+    }
+
+    private static boolean isId(String segment) {
+        int digits = 0;
+        for (int i = 0; i < segment.length(); i++) {
+            if (Character.isDigit(segment.charAt(i))) digits++;
+        }
+        return digits == segment.length() || (segment.length() >= 8 && digits > 0);
+    }
+}
@@ -0,0 +1,332 @@
+package fox.fmc.partner.delivery.test.telemetry;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fox.fmc.partner.delivery.test.utils.JsonMappers;
+import io.restassured.filter.Filter;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * In-process counters, timers and gauges for a test run, tagged by endpoint, partner, action and outcome.
+ * Timers keep an HdrHistogram (microseconds, 3 significant digits), so percentiles stay exact enough for
+ * comparing runs without keeping every sample.
+ * When the Spring context closes the registry writes {@code metrics.prom} (Prometheus text format) and
+ * {@code metrics.json} to {@code partnerDelivery.metrics.outputDir}, and PUTs the Prometheus text to a push gateway
+ * when {@code partnerDelivery.metrics.pushGateway.url} is set.
+ */
+@Component
+public class MetricsRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricsRegistry.class);
+
+    private static final String PREFIX = "partner_delivery_";
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.95, 0.99};
+
+    @Value("${partnerDelivery.metrics.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${partnerDelivery.metrics.outputDir:target/metrics}")
+    private String outputDir = "target/metrics";
+
+    // e.g. http://localhost:9091; empty = do not push
+    @Value("${partnerDelivery.metrics.pushGateway.url:}")
+    private String pushGatewayUrl = "";
+
+    @Value("${partnerDelivery.metrics.pushGateway.job:partner-delivery-tests}")
+    private String pushGatewayJob = "partner-delivery-tests";
+
+    private final Map<MeterId, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<MeterId, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<MeterId, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+    private final Filter httpFilter = new MetricsHttpFilter(this);
+
+    private record MeterId(String name, SortedMap<String, String> tags) implements Comparable<MeterId> {
+        @Override
+        public int compareTo(MeterId o) {
+            int byName = name.compareTo(o.name);
+            return (byName != 0) ? byName : tags.toString().compareTo(o.tags.toString());
+        }
+    }
+
+    /**
+     * Latency histogram plus count and total of one tagged timer.
+     */
+    public static final class Timer {
+        private final Histogram micros = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        private final LongAdder totalNanos = new LongAdder();
+
+        public void record(long nanos) {
+            long n = Math.max(0, nanos);
+            micros.recordValue(TimeUnit.NANOSECONDS.toMicros(n));
+            totalNanos.add(n);
+        }
+
+        public void record(Duration duration) {
+            record(duration.toNanos());
+        }
+
+        public long count() {
+            return micros.getTotalCount();
+        }
+
+        public double totalMillis() {
+            return totalNanos.sum() / 1_000_000.0;
+        }
+
+        public double percentileMillis(double percentile) {
+            return micros.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        public double maxMillis() {
+            return micros.getMaxValue() / 1000.0;
+        }
+    }
+
+    // ------------------------------
+    // Recording
+    // ------------------------------
+
+    /**
+     * @param tags key/value pairs, e.g. {@code "partner", "SPARK_FTS_PROGRAM", "outcome", "ok"}; null values become "none"
+     */
+    public void increment(String name, String... tags) {
+        count(name, 1, tags);
+    }
+
+    public void count(String name, long amount, String... tags) {
+        if (!enabled) return;
+        counters.computeIfAbsent(id(name, tags), k -> new LongAdder()).add(amount);
+    }
+
+    public void recordNanos(String name, long nanos, String... tags) {
+        if (!enabled) return;
+        timer(name, tags).record(nanos);
+    }
+
+    public Timer timer(String name, String... tags) {
+        return timers.computeIfAbsent(id(name, tags), k -> new Timer());
+    }
+
+    /**
+     * A value sampled whenever the registry is exported (e.g. connection pool occupancy). Registering the same
+     * name and tags again replaces the supplier; gauges survive {@link #reset()}.
+     */
+    public void gauge(String name, DoubleSupplier value, String... tags) {
+        gauges.put(id(name, tags), value);
+    }
+
+    /** Times a MAM request per endpoint and status class; added to every ServiceBase request. */
+    public Filter restAssuredFilter() {
+        return httpFilter;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long counterValue(String name, String... tags) {
+        LongAdder counter = counters.get(id(name, tags));
+        return (counter == null) ? 0 : counter.sum();
+    }
+
+    /** Current value of a gauge; NaN when it is not registered or cannot be read. */
+    public double gaugeValue(String name, String... tags) {
+        return sample(gauges.get(id(name, tags)));
+    }
+
+    public void reset() {
+        counters.clear();
+        timers.clear();
+    }
+
+    // ------------------------------
+    // Export
+    // ------------------------------
+
+    /** All meters in the Prometheus text exposition format; timers are summaries in seconds. */
+    public String prometheusText() {
+        StringBuilder out = new StringBuilder();
+        String lastName = null;
+        for (Map.Entry<MeterId, LongAdder> e : new TreeMap<>(counters).entrySet()) {
+            String name = PREFIX + sanitize(e.getKey().name()) + "_total";
+            if (!name.equals(lastName)) {
+                out.append("# TYPE ").append(name).append(" counter\n");
+                lastName = name;
+            }
+            out.append(name).append(labels(e.getKey().tags(), null, null)).append(' ').append(e.getValue().sum()).append('\n');
+        }
+        for (Map.Entry<MeterId, Timer> e : new TreeMap<>(timers).entrySet()) {
+            String name = PREFIX + sanitize(e.getKey().name()) + "_seconds";
+            SortedMap<String, String> tags = e.getKey().tags();
+            Timer t = e.getValue();
+            if (!name.equals(lastName)) {
+                out.append("# TYPE ").append(name).append(" summary\n");
+                lastName = name;
+            }
+            for (double q : QUANTILES) {
+                out.append(name).append(labels(tags, "quantile", String.valueOf(q)))
+                        .append(' ').append(t.percentileMillis(q * 100) / 1000.0).append('\n');
+            }
+            out.append(name).append("_sum").append(labels(tags, null, null)).append(' ').append(t.totalMillis() / 1000.0).append('\n');
+            out.append(name).append("_count").append(labels(tags, null, null)).append(' ').append(t.count()).append('\n');
+        }
+        for (Map.Entry<MeterId, DoubleSupplier> e : new TreeMap<>(gauges).entrySet()) {
+            double value = sample(e.getValue());
+            if (Double.isNaN(value)) continue;
+            String name = PREFIX + sanitize(e.getKey().name());
+            if (!name.equals(lastName)) {
+                out.append("# TYPE ").append(name).append(" gauge\n");
+                lastName = name;
+            }
+            out.append(name).append(labels(e.getKey().tags(), null, null)).append(' ').append(value).append('\n');
+        }
+        return out.toString();
+    }
+
+    /** All meters as JSON, with timer percentiles in milliseconds. */
+    public String json() {
+        ObjectNode root = JsonMappers.MAPPER.createObjectNode();
+        root.put("generatedAt", Instant.now().toString());
+        ArrayNode counterNodes = root.putArray("counters");
+        new TreeMap<>(counters).forEach((id, value) -> {
+            ObjectNode node = counterNodes.addObject().put("name", id.name());
+            node.putPOJO("tags", id.tags());
+            node.put("count", value.sum());
+        });
+        ArrayNode timerNodes = root.putArray("timers");
+        new TreeMap<>(timers).forEach((id, t) -> {
+            ObjectNode node = timerNodes.addObject().put("name", id.name());
+            node.putPOJO("tags", id.tags());
+            node.put("count", t.count())
+                    .put("totalMillis", t.totalMillis())
+                    .put("p50Millis", t.percentileMillis(50))
+                    .put("p90Millis", t.percentileMillis(90))
+                    .put("p95Millis", t.percentileMillis(95))
+                    .put("p99Millis", t.percentileMillis(99))
+                    .put("maxMillis", t.maxMillis());
+        });
+        ArrayNode gaugeNodes = root.putArray("gauges");
+        new TreeMap<>(gauges).forEach((id, supplier) -> {
+            double value = sample(supplier);
+            if (Double.isNaN(value)) return;
+            ObjectNode node = gaugeNodes.addObject().put("name", id.name());
+            node.putPOJO("tags", id.tags());
+            node.put("value", value);
+        });
+        return root.toPrettyString();
+    }
+
+    /**
+     * Writes metrics.prom and metrics.json to the output directory and pushes to the gateway when configured.
+     * Runs when the context starts closing, before any bean is destroyed, so a stand-in gateway is still up.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void flush() {
+        if (!enabled || (counters.isEmpty() && timers.isEmpty())) return;
+        String prometheus = prometheusText();
+        try {
+            Path dir = Files.createDirectories(Path.of(outputDir));
+            Files.writeString(dir.resolve("metrics.prom"), prometheus, StandardCharsets.UTF_8);
+            Files.writeString(dir.resolve("metrics.json"), json(), StandardCharsets.UTF_8);
+            log.info("Run metrics written to {}", dir.toAbsolutePath());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write run metrics to " + outputDir, e);
+        }
+        if (pushGatewayUrl != null && !pushGatewayUrl.isBlank()) {
+            push(prometheus);
+        }
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    private void push(String prometheus) {
+        URI uri = URI.create(pushGatewayUrl.replaceAll("/+$", "") + "/metrics/job/" + pushGatewayJob);
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "text/plain; version=0.0.4")
+                .PUT(HttpRequest.BodyPublishers.ofString(prometheus))
+                .build();
+        try (HttpClient http = HttpClient.newHttpClient()) {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                log.warn("Push gateway {} answered HTTP {}: {}", uri, response.statusCode(), response.body());
+            } else {
+                log.info("Run metrics pushed to {}", uri);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to push run metrics to {}: {}", uri, e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static double sample(DoubleSupplier gauge) {
+        if (gauge == null) return Double.NaN;
+        try {
+            return gauge.getAsDouble();
+        } catch (RuntimeException e) {
+            // e.g. a pool that is already shut down
+            return Double.NaN;
+        }
+    }
+
+    private static MeterId id(String name, String... tags) {
+        if (tags.length % 2 != 0) {
+            throw new IllegalArgumentException("Tags must be key/value pairs: " + String.join(",", tags));
+        }
+        SortedMap<String, String> map = new TreeMap<>();
+        for (int i = 0; i < tags.length; i += 2) {
+            map.put(tags[i], (tags[i + 1] == null) ? "none" : tags[i + 1]);
+        }
+        return new MeterId(name, Collections.unmodifiableSortedMap(map));
+    }
+
+    private static String labels(SortedMap<String, String> tags, String extraKey, String extraValue) {
+        if (tags.isEmpty() && extraKey == null) return "";
+        StringBuilder sb = new StringBuilder("{");
+        tags.forEach((k, v) -> sb.append(sanitize(k)).append("=\"").append(escape(v)).append("\","));
+        if (extraKey != null) {
+            sb.append(extraKey).append("=\"").append(extraValue).append("\",");
+        }
+        sb.setLength(sb.length() - 1);
+        return sb.append('}').toString();
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll("[^a-zA-Z0-9_]", "_");
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,161 @@
+package fox.fmc.partner.delivery.test.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Order-independent hashing and structural diffing of Jackson trees.
+ * The fingerprint is a SHA-256 over a canonical form of the tree: object fields in sorted key order, arrays in
+ * element order, every value tagged with its JSON type and length-prefixed, so two trees that differ only in
+ * field order hash the same while any value, type or structure change does not.
+ */
+public final class JsonFingerprint {
+
+    private static final byte OBJECT = 'o';
+    private static final byte ARRAY = 'a';
+    private static final byte STRING = 's';
+    private static final byte NUMBER = 'n';
+    private static final byte BOOLEAN = 'b';
+    private static final byte NULL = 'z';
+    private static final byte OTHER = 'x';
+
+    private JsonFingerprint() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Hex SHA-256 of the canonical form of {@code node}. A null or missing node hashes like JSON null.
+     */
+    public static String sha256(JsonNode node) {
+        MessageDigest digest = newDigest();
+        update(digest, node);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Differences between two trees as JSON-pointer paths, e.g. "/title: "A" -> "B"", "/tags/2: added".
+     * Object fields are compared by key regardless of order. At most {@code maxDifferences} entries are returned.
+     */
+    public static List<String> diff(JsonNode before, JsonNode after, int maxDifferences) {
+        List<String> out = new ArrayList<>();
+        diff("", before, after, out, Math.max(1, maxDifferences));
+        return out;
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    private static void update(MessageDigest digest, JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            digest.update(NULL);
+        } else if (node.isObject()) {
+            digest.update(OBJECT);
+            updateLength(digest, node.size());
+            // TreeSet: canonical key order, independent of the order the API serialized the fields in
+            for (String key : sortedKeys(node)) {
+                updateString(digest, key);
+                update(digest, node.get(key));
+            }
+        } else if (node.isArray()) {
+            digest.update(ARRAY);
+            updateLength(digest, node.size());
+            for (JsonNode element : node) {
+                update(digest, element);
+            }
+        } else if (node.isTextual()) {
+            digest.update(STRING);
+            updateString(digest, node.textValue());
+        } else if (node.isNumber()) {
+            digest.update(NUMBER);
+            updateString(digest, node.asText());
+        } else if (node.isBoolean()) {
+            digest.update(BOOLEAN);
+            digest.update((byte) (node.booleanValue() ? 1 : 0));
+        } else {
+            digest.update(OTHER);
+            updateString(digest, node.asText());
+        }
+    }
+
+    private static void updateString(MessageDigest digest, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        updateLength(digest, bytes.length);
+        digest.update(bytes);
+    }
+
+    private static void updateLength(MessageDigest digest, int length) {
+        digest.update((byte) (length >>> 24));
+        digest.update((byte) (length >>> 16));
+        digest.update((byte) (length >>> 8));
+        digest.update((byte) length);
+    }
+
+    private static void diff(String path, JsonNode before, JsonNode after, List<String> out, int max) {
+        if (out.size() >= max) return;
+
+        boolean beforeAbsent = before == null || before.isMissingNode();
+        boolean afterAbsent = after == null || after.isMissingNode();
+        if (beforeAbsent && afterAbsent) return;
+        if (beforeAbsent) {
+            out.add(pathOrRoot(path) + ": added " + abbreviate(after));
+            return;
+        }
+        if (afterAbsent) {
+            out.add(pathOrRoot(path) + ": removed " + abbreviate(before));
+            return;
+        }
+
+        if (before.isObject() && after.isObject()) {
+            TreeSet<String> keys = sortedKeys(before);
+            after.fieldNames().forEachRemaining(keys::add);
+            for (String key : keys) {
+                diff(path + "/" + escape(key), before.get(key), after.get(key), out, max);
+                if (out.size() >= max) return;
+            }
+        } else if (before.isArray() && after.isArray()) {
+            int n = Math.max(before.size(), after.size());
+            for (int i = 0; i < n; i++) {
+                diff(path + "/" + i, before.get(i), after.get(i), out, max);
+                if (out.size() >= max) return;
+            }
+        } else if (!before.equals(after)) {
+            out.add(pathOrRoot(path) + ": " + abbreviate(before) + " -> " + abbreviate(after));
+        }
+    }
+
+    // JSON pointer escaping (RFC 6901)
+    private static String escape(String key) {
+        return key.replace("~", "~0").replace("/", "~1");
+    }
+
+    private static String pathOrRoot(String path) {
+        return path.isEmpty() ? "/" : path;
+    }
+
+    private static String abbreviate(JsonNode node) {
+        String s = node.toString();
+        return s.length() <= 120 ? s : s.substring(0, 120) + "...";
+    }
+
+    private static TreeSet<String> sortedKeys(JsonNode node) {
+        TreeSet<String> keys = new TreeSet<>();
+        node.fieldNames().forEachRemaining(keys::add);
+        return keys;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
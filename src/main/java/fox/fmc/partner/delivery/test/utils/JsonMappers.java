@@ -0,0 +1,36 @@
+package fox.fmc.partner.delivery.test.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import fox.fmc.partner.delivery.test.model.map.MapOfObjects;
+
+/**
+ * Shared Jackson instances for the static utilities.
+ * ObjectMapper/ObjectReader/ObjectWriter are thread-safe once configured, and reusing them keeps Jackson's
+ * serializer and deserializer caches warm instead of rebuilding them on every call.
+ * Never call configure(...) on these; derive a new reader/writer instead.
+ */
+public final class JsonMappers {
+
+    /** Default Jackson settings (null map values are written). */
+    public static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // WRITE_NULL_MAP_VALUES is resolved when map serializers are built and cached, so it needs its own mapper
+    private static final ObjectMapper MAPPER_SKIP_NULL_MAP_VALUES = new ObjectMapper()
+            .configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false);
+
+    public static final ObjectWriter PRETTY_WRITER = MAPPER.writerWithDefaultPrettyPrinter();
+
+    public static final ObjectWriter PRETTY_WRITER_SKIP_NULL_MAP_VALUES =
+            MAPPER_SKIP_NULL_MAP_VALUES.writerWithDefaultPrettyPrinter();
+
+    public static final ObjectReader MAP_OF_OBJECTS_READER = MAPPER.readerFor(new TypeReference<MapOfObjects>() {
+    });
+
+    private JsonMappers() {
+        throw new AssertionError();
+    }
+}
@@ -0,0 +1,241 @@
+package fox.fmc.partner.delivery.test.utils;
+
+import fox.fmc.partner.delivery.test.model.map.MapOfObjects;
+import io.restassured.path.json.JsonPath;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled form of the data-table keywords (NOT-PRESENT, NULL, EMPTY, TRUE/FALSE, SPACES:n, PADSTRING:s:n,
+ * PADNUM:s:n, NUMBER:n, LITERAL, EMPTYOBJECT and inline JSON objects).
+ * Each distinct cell text is classified once into an immutable {@link Directive}; the directive keeps whatever
+ * it derived (padded string, parsed number, parsed JSON) so evaluating the same text again is a map lookup
+ * plus the replacement. Plain values compile to a no-op directive and are cached too, so rows without
+ * keywords cost one lookup per value instead of a chain of toString/contains calls.
+ * Map and list evaluation keep their own keyword priorities, matching the original evaluate*ForKeywords.
+ */
+public final class KeywordDirectives {
+
+    // cell texts longer than this are compiled on every call instead of being cached
+    private static final int MAX_CACHED_LENGTH = 512;
+    private static final int MAX_CACHED_ENTRIES = 10_000;
+
+    private static final ConcurrentHashMap<String, Directive> MAP_DIRECTIVES = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Directive> LIST_DIRECTIVES = new ConcurrentHashMap<>();
+
+    /** Marker result: drop the entry / element. */
+    private static final Object REMOVE = new Object();
+
+    private KeywordDirectives() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Replacement for one value. {@code original} is the value the directive was compiled from.
+     */
+    @FunctionalInterface
+    private interface Directive {
+        Object apply(Object original);
+    }
+
+    private static final Directive KEEP = original -> original;
+    private static final Directive DROP = original -> REMOVE;
+    private static final Directive TO_NULL = original -> null;
+    private static final Directive TO_EMPTY = original -> "";
+    private static final Directive TO_TRUE = original -> Boolean.TRUE;
+    private static final Directive TO_FALSE = original -> Boolean.FALSE;
+    private static final Directive TO_EMPTY_OBJECT = original -> new MapOfObjects();
+    private static final Directive TO_EMPTY_LIST = original -> {
+        // LITERAL only applies to String/Integer values; anything else is left as is
+        if (original instanceof Integer || original instanceof String) {
+            return new ArrayList<>();
+        }
+        return original;
+    };
+
+    /**
+     * Applies the keywords to every value of {@code map} in place (map priorities) and returns it.
+     */
+    public static MapOfObjects evaluate(MapOfObjects map) {
+        Iterator<Map.Entry<String, Object>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Object> pair = it.next();
+            Object value = pair.getValue();
+            // Only evaluate non-null values (null is valid)
+            if (value == null) continue;
+
+            Object replacement = directive(value.toString(), MAP_DIRECTIVES, true).apply(value);
+            if (replacement == REMOVE) {
+                it.remove();
+            } else if (replacement != value) {
+                pair.setValue(replacement);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Applies the keywords to every element of {@code list} in place (list priorities) and returns it.
+     * Null elements are removed.
+     */
+    public static List<Object> evaluate(List<Object> list) {
+        if (list == null) return null;
+        for (ListIterator<Object> iter = list.listIterator(); iter.hasNext(); ) {
+            Object o = iter.next();
+            if (o == null) {
+                iter.remove();
+                continue;
+            }
+            Object replacement = directive(o.toString(), LIST_DIRECTIVES, false).apply(o);
+            if (replacement == REMOVE) {
+                iter.remove();
+            } else if (replacement != o) {
+                iter.set(replacement);
+            }
+        }
+        return list;
+    }
+
+    /** Drops every cached directive. */
+    public static void clearCache() {
+        MAP_DIRECTIVES.clear();
+        LIST_DIRECTIVES.clear();
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    private static Directive directive(String text, ConcurrentHashMap<String, Directive> cache, boolean mapRules) {
+        if (text.length() > MAX_CACHED_LENGTH) {
+            return mapRules ? compileForMap(text) : compileForList(text);
+        }
+        Directive directive = cache.get(text);
+        if (directive == null) {
+            // compile outside computeIfAbsent: a malformed keyword throws and must not be cached
+            directive = mapRules ? compileForMap(text) : compileForList(text);
+            if (cache.size() >= MAX_CACHED_ENTRIES) {
+                cache.clear();
+            }
+            cache.putIfAbsent(text, directive);
+        }
+        return directive;
+    }
+
+    /** Map priorities, in the order evaluateMapForKeywords has always checked them. */
+    private static Directive compileForMap(String s) {
+        if (s.contains("NOT-PRESENT")) return DROP;
+        Directive exact = exactKeyword(s);
+        if (exact != null) return exact;
+        if (s.contains("SPACES:")) return constant(spaces(s));
+        if (isJsonObject(s)) return jsonObject(s);
+        if (s.contains("PADSTRING:") || s.contains("PADNUM:")) return pad(s);
+        if (s.contains("LITERAL")) return TO_EMPTY_LIST;
+        if (s.contains("NUMBER:")) return constant(number(s));
+        if (s.contains("EMPTYOBJECT")) return TO_EMPTY_OBJECT;
+        return KEEP;
+    }
+
+    /** List priorities, in the order evaluateListForKeywords has always checked them. */
+    private static Directive compileForList(String s) {
+        if (s.equalsIgnoreCase("NOT-PRESENT")) return DROP;
+        Directive exact = exactKeyword(s);
+        if (exact != null) return exact;
+        if (s.contains("SPACES:")) return constant(spaces(s));
+        if (s.contains("NUMBER:")) return constant(number(s));
+        if (s.contains("PAD")) return pad(s);
+        return KEEP;
+    }
+
+    /** NULL / EMPTY / TRUE / FALSE, compared ignoring case. */
+    private static Directive exactKeyword(String s) {
+        switch (s.length()) {
+            case 4:
+                if (s.equalsIgnoreCase("NULL")) return TO_NULL;
+                if (s.equalsIgnoreCase("TRUE")) return TO_TRUE;
+                return null;
+            case 5:
+                if (s.equalsIgnoreCase("EMPTY")) return TO_EMPTY;
+                if (s.equalsIgnoreCase("FALSE")) return TO_FALSE;
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private static Directive constant(Object value) {
+        // Strings, Integers and Longs are immutable, so the same instance can be handed out every time
+        return original -> value;
+    }
+
+    private static String spaces(String s) {
+        return StringUtils.repeat(" ", Integer.parseInt(s.split(":")[1]));
+    }
+
+    private static Integer number(String s) {
+        return Integer.parseInt(s.split(":")[1]);
+    }
+
+    /** PADSTRING:abc:n / PADNUM:123:n, the pattern repeated and truncated to n characters. */
+    private static Directive pad(String s) {
+        String[] strArr = s.split(":");
+        int repValue = Integer.parseInt(strArr[2]);
+        int divValue = repValue / strArr[1].length();
+        int truncValue = repValue % strArr[1].length();
+        String finalValue = StringUtils.repeat(strArr[1], divValue) + strArr[1].subSequence(0, truncValue);
+        if (s.contains("PADSTRING:")) {
+            return constant(finalValue);
+        } else if (s.contains("PADNUM:")) {
+            return constant(Long.parseLong(finalValue));
+        }
+        return KEEP;
+    }
+
+    /** Same test as {@code s.replaceAll("\\s+", "").startsWith("{\"") && s.endsWith("}")}, without the copy. */
+    private static boolean isJsonObject(String s) {
+        if (!s.endsWith("}")) return false;
+        int i = skipWhitespace(s, 0);
+        if (i >= s.length() || s.charAt(i) != '{') return false;
+        i = skipWhitespace(s, i + 1);
+        return i < s.length() && s.charAt(i) == '"';
+    }
+
+    private static int skipWhitespace(String s, int i) {
+        while (i < s.length()) {
+            char c = s.charAt(i);
+            // regex \s: [ \t\n\x0B\f\r]
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\u000B' && c != '\f' && c != '\r') break;
+            i++;
+        }
+        return i;
+    }
+
+    /** Parses once; every application gets its own copy because callers modify the resulting maps. */
+    private static Directive jsonObject(String s) {
+        Map<String, Object> parsed = new JsonPath(s).getMap("$");
+        return original -> deepCopy(parsed);
+    }
+
+    private static Object deepCopy(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> copy = new LinkedHashMap<>(map.size() * 2);
+            map.forEach((k, v) -> copy.put((String) k, deepCopy(v)));
+            return copy;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object v : list) {
+                copy.add(deepCopy(v));
+            }
+            return copy;
+        }
+        return value;
+    }
+}
@@ -1,8 +1,6 @@
 package fox.fmc.partner.delivery.test.utils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import fox.fmc.partner.delivery.test.constants.BaseConstants;
 import fox.fmc.partner.delivery.test.model.map.MapOfObjects;
 import fox.fmc.partner.delivery.test.model.map.MapOfStrings;
@@ -12,6 +10,7 @@ import io.restassured.response.Response;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Supplier;
 
 import java.util.List;
 import java.util.Map;
@@ -30,30 +29,49 @@ public class LogHandler {
     private enum mcUtilLinkType {
         JSON, XML
     }
+    // Frames skipped when looking for the test that called in: Groovy call sites, Spock and JUnit runners, reflection
+    private static final List<String> FRAMEWORK_PACKAGES = List.of(
+            "java.", "jdk.", "sun.", "groovy.", "org.codehaus.groovy.", "org.apache.groovy.",
+            "org.spockframework.", "org.junit.", "org.apache.maven.surefire.");
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
     static {
-        // Hack to swap the ASCII art
-        String s = Thread.currentThread().getStackTrace()[12].getClassName();
-        logger = LogManager.getLogger(s.getClass().getName());
+        // A fixed class, not a stack-depth lookup: class init may happen on any thread when specs run in parallel
+        logger = LogManager.getLogger(LogHandler.class);
         logger.debug(MC_ASCII);
     }
+    /**
+     * Level checks for callers that need to build an expensive message themselves.
+     * Every print method below already returns early when its level is off.
+     */
+    public static boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    public static boolean isInfoEnabled() {
+        return logger.isInfoEnabled();
+    }
+
     /**
      * Printing to Debug file
      */
     public static void debugPrintTestInitHeader() {
-        String testName = Thread.currentThread().getStackTrace()[2].getMethodName();
+        if (!logger.isDebugEnabled()) return;
+        String testName = caller().getMethodName();
         logger.debug("**************************************");
         logger.debug(" Starting Test: {}", testName);
     }
 
     public static void debugPrintHeader(String header) {
-        logger.debug("============= " + header + " =============");
+        logger.debug("============= {} =============", header);
     }
 
     public static void debugPrintLocalizationHeader(String language) {
-        String testName = Thread.currentThread().getStackTrace()[2].getMethodName();
+        if (!logger.isDebugEnabled()) return;
+        String testName = caller().getMethodName();
         logger.debug("**************************************");
         logger.debug(" Starting Test: {}", testName);
-        logger.debug("       Language: " + language);
+        logger.debug("       Language: {}", language);
     }
 
     public static void debugPrintTestFinishedHeader() {
@@ -63,7 +81,7 @@ public class LogHandler {
 
     public static void debugPrettyPrintRequestHeaders(String headers) {
         logger.debug(" Request Value:");
-        logger.debug(" Headers: " + BaseConstants.CR_LF + headers);
+        logger.debug(" Headers: {}{}", BaseConstants.CR_LF, headers);
     }
 
     public static void debugPrint(String message) {
@@ -74,7 +92,15 @@ public class LogHandler {
         debugPrint(0, message, args);
     }
 
+    /**
+     * The message is only built when debug is enabled.
+     */
+    public static void debugPrint(Supplier<?> message) {
+        logger.debug(message);
+    }
+
     public static void debugPrint(int indentLevel, String message) {
+        if (!logger.isDebugEnabled()) return;
         if (indentLevel == 0) {
             logger.debug(message);
         } else {
@@ -83,6 +109,7 @@ public class LogHandler {
     }
 
     public static void debugPrint(int indentLevel, String message, Object... args) {
+        if (!logger.isDebugEnabled()) return;
         if (indentLevel == 0) {
             logger.debug(message, args);
         } else {
@@ -91,27 +118,27 @@ public class LogHandler {
     }
 
     public static void debugPrintMap(MapOfObjects map) {
+        if (!logger.isDebugEnabled()) return;
         String recordFormatted;
         try {
-            recordFormatted = new ObjectMapper().configure(SerializationFeature.WRITE_NULL_MAP_VALUES, true)
-                    .writerWithDefaultPrettyPrinter().writeValueAsString(map);
+            recordFormatted = JsonMappers.PRETTY_WRITER.writeValueAsString(map);
         } catch (JsonProcessingException e) {
             throw new RuntimeException(e);
         }
-        recordFormatted = recordFormatted.replaceAll("\\\\\"", "");
-        logger.debug(BaseConstants.CR_LF + recordFormatted);
+        recordFormatted = recordFormatted.replace("\\\"", "");
+        logger.debug("{}{}", BaseConstants.CR_LF, recordFormatted);
     }
 
     public static void debugPrintMap(MapOfStrings map) {
+        if (!logger.isDebugEnabled()) return;
         String recordFormatted;
         try {
-            recordFormatted = new ObjectMapper().configure(SerializationFeature.WRITE_NULL_MAP_VALUES, true)
-                    .writerWithDefaultPrettyPrinter().writeValueAsString(map);
+            recordFormatted = JsonMappers.PRETTY_WRITER.writeValueAsString(map);
         } catch (JsonProcessingException e) {
             throw new RuntimeException(e);
         }
-        recordFormatted = recordFormatted.replaceAll("\\\\\"", "");
-        logger.debug(BaseConstants.CR_LF + recordFormatted);
+        recordFormatted = recordFormatted.replace("\\\"", "");
+        logger.debug("{}{}", BaseConstants.CR_LF, recordFormatted);
     }
 
     /*
@@ -125,18 +152,18 @@ public class LogHandler {
      * Print multiple db record maps (queryForList)
      */
     public static void debugPrintDatabaseRecords(List<MapOfObjects> resultList) {
+        if (!logger.isDebugEnabled()) return;
         if (resultList.size() > 0) {
             int recordCnt = 0;
             for (Map recordMap : resultList) {
                 recordCnt++;
                 String recordFormatted;
                 try {
-                    recordFormatted = new ObjectMapper().configure(SerializationFeature.WRITE_NULL_MAP_VALUES, true)
-                            .writerWithDefaultPrettyPrinter().writeValueAsString(recordMap);
+                    recordFormatted = JsonMappers.PRETTY_WRITER.writeValueAsString(recordMap);
                 } catch (JsonProcessingException e) {
                     throw new RuntimeException(e);
                 }
-                recordFormatted = recordFormatted.replaceAll("\\\\\"", "");
+                recordFormatted = recordFormatted.replace("\\\"", "");
                 logger.debug("Record Number: {}{}{}", recordCnt, BaseConstants.CR_LF, recordFormatted);
             }
         } else {
@@ -145,6 +172,7 @@ public class LogHandler {
     }
 
     public static void debugPrintSql(String sql, String... param) {
+        if (!logger.isDebugEnabled()) return;
         StringBuilder sb = new StringBuilder()
                 .append("(")
                 .append(sql)
@@ -156,6 +184,7 @@ public class LogHandler {
     }
 
     public static void debugPrintSql(String sql, Map paramMap) {
+        if (!logger.isDebugEnabled()) return;
         StringBuilder sb = new StringBuilder()
                 .append("(")
                 .append(sql)
@@ -171,9 +200,10 @@ public class LogHandler {
     }
 
     public static void debugPrintSimpleDatabaseUpdate(String headerMessage, MapOfObjects paramMap) {
+        if (!logger.isDebugEnabled()) return;
         LogHandler.debugPrint(1, headerMessage);
         for (String columnName : paramMap.keySet()) {
-            LogHandler.debugPrint(2, columnName + ": " + paramMap.get(columnName));
+            LogHandler.debugPrint(2, "{}: {}", columnName, paramMap.get(columnName));
         }
     }
 
@@ -181,7 +211,8 @@ public class LogHandler {
      * Printing to Report file
      */
     public static void reportPrintTestInitHeader() {
-        String testName = Thread.currentThread().getStackTrace()[2].getMethodName();
+        if (!logger.isInfoEnabled()) return;
+        String testName = caller().getMethodName();
         logger.info("**************************************");
         logger.info(" Starting Test: {}", testName);
     }
@@ -192,37 +223,40 @@ public class LogHandler {
     }
 
     public static void reportPrettyPrintResponse(Response r) {
+        if (!logger.isInfoEnabled()) return;
         logger.info(" Response Value:");
         logger.info(r.getStatusLine());
         try {
             JsonPath js = new JsonPath(r.asString());
             // Use JsonPath prettify() here to avoid double-printing the response to the console.
-            logger.info(BaseConstants.CR_LF + js.prettify());
+            logger.info("{}{}", BaseConstants.CR_LF, js.prettify());
         } catch (Exception e) {
             logger.info(r.asString());
         }
     }
 
     public static void reportPrettyPrintResponse(Response r, Boolean showHeaders) {
+        if (!logger.isInfoEnabled()) return;
         logger.info(" Response Value:");
         logger.info(r.getStatusLine());
         if (showHeaders) {
-            logger.info(" Headers:" + BaseConstants.CR_LF + r.getHeaders());
+            logger.info(" Headers:{}{}", BaseConstants.CR_LF, r.getHeaders());
         }
         try {
             JsonPath js = new JsonPath(r.asString());
             // Use JsonPath prettify() here to avoid double-printing the response to the console.
-            logger.info(BaseConstants.CR_LF + js.prettify());
+            logger.info("{}{}", BaseConstants.CR_LF, js.prettify());
         } catch (Exception e) {
             logger.info(r.asString());
         }
     }
 
     public static void reportPrettyPrintResponseXml(Response r) {
+        if (!logger.isInfoEnabled()) return;
         logger.info(" Response Value:");
         try {
             XmlPath xml = new XmlPath(r.asString());
-            logger.info(BaseConstants.CR_LF + xml.prettify());
+            logger.info("{}{}", BaseConstants.CR_LF, xml.prettify());
         } catch (Exception e) {
             logger.info(r.asString());
         }
@@ -232,63 +266,75 @@ public class LogHandler {
         reportPrint(0, message);
     }
 
+    /**
+     * The message is only built when info is enabled.
+     */
+    public static void reportPrint(Supplier<?> message) {
+        logger.info(message);
+    }
+
     public static void reportPrint(int indentLevel, String message) {
-        logger.info(StringUtils.repeat("\t", indentLevel) + message);
+        if (indentLevel == 0) {
+            logger.info(message);
+        } else if (logger.isInfoEnabled()) {
+            logger.info(StringUtils.repeat("\t", indentLevel) + message);
+        }
     }
 
     public static void reportPrintMQMessageBody(String msg) {
+        if (!logger.isInfoEnabled()) return;
         logger.info(" MQ Message Body:");
         JsonPath js = new JsonPath(msg);
-        logger.info(BaseConstants.CR_LF + js.prettify());
+        logger.info("{}{}", BaseConstants.CR_LF, js.prettify());
     }
 
     /**
      * Print a single db record map (queryForMap)
      */
     public static void reportPrintDatabaseRecords(MapOfObjects results) {
+        if (!logger.isInfoEnabled()) return;
         String recordFormatted = "";
         try {
-            recordFormatted = new ObjectMapper().configure(SerializationFeature.WRITE_NULL_MAP_VALUES, true)
-                    .writerWithDefaultPrettyPrinter().writeValueAsString(results);
+            recordFormatted = JsonMappers.PRETTY_WRITER.writeValueAsString(results);
         } catch (JsonProcessingException e) {
             e.printStackTrace();
         }
-        recordFormatted = recordFormatted.replaceAll("\\\\\"", "");
-        logger.info(BaseConstants.CR_LF + recordFormatted);
+        recordFormatted = recordFormatted.replace("\\\"", "");
+        logger.info("{}{}", BaseConstants.CR_LF, recordFormatted);
     }
 
     /**
      * Print a single db record map (queryForMap)
      */
     public static void reportPrintDatabaseRecords(MapOfObjects results, String tag) {
+        if (!logger.isInfoEnabled()) return;
         String recordFormatted = "";
         try {
-            recordFormatted = new ObjectMapper().configure(SerializationFeature.WRITE_NULL_MAP_VALUES, true)
-                    .writerWithDefaultPrettyPrinter().writeValueAsString(results);
+            recordFormatted = JsonMappers.PRETTY_WRITER.writeValueAsString(results);
         } catch (JsonProcessingException e) {
             e.printStackTrace();
         }
-        recordFormatted = recordFormatted.replaceAll("\\\\\"", "");
-        logger.info(BaseConstants.CR_LF + tag + " " + recordFormatted);
+        recordFormatted = recordFormatted.replace("\\\"", "");
+        logger.info("{}{} {}", BaseConstants.CR_LF, tag, recordFormatted);
     }
 
     /**
      * Print multiple db record maps (queryForList)
      */
     public static void reportPrintDatabaseRecords(List<MapOfObjects> resultList) {
+        if (!logger.isInfoEnabled()) return;
         if (resultList.size() > 0) {
             int recordCnt = 0;
             for (Map recordMap : resultList) {
                 recordCnt++;
                 String recordFormatted;
                 try {
-                    recordFormatted = new ObjectMapper().configure(SerializationFeature.WRITE_NULL_MAP_VALUES, true)
-                            .writerWithDefaultPrettyPrinter().writeValueAsString(recordMap);
+                    recordFormatted = JsonMappers.PRETTY_WRITER.writeValueAsString(recordMap);
                 } catch (JsonProcessingException e) {
                     throw new RuntimeException(e);
                 }
-                recordFormatted = recordFormatted.replaceAll("\\\\\"", "");
-                logger.info("Record Number: " + recordCnt + BaseConstants.CR_LF + recordFormatted);
+                recordFormatted = recordFormatted.replace("\\\"", "");
+                logger.info("Record Number: {}{}{}", recordCnt, BaseConstants.CR_LF, recordFormatted);
             }
         } else {
             logger.info("WARNING: No database records found to print!");
@@ -297,12 +343,21 @@ public class LogHandler {
 
     /**
      * Printing to Metrics file
+     *
+     * @deprecated trace text is not a metric; record counters and timers in
+     * {@link fox.fmc.partner.delivery.test.telemetry.MetricsRegistry} instead
      */
+    @Deprecated
     public static void metricsPrint(String message) {
         metricsPrint(0, message);
     }
 
+    /**
+     * @deprecated see {@link #metricsPrint(String)}
+     */
+    @Deprecated
     public static void metricsPrint(int indentLevel, String message) {
+        if (!logger.isTraceEnabled()) return;
         logger.trace(StringUtils.repeat("\t", indentLevel) + message);
     }
 
@@ -319,17 +374,31 @@ public class LogHandler {
         return resourcePath;
     }
 
+    /**
+     * The first frame on this thread outside LogHandler and the test frameworks, i.e. the test or helper that
+     * called in; walked per call so it holds however deep the runner's stack is.
+     */
+    private static StackWalker.StackFrame caller() {
+        return WALKER.walk(frames -> frames
+                .filter(f -> !f.getClassName().equals(LogHandler.class.getName()))
+                .filter(f -> FRAMEWORK_PACKAGES.stream().noneMatch(f.getClassName()::startsWith))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No caller frame outside the test frameworks")));
+    }
+
     public static void debugPrintTestStartHeader() {
-        String testName = Thread.currentThread().getStackTrace()[12].getClassName();
+        if (!logger.isDebugEnabled()) return;
+        String testName = caller().getClassName();
         logger.debug("#########################################################");
-        logger.debug("#####  " + testName + " :: Initialize ####");
+        logger.debug("#####  {} :: Initialize ####", testName);
         logger.debug("#########################################################");
     }
 
     public static void debugPrintTestEndHeader() {
-        String testName = Thread.currentThread().getStackTrace()[2].getMethodName();
+        if (!logger.isDebugEnabled()) return;
+        String testName = caller().getMethodName();
         logger.debug("#########################################################");
-        logger.debug("#####  " + testName + " :: Successful ####");
+        logger.debug("#####  {} :: Successful ####", testName);
         logger.debug("#########################################################");
     }
 
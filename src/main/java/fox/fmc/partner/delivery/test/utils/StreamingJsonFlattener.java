@@ -0,0 +1,225 @@
+package fox.fmc.partner.delivery.test.utils;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import fox.fmc.partner.delivery.test.constants.BaseConstants;
+import fox.fmc.partner.delivery.test.model.map.MapOfObjects;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flattens JSON into a {@link MapOfObjects} straight from {@link JsonParser} tokens, without building a tree.
+ * Output is identical to the tree-based jsonToMapFlattener (V1) and jsonToMapFlattener_v2 (V2):
+ * "a.b[0].c" keys in document order, scalar values as JsonNode.asText() would print them, and for V2 the
+ * PRESENT markers for objects/arrays plus the ".ArraySize" entry ahead of the elements.
+ * One path buffer is reused for the whole document; subtrees outside {@link #onlyUnder} are skipped by the
+ * parser without being materialized.
+ * Instances are immutable and thread-safe; the with* methods return configured copies.
+ */
+public final class StreamingJsonFlattener {
+
+    /** Same output as jsonToMapFlattener: value entries only. */
+    public static final StreamingJsonFlattener V1 = new StreamingJsonFlattener(false, "", null, false);
+
+    /** Same output as jsonToMapFlattener_v2: also PRESENT / ArraySize entries for objects and arrays. */
+    public static final StreamingJsonFlattener V2 = new StreamingJsonFlattener(true, "", null, false);
+
+    // shared across documents so repeated flattening of same-shaped responses reuses key strings
+    private static final int MAX_INTERNED_KEYS = 100_000;
+    private static final ConcurrentHashMap<String, String> KEY_POOL = new ConcurrentHashMap<>();
+
+    private final boolean objectEntries;
+    private final String prefixKey;
+    private final String onlyUnder;
+    private final boolean internKeys;
+
+    private StreamingJsonFlattener(boolean objectEntries, String prefixKey, String onlyUnder, boolean internKeys) {
+        this.objectEntries = objectEntries;
+        this.prefixKey = prefixKey;
+        this.onlyUnder = onlyUnder;
+        this.internKeys = internKeys;
+    }
+
+    /** Path the top-level value is flattened under (no separator is added for the root value itself). */
+    public StreamingJsonFlattener withPrefixKey(String prefixKey) {
+        return new StreamingJsonFlattener(objectEntries, prefixKey == null ? "" : prefixKey, onlyUnder, internKeys);
+    }
+
+    /**
+     * Emits only entries at or below {@code path} (e.g. "data.metadata"); keys keep their full path.
+     * Everything else is skipped while parsing.
+     */
+    public StreamingJsonFlattener onlyUnder(String path) {
+        return new StreamingJsonFlattener(objectEntries, prefixKey, path, internKeys);
+    }
+
+    /** Reuses one String instance per distinct key across calls. */
+    public StreamingJsonFlattener withInternedKeys(boolean internKeys) {
+        return new StreamingJsonFlattener(objectEntries, prefixKey, onlyUnder, internKeys);
+    }
+
+    public MapOfObjects flatten(String json) {
+        try (JsonParser parser = JsonMappers.MAPPER.getFactory().createParser(json)) {
+            return flatten(parser);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public MapOfObjects flatten(InputStream json) {
+        try (JsonParser parser = JsonMappers.MAPPER.getFactory().createParser(json)) {
+            return flatten(parser);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Flattened map, or null when {@code json} is not valid JSON (same rule as JsonObjectMapper.isValidJson),
+     * so callers don't have to parse the document twice.
+     */
+    public MapOfObjects flattenIfValid(String json) {
+        try (JsonParser parser = JsonMappers.MAPPER.getFactory().createParser(json)) {
+            return flatten(parser);
+        } catch (JsonParseException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ------------------------------
+    // Internals
+    // ------------------------------
+
+    private MapOfObjects flatten(JsonParser parser) throws IOException {
+        MapOfObjects map = new MapOfObjects();
+        JsonToken token = parser.nextToken();
+        if (token != null) {
+            value(parser, token, new StringBuilder(64).append(prefixKey), map);
+        }
+        return map;
+    }
+
+    private void value(JsonParser parser, JsonToken token, StringBuilder path, MapOfObjects map) throws IOException {
+        int length = path.length();
+        switch (token) {
+            case START_OBJECT -> {
+                if (objectEntries && length > 0 && emits(path)) {
+                    map.put(key(path), BaseConstants.PRESENT);
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    if (length > 0) path.append('.');
+                    path.append(parser.currentName());
+                    child(parser, parser.nextToken(), path, map);
+                    path.setLength(length);
+                }
+            }
+            case START_ARRAY -> {
+                String sizeKey = null;
+                if (objectEntries && emits(path)) {
+                    map.put(key(path), BaseConstants.PRESENT);
+                    // placeholder keeps the size ahead of the elements; the count is known at END_ARRAY
+                    sizeKey = key(path.append(BaseConstants.KEY_SUFFIX_ARRAY_SIZE));
+                    path.setLength(length);
+                    map.put(sizeKey, 0);
+                }
+                int index = 0;
+                JsonToken element;
+                while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    path.append('[').append(index++).append(']');
+                    child(parser, element, path, map);
+                    path.setLength(length);
+                }
+                if (sizeKey != null) {
+                    map.put(sizeKey, index);
+                }
+            }
+            default -> {
+                if (emits(path)) {
+                    map.put(key(path), text(parser, token));
+                }
+            }
+        }
+    }
+
+    private void child(JsonParser parser, JsonToken token, StringBuilder path, MapOfObjects map) throws IOException {
+        if (onlyUnder == null || isAtOrBelow(path, onlyUnder) || isAbove(path, onlyUnder)) {
+            value(parser, token, path, map);
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private boolean emits(StringBuilder path) {
+        return onlyUnder == null || isAtOrBelow(path, onlyUnder);
+    }
+
+    /** path == filter, or path continues filter with '.' or '['. */
+    private static boolean isAtOrBelow(StringBuilder path, String filter) {
+        return startsWith(path, filter)
+                && (path.length() == filter.length() || isSeparator(path.charAt(filter.length())));
+    }
+
+    /** filter continues path with '.' or '[', i.e. matching entries may still follow inside this value. */
+    private static boolean isAbove(StringBuilder path, String filter) {
+        int n = path.length();
+        if (n == 0) return true;
+        return n < filter.length() && isSeparator(filter.charAt(n)) && filter.startsWith(path.toString());
+    }
+
+    private static boolean startsWith(StringBuilder path, String prefix) {
+        int n = prefix.length();
+        if (path.length() < n) return false;
+        for (int i = 0; i < n; i++) {
+            if (path.charAt(i) != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '.' || c == '[';
+    }
+
+    private String key(StringBuilder path) {
+        String key = path.toString();
+        if (!internKeys) return key;
+        String pooled = KEY_POOL.get(key);
+        if (pooled != null) return pooled;
+        if (KEY_POOL.size() < MAX_INTERNED_KEYS) {
+            pooled = KEY_POOL.putIfAbsent(key, key);
+        }
+        return pooled == null ? key : pooled;
+    }
+
+    /** Scalar text exactly as the JsonNode the tree flattener would have built prints it. */
+    private static String text(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return switch (parser.getNumberType()) {
+                    case INT -> String.valueOf(parser.getIntValue());
+                    case LONG -> String.valueOf(parser.getLongValue());
+                    default -> parser.getBigIntegerValue().toString();
+                };
+            case VALUE_NUMBER_FLOAT:
+                // readTree builds DoubleNodes unless USE_BIG_DECIMAL_FOR_FLOATS is enabled
+                return (parser.getNumberType() == JsonParser.NumberType.BIG_DECIMAL)
+                        ? parser.getDecimalValue().toString()
+                        : String.valueOf(parser.getDoubleValue());
+            case VALUE_TRUE:
+                return "true";
+            case VALUE_FALSE:
+                return "false";
+            case VALUE_NULL:
+                return "null";
+            default:
+                return parser.getText();
+        }
+    }
+}
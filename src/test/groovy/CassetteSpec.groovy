@@ -0,0 +1,138 @@
+import com.amazonaws.auth.AWSStaticCredentialsProvider
+import com.amazonaws.auth.BasicAWSCredentials
+import com.amazonaws.client.builder.AwsClientBuilder
+import com.amazonaws.services.lambda.AWSLambdaClientBuilder
+import com.amazonaws.services.lambda.model.InvokeRequest
+import com.amazonaws.services.lambda.model.LogType
+import fox.fmc.partner.delivery.test.cassette.Cassette
+import fox.fmc.partner.delivery.test.cassette.CassetteMode
+import fox.fmc.partner.delivery.test.standin.StandInBehavior
+import fox.fmc.partner.delivery.test.standin.StandInServer
+import groovy.json.JsonOutput
+import groovy.json.JsonSlurper
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Path
+
+import static io.restassured.RestAssured.given
+
+/**
+ * Record against the stand-in, eject, then replay the cassette with the stand-in stopped; runs offline on a free port.
+ */
+class CassetteSpec extends Specification {
+
+    @TempDir
+    Path dir
+
+    def server = new StandInServer(StandInBehavior.instant(), 0)
+    def cassette = new Cassette()
+
+    def setup() {
+        server.start()
+        cassette.mode = CassetteMode.RECORD
+        cassette.dir = dir.toString()
+        cassette.name = "round-trip"
+        cassette.replayTimeScale = 0
+        cassette.ignoreFields = ["corrId", "correlationId"] as String[]
+        cassette.init()
+    }
+
+    def cleanup() {
+        server.stop()
+    }
+
+    def "a recorded run replays with new corrIds, repeats the last poll response and holds no usable JWT"() {
+        given:
+        def lambda = AWSLambdaClientBuilder.standard()
+                .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(server.baseUrl(), "us-east-1"))
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials("standin", "standin")))
+                .build()
+        def baseUrl = server.baseUrl()
+
+        when: "a run is recorded and the cassette ejected"
+        def recordedToken = idToken(baseUrl, "run-1")
+        def recordedVersions = [assetVersion(baseUrl)]
+        def recordedInvoke = cassette.invoke(invokeRequest("run-1"), { lambda.invoke(invokeRequest("run-1")) })
+        recordedVersions << assetVersion(baseUrl)
+        def recordedLog = cassette.text("logs A-1", { "END RequestId: " + recordedInvoke.sdkResponseMetadata.requestId })
+        cassette.eject()
+        server.stop()
+        lambda.shutdown()
+
+        then:
+        !recordedToken.endsWith(".redacted")
+        recordedVersions == [1, 2]
+        recordedInvoke.statusCode == 200
+        cassette.stats().recorded == 5
+        dir.resolve("round-trip.jsonl.gz").toFile().exists()
+
+        when: "it is inserted again and replayed with the stand-in gone"
+        cassette.mode = CassetteMode.REPLAY
+        cassette.insert("round-trip")
+        def replayedToken = idToken(baseUrl, "run-2")
+        def replayedVersions = [assetVersion(baseUrl)]
+        def replayedInvoke = cassette.invoke(invokeRequest("run-2"), { throw new AssertionError("Lambda called while replaying") })
+        replayedVersions << assetVersion(baseUrl) << assetVersion(baseUrl)
+        def replayedLog = cassette.text("logs A-1", { throw new AssertionError("logs fetched while replaying") })
+
+        then:
+        cassette.isReplaying()
+        replayedToken.endsWith(".redacted")
+        replayedToken.startsWith(recordedToken.substring(0, recordedToken.lastIndexOf(".")))
+        replayedVersions == [1, 2, 2]
+        replayedInvoke.statusCode == 200
+        replayedInvoke.executedVersion == recordedInvoke.executedVersion
+        replayedInvoke.sdkResponseMetadata.requestId == recordedInvoke.sdkResponseMetadata.requestId
+        payload(replayedInvoke) == payload(recordedInvoke)
+        replayedLog == recordedLog
+        cassette.stats().replayed == 6
+    }
+
+    def "replaying a request that was never recorded fails with the cassette name"() {
+        given:
+        given().filter(cassette.restAssuredFilter()).header("Authorization", "Bearer x").get(server.baseUrl() + "/assets/A-1")
+        cassette.eject()
+        cassette.mode = CassetteMode.REPLAY
+        cassette.insert("round-trip")
+
+        when:
+        given().filter(cassette.restAssuredFilter()).header("Authorization", "Bearer x").get(server.baseUrl() + "/assets/A-2")
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message.contains("Cassette 'round-trip' has no recorded http exchange")
+    }
+
+    private String idToken(String baseUrl, String corrId) {
+        def body = JsonOutput.toJson([AuthFlow: "USER_PASSWORD_AUTH", ClientId: "client",
+                                      AuthParameters: [USERNAME: "qa", PASSWORD: "secret"], corrId: corrId])
+        def response = given().filter(cassette.restAssuredFilter())
+                .header("X-Amz-Target", "AWSCognitoIdentityProviderService.InitiateAuth")
+                .contentType("application/x-amz-json-1.1")
+                .body(body)
+                .post(baseUrl + "/")
+        new JsonSlurper().parseText(response.asString()).AuthenticationResult.IdToken
+    }
+
+    private int assetVersion(String baseUrl) {
+        def response = given().filter(cassette.restAssuredFilter())
+                .header("Authorization", "Bearer x")
+                .get(baseUrl + "/assets/A-1")
+        new JsonSlurper().parseText(response.asString()).data.metadata._version
+    }
+
+    /** SQS event whose record body carries the LambdaRequest, and its corrId, as a JSON string. */
+    private static InvokeRequest invokeRequest(String corrId) {
+        def body = JsonOutput.toJson([assetId: "A-1", partner: "SPARK_FTS_PROGRAM", action: "episode_publish", corrId: corrId])
+        new InvokeRequest()
+                .withFunctionName("fn")
+                .withLogType(LogType.Tail)
+                .withPayload(JsonOutput.toJson([Records: [[messageId: "m-1", body: body]]]))
+    }
+
+    private static String payload(result) {
+        StandardCharsets.UTF_8.decode(result.payload.duplicate()).toString()
+    }
+}
@@ -0,0 +1,56 @@
+import com.fasterxml.jackson.databind.ObjectMapper
+import fox.fmc.partner.delivery.test.enums.Action
+import fox.fmc.partner.delivery.test.enums.PartnerType
+import fox.fmc.partner.delivery.test.enums.RequestType
+import fox.fmc.partner.delivery.test.helper.LambdaEventHelper
+import fox.fmc.partner.delivery.test.telemetry.DeliveryTracer
+import fox.fmc.partner.delivery.test.telemetry.MetricsRegistry
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+/**
+ * Stage timing of one delivery, followed by the corrId LambdaEventHelper stamps; runs offline.
+ */
+class DeliveryTracerSpec extends Specification {
+
+    def mapper = new ObjectMapper()
+    def metrics = new MetricsRegistry()
+    def tracer = new DeliveryTracer(metricsRegistry: metrics)
+
+    def "a delivery is traced from invoke to the observed status flip"() {
+        given:
+        def event = LambdaEventHelper.buildSqsEvent(mapper, RequestType.MANUAL, "A-1", Action.EPISODE_PUBLISH, PartnerType.SPARK_FTS_PROGRAM)
+        def payload = mapper.writeValueAsString(event)
+        def fields = DeliveryTracer.EventFields.of(payload)
+        def start = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(300)
+
+        when:
+        tracer.invoked(payload, start, start + TimeUnit.MILLISECONDS.toNanos(200), "req-1", null)
+        tracer.logConfirmed("req-1")
+        tracer.statusObserved("A-1", "SPARK_FTS_PROGRAM")
+
+        then:
+        fields.corrId() ==~ /[0-9a-f\-]{36}/
+        fields.assetId() == "A-1"
+        fields.partner() == "SPARK_FTS_PROGRAM"
+        with(tracer.completed()[0]) {
+            corrId == fields.corrId()
+            stagesMillis()[DeliveryTracer.Stage.SEND] == 200
+            stagesMillis().keySet().containsAll([DeliveryTracer.Stage.LOG_CONFIRMED, DeliveryTracer.Stage.PUBLISH_OBSERVED])
+            stagesMillis()[DeliveryTracer.Stage.TOTAL] >= 300
+        }
+        tracer.breakdown()["SPARK_FTS_PROGRAM"][DeliveryTracer.Stage.TOTAL].count == 1
+        metrics.prometheusText().contains('partner_delivery_delivery_stage_seconds_count{partner="SPARK_FTS_PROGRAM",stage="TOTAL"} 1')
+        tracer.get(fields.corrId()) == null
+    }
+
+    def "requests without a corrId are not traced"() {
+        when:
+        tracer.sent('{"assetId":"A-2","partner":"HULU"}', 0, 1)
+        tracer.statusObserved("A-2", "HULU")
+
+        then:
+        tracer.completed().isEmpty()
+    }
+}
@@ -11,11 +11,13 @@ import fox.fmc.partner.delivery.test.model.response.BatchResponseLogEntry
 import fox.fmc.partner.delivery.test.model.response.CommandErrorLogEntry
 import fox.fmc.partner.delivery.test.model.response.IndexHandlerResponseLogEntry
 import fox.fmc.partner.delivery.test.model.response.SqsNotificationLogEntry
+import fox.fmc.partner.delivery.test.service.AssetCache
 import fox.fmc.partner.delivery.test.service.MediaCloudService
 import fox.fmc.partner.delivery.test.service.PartnerDeliverySetupService
 import fox.fmc.partner.delivery.test.utils.Utils
 import fox.mc2.testrail.enums.TestRailsStatus
 import fox.fmc.partner.delivery.test.aws.AwsLambdaUtils
+import fox.fmc.partner.delivery.test.aws.CloudWatchLogsUtils
 import groovy.util.logging.Slf4j
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.beans.factory.annotation.Value
@@ -40,10 +42,19 @@ class InvokeLambdaDeliveryCmsSpec extends TestRailsSpec {
     @Autowired
     AwsLambdaUtils awsLambdaUtils
 
+    @Autowired
+    CloudWatchLogsUtils cloudWatchLogsUtils
+
+    @Autowired
+    AssetCache assetCache
+
     @Value('${partnerDelivery.lambda}')
     private String partnerDeliveryLambdaName;
 
-    @Shared
+    @Autowired
+    ProgramStatusAwaiter programStatusAwaiter
+
+    // per iteration: rows may run in parallel
     private String functionPdLambda;
 
     // Constants to avoid magic strings and ensure consistency
@@ -70,162 +81,40 @@ class InvokeLambdaDeliveryCmsSpec extends TestRailsSpec {
         functionPdLambda = Utils.getTargetResource(partnerDeliveryLambdaName)
     }
 
-    def "Verify that the program is correctly published via CMS delivery Lambda"() {
-        given: "The LambdaRequest wrapped in SQS event for asset ${assetId} and partner ${partner}"
-        setTestId(getTestIDfromTestCase(testCase))
+    // Publish and unpublish run in one iteration per asset: unpublishing needs the publish to have happened first,
+    // and in parallel mode separate features (or rows) have no guaranteed order. Rows for different assets still overlap.
+    def "Verify that the program is correctly published and then unpublished via CMS delivery Lambda"() {
+        given: "The asset ${assetId} is held for partner ${partner}"
+        lockAsset(assetId)
+        setTestIds(getTestIDfromTestCase(publishCase), getTestIDfromTestCase(unpublishCase))
         setComment("#Invoke Lambda to CMS delivery for asset ${assetId} and partner ${partner}")
 
-        def event = LambdaEventHelper.buildSqsEvent(objectMapper, requestType, assetId, action, partner)
-
-        addCommentAndLog("Invoking Lambda '${functionPdLambda}' with payload:")
-        addJsonFormatComment(event)
-
-        when: "The Lambda is invoked synchronously (RequestResponse) with log tail"
-        def actualResult = awsLambdaUtils.invoke(functionPdLambda, event)
-
-        then: "Invocation succeeded and returned a JSON payload (or empty)"
-        addCommentAndLog("Lambda response payload (text):")
-        addJsonOrTextComment(actualResult.payloadText)
-
-        assert actualResult.isOk() : "Lambda reported error: ${actualResult.functionError} (status=${actualResult.statusCode})"
-
-        addCommentAndLog("Lambda actualResult summary:")
-        addJsonFormatComment([
-                statusCode     : actualResult.statusCode,
-                functionError  : actualResult.functionError,
-                executedVersion: actualResult.executedVersion,
-                requestId      : actualResult.requestId
-        ])
-
-        and: "Validate SQS notification"
-        def sqsLog = CloudWatchLogTailHelper.readSqsNotification(actualResult.logTail, assetId, SqsNotificationLogEntry.class, objectMapper)
-
-        // Guard clause: Ensure the log entry exists
-        assert sqsLog : "Could not find SQS Notification log for asset ${assetId}"
-
-        // Guard clause: Ensure context is not null
-        assert sqsLog.context : "SQS Log Context is null"
-
-        with(sqsLog) {
-            assert it.partner.toString() == partner.toString() : "Partner in SQS log mismatch, expected '${partner}', got '${it.partner}'"
-            assert it.assetId == assetId : "AssetId in SQS log mismatch, expected '${assetId}', got '${it.assetId}'"
-            assert it.context.status == STATUS_COMPLETED : "SQS status mismatch, expected '${STATUS_COMPLETED}', got '${it.context.status}'"
-            assert it.context.statusCode == STATUS_CODE_OK : "SQS statusCode mismatch, expected '${STATUS_CODE_OK}', got '${it.context.statusCode}'"
-        }
-
-        and: "Validate Batch response"
-        def batchLog = CloudWatchLogTailHelper.readBatchResponse(actualResult.logTail, BatchResponseLogEntry.class, objectMapper)
-
-        assert batchLog : "Could not find Batch Response log"
-        // List safety check: Ensure list exists and is not empty before accessing index [0]
-        assert batchLog.context && !batchLog.context.isEmpty() : "Batch log context list is null or empty"
-
-        with(batchLog.context[0]) {
-            assert it.partner.toString() == partner.toString() : "Partner in batch log mismatch, expected '${partner}', got '${it.partner}'"
-            assert it.assetId == assetId : "AssetId in batch log mismatch, expected '${assetId}', got '${it.assetId}'"
-            assert it.deliveryStatus == STATUS_COMPLETED : "Batch deliveryStatus mismatch, expected '${STATUS_COMPLETED}', got '${it.deliveryStatus}'"
-            // Map safety check: use ?.get() or ?. access
-            assert steps?.get("delivery") == STATUS_COMPLETED : "Batch step 'delivery' status mismatch, expected '${STATUS_COMPLETED}', got '${steps?.get("delivery")}'"
-        }
-
-        and: "Validate index.handler"
-        def indexLog = CloudWatchLogTailHelper.readIndexHandlerResponse(actualResult.logTail, IndexHandlerResponseLogEntry.class, objectMapper)
+        when: "The publish request is invoked synchronously (RequestResponse) with log tail"
+        def published = invokeDelivery(requestType, assetId, Action.EPISODE_PUBLISH, partner)
 
-        assert indexLog : "Could not find Index Handler log"
-        // Nested list safety check
-        assert indexLog.context?.response && !indexLog.context.response.isEmpty() : "Index log response list is null or empty"
+        then: "The delivery completed and the program is published"
+        verifyDeliveryCompleted(published, assetId, partner)
+        programStatusAwaiter.await(assetId, partner, ProgramStatusAwaiter.DesiredState.PUBLISH)
+        completeTestCase(TestRailsStatus.PASSED)
 
-        with(indexLog.context.response[0]) {
-            assert it.partner.toString() == partner.toString() : "Partner in index log mismatch, expected '${partner}', got '${it.partner}'"
-            assert it.assetId == assetId : "AssetId in index log mismatch, expected '${assetId}', got '${it.assetId}'"
-            assert it.deliveryStatus == STATUS_COMPLETED : "Index deliveryStatus mismatch, expected '${STATUS_COMPLETED}', got '${it.deliveryStatus}'"
-        }
-
-        ProgramStatusAwaiter.awaitProgram(assetId, partner, ProgramStatusAwaiter.DesiredState.PUBLISH)
-        setStatus(TestRailsStatus.PASSED)
-
-        where:
-        testCase | assetId     | action                   | requestType        | partner
-        31496435 | "A-830056"  | Action.EPISODE_PUBLISH   | RequestType.MANUAL | PartnerType.SPARK_FTS_CLIP
-        31496436 | "A-827476"  | Action.EPISODE_PUBLISH   | RequestType.MANUAL | PartnerType.SPARK_FTS_PROGRAM
-    }
-
-    def "Verify that the program is correctly unpublished via CMS delivery Lambda"() {
-        given: "The LambdaRequest wrapped in SQS event for asset ${assetId} and partner ${partner}"
-        setTestId(getTestIDfromTestCase(testCase))
+        when: "The unpublish request is invoked synchronously (RequestResponse) with log tail"
         setComment("#Invoke Lambda to CMS delivery for asset ${assetId} and partner ${partner}")
+        def unpublished = invokeDelivery(requestType, assetId, Action.EPISODE_UNPUBLISH, partner)
 
-        def event = LambdaEventHelper.buildSqsEvent(objectMapper, requestType, assetId, action, partner)
-
-        addCommentAndLog("Invoking Lambda '${functionPdLambda}' with payload:")
-        addJsonFormatComment(event)
-
-        when: "The Lambda is invoked synchronously (RequestResponse) with log tail"
-        def actualResult = awsLambdaUtils.invoke(functionPdLambda, event)
-
-        then: "Invocation succeeded and returned a JSON payload (or empty)"
-        addCommentAndLog("Lambda response payload (text):")
-        addJsonOrTextComment(actualResult.payloadText)
-
-        assert actualResult.isOk() : "Lambda reported error: ${actualResult.functionError} (status=${actualResult.statusCode})"
-
-        addCommentAndLog("Lambda actualResult summary:")
-        addJsonFormatComment([
-                statusCode     : actualResult.statusCode,
-                functionError  : actualResult.functionError,
-                executedVersion: actualResult.executedVersion,
-                requestId      : actualResult.requestId
-        ])
-
-        and: "Validate SQS notification"
-        def sqsLog = CloudWatchLogTailHelper.readSqsNotification(actualResult.logTail, assetId, SqsNotificationLogEntry.class, objectMapper)
-
-        assert sqsLog : "Could not find SQS Notification log for asset ${assetId}"
-        assert sqsLog.context : "SQS Log Context is null"
-
-        with(sqsLog) {
-            assert it.partner.toString() == partner.toString() : "Partner in SQS log mismatch, expected '${partner}', got '${it.partner}'"
-            assert it.assetId == assetId : "AssetId in SQS log mismatch, expected '${assetId}', got '${it.assetId}'"
-            assert it.context.status == STATUS_COMPLETED : "SQS mismatch, expected '${STATUS_COMPLETED}', got '${it.context.status}'"
-            assert it.context.statusCode == STATUS_CODE_OK : "SQS statusCode mismatch, expected '${STATUS_CODE_OK}', got '${it.context.statusCode}'"
-        }
-
-        and: "Validate Batch response"
-        def batchLog = CloudWatchLogTailHelper.readBatchResponse(actualResult.logTail, BatchResponseLogEntry.class, objectMapper)
-
-        assert batchLog : "Could not find Batch Response log"
-        assert batchLog.context && !batchLog.context.isEmpty() : "Batch log context list is null or empty"
-
-        with(batchLog.context[0]) {
-            assert it.partner.toString() == partner.toString() : "Partner in batch log mismatch, expected '${partner}', got '${it.partner}'"
-            assert it.assetId == assetId : "AssetId in batch log mismatch, expected '${assetId}', got '${it.assetId}'"
-            assert it.deliveryStatus == STATUS_COMPLETED : "Batch deliveryStatus mismatch, expected '${STATUS_COMPLETED}', got '${it.deliveryStatus}'"
-            assert it.steps?.get("delivery") == STATUS_COMPLETED : "Batch step 'delivery' status mismatch, expected '${STATUS_COMPLETED}', got '${it.steps?.get("delivery")}'"
-        }
-
-        and: "Validate index.handler"
-        def indexLog = CloudWatchLogTailHelper.readIndexHandlerResponse(actualResult.logTail, IndexHandlerResponseLogEntry.class, objectMapper)
-
-        assert indexLog : "Could not find Index Handler log"
-        assert indexLog.context?.response && !indexLog.context.response.isEmpty() : "Index log response list is null or empty"
-
-        with(indexLog.context.response[0]) {
-            assert it.partner.toString() == partner.toString() : "Partner in index log mismatch, expected '${partner}', got '${it.partner}'"
-            assert it.assetId == assetId : "AssetId in index log mismatch, expected '${assetId}', got '${it.assetId}'"
-            assert it.deliveryStatus == STATUS_COMPLETED : "Index deliveryStatus mismatch, expected '${STATUS_COMPLETED}', got '${it.deliveryStatus}'"
-        }
-
-        ProgramStatusAwaiter.awaitProgram(assetId, partner, ProgramStatusAwaiter.DesiredState.UNPUBLISH)
+        then: "The delivery completed and the program is unpublished"
+        verifyDeliveryCompleted(unpublished, assetId, partner)
+        programStatusAwaiter.await(assetId, partner, ProgramStatusAwaiter.DesiredState.UNPUBLISH)
         setStatus(TestRailsStatus.PASSED)
 
         where:
-        testCase | assetId     | action                    | requestType        | partner
-        31496437 | "A-830056"  | Action.EPISODE_UNPUBLISH  | RequestType.MANUAL | PartnerType.SPARK_FTS_CLIP
-        31496438 | "A-827476"  | Action.EPISODE_UNPUBLISH  | RequestType.MANUAL | PartnerType.SPARK_FTS_PROGRAM
+        publishCase | unpublishCase | assetId     | requestType        | partner
+        31496435    | 31496437      | "A-830056"  | RequestType.MANUAL | PartnerType.SPARK_FTS_CLIP
+        31496436    | 31496438      | "A-827476"  | RequestType.MANUAL | PartnerType.SPARK_FTS_PROGRAM
     }
 
     def "Verify CMS delivery Lambda request with missing mandatory fields"() {
         given: "LambdaRequest with missing mandatory fields"
+        lockAsset(assetId)
         addCommentAndLog("Build Payload with Missing Fields")
         setTestId(getTestIDfromTestCase(testCase))
         setComment("Negative Lambda to CMS delivery: ${desc}")
@@ -247,6 +136,7 @@ class InvokeLambdaDeliveryCmsSpec extends TestRailsSpec {
 
         when: "Invoke synchronously and capture log tail"
         def actualResult = awsLambdaUtils.invoke(functionPdLambda, event)
+        assetCache.invalidate(assetId)
 
         then: "Invocation succeeded (technically) but returned logical error"
         addCommentAndLog("Verify Lambda Response")
@@ -263,11 +153,13 @@ class InvokeLambdaDeliveryCmsSpec extends TestRailsSpec {
                 requestId      : actualResult.requestId
         ])
 
+        def invocationLog = cloudWatchLogsUtils.readInvocationIndex(functionPdLambda, actualResult, objectMapper)
+
         and: "Validate the specific error log using LogEntryType strategy"
         addCommentAndLog("Search CloudWatch Logs for Expected Validation Error")
 
         def logEntry = CloudWatchLogTailHelper.readLogEntry(
-                actualResult.logTail,
+                invocationLog,
                 logType.getLogIdentifier(),
                 logType.getLogClass(),
                 objectMapper
@@ -317,6 +209,7 @@ class InvokeLambdaDeliveryCmsSpec extends TestRailsSpec {
 
     def "Verify CMS delivery Lambda request with invalid data fields"() {
         given: "LambdaRequest with invalid data"
+        lockAsset(assetId)
         setTestId(getTestIDfromTestCase(testCase))
         setComment("Negative Lambda to CMS delivery: ${desc}")
 
@@ -339,6 +232,7 @@ class InvokeLambdaDeliveryCmsSpec extends TestRailsSpec {
 
         when: "Invoke synchronously and capture log tail"
         def actualResult = awsLambdaUtils.invoke(functionPdLambda, event)
+        assetCache.invalidate(assetId)
 
         then: "Invocation succeeded (technically) but returned logical error"
         addCommentAndLog("Lambda response payload (text):")
@@ -354,10 +248,12 @@ class InvokeLambdaDeliveryCmsSpec extends TestRailsSpec {
                 requestId      : actualResult.requestId
         ])
 
+        def invocationLog = cloudWatchLogsUtils.readInvocationIndex(functionPdLambda, actualResult, objectMapper)
+
         and: "Validate the specific error log using LogEntryType strategy"
         // generic lookup: Use the Enum to get both the String ID and the Class
         def logEntry = CloudWatchLogTailHelper.readLogEntry(
-                actualResult.logTail,
+                invocationLog,
                 logType.getLogIdentifier(),
                 logType.getLogClass(),
                 objectMapper
@@ -400,4 +296,77 @@ class InvokeLambdaDeliveryCmsSpec extends TestRailsSpec {
         31496444 | "invalid action"      | "A-827476" | Action.INVALID_ACTION     | RequestType.MANUAL  | PartnerType.SPARK_FTS_PROGRAM | "No command found for action '${action}' on partner '${partner}'"   | LogEntryType.COMMAND_ROUTING_ERROR
         31496445 | "invalid requestType" | "A-827476" | Action.EPISODE_PUBLISH    | RequestType.INVALID | PartnerType.SPARK_FTS_PROGRAM | "invalid not a defined validator"                                   | LogEntryType.INDEX_HANDLER
     }
-}
\ No newline at end of file
+
+    private def invokeDelivery(RequestType requestType, String assetId, Action action, PartnerType partner) {
+        def event = LambdaEventHelper.buildSqsEvent(objectMapper, requestType, assetId, action, partner)
+
+        addCommentAndLog("Invoking Lambda '${functionPdLambda}' with payload:")
+        addJsonFormatComment(event)
+
+        def actualResult = awsLambdaUtils.invoke(functionPdLambda, event)
+        assetCache.invalidate(assetId)
+        return actualResult
+    }
+
+    private void verifyDeliveryCompleted(def actualResult, String assetId, PartnerType partner) {
+        // Invocation succeeded and returned a JSON payload (or empty)
+        addCommentAndLog("Lambda response payload (text):")
+        addJsonOrTextComment(actualResult.payloadText)
+
+        assert actualResult.isOk() : "Lambda reported error: ${actualResult.functionError} (status=${actualResult.statusCode})"
+
+        addCommentAndLog("Lambda actualResult summary:")
+        addJsonFormatComment([
+                statusCode     : actualResult.statusCode,
+                functionError  : actualResult.functionError,
+                executedVersion: actualResult.executedVersion,
+                requestId      : actualResult.requestId
+        ])
+
+        def invocationLog = cloudWatchLogsUtils.readInvocationIndex(functionPdLambda, actualResult, objectMapper)
+
+        // Validate SQS notification
+        def sqsLog = CloudWatchLogTailHelper.readSqsNotification(invocationLog, assetId, SqsNotificationLogEntry.class, objectMapper)
+
+        // Guard clause: Ensure the log entry exists
+        assert sqsLog : "Could not find SQS Notification log for asset ${assetId}"
+
+        // Guard clause: Ensure context is not null
+        assert sqsLog.context : "SQS Log Context is null"
+
+        with(sqsLog) {
+            assert it.partner.toString() == partner.toString() : "Partner in SQS log mismatch, expected '${partner}', got '${it.partner}'"
+            assert it.assetId == assetId : "AssetId in SQS log mismatch, expected '${assetId}', got '${it.assetId}'"
+            assert it.context.status == STATUS_COMPLETED : "SQS status mismatch, expected '${STATUS_COMPLETED}', got '${it.context.status}'"
+            assert it.context.statusCode == STATUS_CODE_OK : "SQS statusCode mismatch, expected '${STATUS_CODE_OK}', got '${it.context.statusCode}'"
+        }
+
+        // Validate Batch response
+        def batchLog = CloudWatchLogTailHelper.readBatchResponse(invocationLog, BatchResponseLogEntry.class, objectMapper)
+
+        assert batchLog : "Could not find Batch Response log"
+        // List safety check: Ensure list exists and is not empty before accessing index [0]
+        assert batchLog.context && !batchLog.context.isEmpty() : "Batch log context list is null or empty"
+
+        with(batchLog.context[0]) {
+            assert it.partner.toString() == partner.toString() : "Partner in batch log mismatch, expected '${partner}', got '${it.partner}'"
+            assert it.assetId == assetId : "AssetId in batch log mismatch, expected '${assetId}', got '${it.assetId}'"
+            assert it.deliveryStatus == STATUS_COMPLETED : "Batch deliveryStatus mismatch, expected '${STATUS_COMPLETED}', got '${it.deliveryStatus}'"
+            // Map safety check: use ?.get() or ?. access
+            assert it.steps?.get("delivery") == STATUS_COMPLETED : "Batch step 'delivery' status mismatch, expected '${STATUS_COMPLETED}', got '${it.steps?.get("delivery")}'"
+        }
+
+        // Validate index.handler
+        def indexLog = CloudWatchLogTailHelper.readIndexHandlerResponse(invocationLog, IndexHandlerResponseLogEntry.class, objectMapper)
+
+        assert indexLog : "Could not find Index Handler log"
+        // Nested list safety check
+        assert indexLog.context?.response && !indexLog.context.response.isEmpty() : "Index log response list is null or empty"
+
+        with(indexLog.context.response[0]) {
+            assert it.partner.toString() == partner.toString() : "Partner in index log mismatch, expected '${partner}', got '${it.partner}'"
+            assert it.assetId == assetId : "AssetId in index log mismatch, expected '${assetId}', got '${it.assetId}'"
+            assert it.deliveryStatus == STATUS_COMPLETED : "Index deliveryStatus mismatch, expected '${STATUS_COMPLETED}', got '${it.deliveryStatus}'"
+        }
+    }
+}
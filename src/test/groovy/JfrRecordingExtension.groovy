@@ -0,0 +1,69 @@
+import fox.fmc.partner.delivery.test.jfr.FeatureEvent
+import fox.fmc.partner.delivery.test.jfr.HarnessEvents
+import jdk.jfr.Configuration
+import jdk.jfr.Recording
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.spockframework.runtime.extension.IGlobalExtension
+import org.spockframework.runtime.extension.IMethodInvocation
+import org.spockframework.runtime.model.SpecInfo
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * Records a JFR file per spec with the harness events ({@link HarnessEvents}) plus the JDK's own,
+ * and a {@link FeatureEvent} around every feature iteration.
+ * Off unless {@code -Djfr.record=true}; files go to {@code jfr.dir} (target/jfr) as {@code <Spec>.jfr}.
+ * Registered through META-INF/services, so every spec gets it without an annotation.
+ */
+class JfrRecordingExtension implements IGlobalExtension {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrRecordingExtension)
+
+    @Override
+    void visitSpec(SpecInfo spec) {
+        if (!Boolean.getBoolean("jfr.record")) {
+            return
+        }
+        spec.addInterceptor { IMethodInvocation invocation -> record(spec, invocation) }
+        spec.allFeatures.each { feature ->
+            feature.addIterationInterceptor { IMethodInvocation invocation ->
+                def event = new FeatureEvent()
+                event.begin()
+                try {
+                    invocation.proceed()
+                } finally {
+                    event.end()
+                    if (event.shouldCommit()) {
+                        event.spec = spec.name
+                        event.feature = feature.name
+                        event.iteration = invocation.iteration?.displayName
+                        event.commit()
+                    }
+                }
+            }
+        }
+    }
+
+    private static void record(SpecInfo spec, IMethodInvocation invocation) {
+        Path dir = Path.of(System.getProperty("jfr.dir", "target/jfr"))
+        Files.createDirectories(dir)
+        Path file = dir.resolve(spec.name + ".jfr")
+
+        def recording = new Recording(Configuration.getConfiguration(System.getProperty("jfr.settings", "default")))
+        recording.name = spec.name
+        recording.toDisk = true
+        recording.destination = file
+        HarnessEvents.ALL.each { recording.enable(it).withoutThreshold() }
+        recording.start()
+        try {
+            invocation.proceed()
+        } finally {
+            // closing after stop() writes the recording to its destination
+            recording.stop()
+            recording.close()
+            log.info("JFR recording for {} written to {}", spec.name, file.toAbsolutePath())
+        }
+    }
+}
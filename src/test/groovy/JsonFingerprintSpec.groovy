@@ -0,0 +1,100 @@
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.node.MissingNode
+import fox.fmc.partner.delivery.test.utils.JsonFingerprint
+import spock.lang.Specification
+
+/**
+ * The hash and diff behind the immutability verdict; runs offline.
+ */
+class JsonFingerprintSpec extends Specification {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+
+    def "field order does not change the fingerprint"() {
+        expect:
+        sha('{"title": "A", "tags": ["x", "y"], "meta": {"v": 1, "w": null}}') ==
+                sha('{"meta": {"w": null, "v": 1}, "tags": ["x", "y"], "title": "A"}')
+    }
+
+    def "a #change changes the fingerprint"() {
+        expect:
+        sha(before) != sha(after)
+
+        where:
+        change                | before                          | after
+        "value change"        | '{"title": "A"}'                | '{"title": "B"}'
+        "number to string"    | '{"version": 12}'               | '{"version": "12"}'
+        "int to double"       | '{"version": 12}'               | '{"version": 12.0}'
+        "boolean to string"   | '{"locked": true}'              | '{"locked": "true"}'
+        "null to string"      | '{"status": null}'              | '{"status": "null"}'
+        "array order"         | '{"tags": ["x", "y"]}'          | '{"tags": ["y", "x"]}'
+        "added field"         | '{"a": 1}'                      | '{"a": 1, "b": 1}'
+        "object to array"     | '{"a": {}}'                     | '{"a": []}'
+        "string boundaries"   | '{"a": ["ab", "c"]}'            | '{"a": ["a", "bc"]}'
+        "key/value boundary"  | '{"ab": "c"}'                   | '{"a": "bc"}'
+    }
+
+    def "null and missing nodes hash like JSON null"() {
+        expect:
+        JsonFingerprint.sha256(null) == sha('null')
+        JsonFingerprint.sha256(MissingNode.getInstance()) == sha('null')
+        sha('null') ==~ /[0-9a-f]{64}/
+    }
+
+    def "diff reports JSON-pointer paths for changed, added and removed values"() {
+        when:
+        def differences = JsonFingerprint.diff(
+                tree('{"title": "A", "tags": ["x", "y"], "a/b": 1, "gone": true, "meta": {"v": 1}}'),
+                tree('{"meta": {"v": 2}, "tags": ["x", "y", "z"], "title": "B", "a/b": 1, "new": null}'),
+                10)
+
+        then:
+        differences == [
+                '/gone: removed true',
+                '/meta/v: 1 -> 2',
+                '/new: added null',
+                '/tags/2: added "z"',
+                '/title: "A" -> "B"'
+        ]
+    }
+
+    def "diff escapes pointer characters and reports root changes on /"() {
+        expect:
+        JsonFingerprint.diff(tree('{"a/b": 1, "c~d": 1}'), tree('{"a/b": 2, "c~d": 2}'), 10) ==
+                ['/a~1b: 1 -> 2', '/c~0d: 1 -> 2']
+        JsonFingerprint.diff(tree('[1]'), tree('{"a": 1}'), 10) == ['/: [1] -> {"a":1}']
+    }
+
+    def "diff of equal trees is empty, whatever the field order"() {
+        expect:
+        JsonFingerprint.diff(tree('{"a": 1, "b": [1, 2]}'), tree('{"b": [1, 2], "a": 1}'), 10).isEmpty()
+    }
+
+    def "diff stops at maxDifferences"() {
+        given:
+        def before = tree('{"a": 1, "b": 1, "c": 1, "d": 1}')
+        def after = tree('{"a": 2, "b": 2, "c": 2, "d": 2}')
+
+        expect:
+        JsonFingerprint.diff(before, after, 2) == ['/a: 1 -> 2', '/b: 1 -> 2']
+        JsonFingerprint.diff(before, after, 0).size() == 1
+        JsonFingerprint.diff(before, after, 100).size() == 4
+    }
+
+    def "long values are abbreviated in the diff"() {
+        when:
+        def entry = JsonFingerprint.diff(tree('{"a": "' + 'x' * 200 + '"}'), tree('{"a": "y"}'), 10)[0]
+
+        then:
+        entry.startsWith('/a: "xxx')
+        entry.contains('... -> "y"')
+    }
+
+    private static String sha(String json) {
+        JsonFingerprint.sha256(tree(json))
+    }
+
+    private static tree(String json) {
+        MAPPER.readTree(json)
+    }
+}
@@ -0,0 +1,64 @@
+import fox.fmc.partner.delivery.test.aws.LambdaExecutionStats
+import fox.fmc.partner.delivery.test.aws.LambdaExecutionStatsRegistry
+import spock.lang.Specification
+
+/**
+ * REPORT-line parsing and per-version aggregation; runs offline.
+ */
+class LambdaExecutionStatsSpec extends Specification {
+
+    def "cold and warm invocations are told apart by the Init Duration"() {
+        when:
+        def cold = LambdaExecutionStats.parse(tail("r-1", "\tInit Duration: 410.07 ms"))
+        def warm = LambdaExecutionStats.parse(tail("r-2", ""))
+
+        then:
+        with(cold) {
+            requestId == "r-1"
+            version == "42"
+            complete
+            isColdStart()
+            initDurationMillis == 410.07d
+            durationMillis == 812.43d
+            billedDurationMillis == 813
+            memorySizeMb == 1024
+            maxMemoryUsedMb == 187
+        }
+        !warm.isColdStart()
+        warm.initDurationMillis == null
+    }
+
+    def "a tail without a REPORT line has no stats"() {
+        expect:
+        LambdaExecutionStats.parse('2024-01-01T00:00:00.000Z\tr-1\tINFO\t{"message":"Batch response"}\n') == null
+        LambdaExecutionStats.parse(null) == null
+    }
+
+    def "stats are aggregated per function version"() {
+        given:
+        def registry = new LambdaExecutionStatsRegistry()
+
+        when:
+        registry.record("fn", "42", LambdaExecutionStats.parse(tail("r-1", "\tInit Duration: 400.00 ms")))
+        registry.record("fn", "42", LambdaExecutionStats.parse(tail("r-2", "")))
+        registry.record("fn", null, LambdaExecutionStats.parse(tail("r-3", "")))
+        registry.record("fn", "43", LambdaExecutionStats.parse(tail("r-4", "")))
+
+        then:
+        with(registry.get("fn", "42")) {
+            invocations == 3
+            coldStarts == 1
+            meanInitDurationMillis == 400d
+            peakMemoryUsedMb == 187
+        }
+        registry.snapshot().keySet() == ["fn:42", "fn:43"] as Set
+    }
+
+    private static String tail(String requestId, String init) {
+        """START RequestId: ${requestId} Version: 42
+2024-01-01T00:00:00.000Z\t${requestId}\tINFO\t{"message":"Batch response"}
+END RequestId: ${requestId}
+REPORT RequestId: ${requestId}\tDuration: 812.43 ms\tBilled Duration: 813 ms\tMemory Size: 1024 MB\tMax Memory Used: 187 MB${init}\t
+"""
+    }
+}
@@ -0,0 +1,62 @@
+import fox.fmc.partner.delivery.test.FmcPartnerDeliveryTestApplication
+import fox.fmc.partner.delivery.test.enums.Action
+import fox.fmc.partner.delivery.test.enums.PartnerType
+import fox.fmc.partner.delivery.test.enums.RequestType
+import fox.fmc.partner.delivery.test.loadtest.LambdaLoadGenerator
+import fox.fmc.partner.delivery.test.loadtest.LoadProfile
+import fox.fmc.partner.delivery.test.loadtest.LoadTestReport
+import fox.fmc.partner.delivery.test.utils.Utils
+import groovy.util.logging.Slf4j
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.boot.test.context.SpringBootTest
+import spock.lang.Isolated
+import spock.lang.Requires
+
+import java.time.Duration
+
+/**
+ * Open-loop load runs against the partner-delivery Lambda. Only runs when -Dloadtest=true is given:
+ * mvn test -Dspring.profiles.active=stage -Dtest=LambdaLoadSpec -Dloadtest=true -Dloadtest.rps=50 -Dloadtest.seconds=60
+ * Set aws.endpoint.override to run against a local stand-in instead of AWS.
+ * Isolated so other specs never share the Lambda's concurrency with the load in parallel mode.
+ */
+@Slf4j
+@Isolated
+@Requires({ Boolean.getBoolean('loadtest') })
+@SpringBootTest(classes = FmcPartnerDeliveryTestApplication.class)
+class LambdaLoadSpec extends PartnerDeliveryTestBaseSpec {
+
+    @Autowired
+    LambdaLoadGenerator loadGenerator
+
+    @Value('${partnerDelivery.lambda}')
+    private String partnerDeliveryLambdaName
+
+    private static final double RPS = Double.parseDouble(System.getProperty('loadtest.rps', '50'))
+    private static final long SECONDS = Long.getLong('loadtest.seconds', 60)
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty('loadtest.maxErrorRate', '0.01'))
+
+    private static final List<LambdaLoadGenerator.Target> TARGETS = [
+            new LambdaLoadGenerator.Target(PartnerType.SPARK_FTS_PROGRAM, Action.EPISODE_PUBLISH, RequestType.MANUAL, "A-827476"),
+            new LambdaLoadGenerator.Target(PartnerType.SPARK_FTS_CLIP, Action.EPISODE_PUBLISH, RequestType.MANUAL, "A-830056"),
+    ]
+
+    def "Lambda sustains #profile"() {
+        when: "requests arrive on the profile's schedule"
+        LoadTestReport report = loadGenerator.run(runName, Utils.getTargetResource(partnerDeliveryLambdaName), profile, TARGETS)
+        log.info("Overall: {}", report.overall())
+        report.byKey().values().each { log.info("{}", it) }
+
+        then: "every scheduled request completed and errors stay under the threshold"
+        report.timedOut == 0
+        report.overall().count == report.scheduled
+        report.overall().errorRate() <= MAX_ERROR_RATE
+
+        where:
+        runName         | profile
+        "constant-rate" | LoadProfile.constant(RPS, Duration.ofSeconds(SECONDS))
+        "ramp-up"       | LoadProfile.stages(LoadProfile.ramp(1, RPS, Duration.ofSeconds(SECONDS)),
+                                             LoadProfile.constant(RPS, Duration.ofSeconds(SECONDS)))
+    }
+}
@@ -0,0 +1,78 @@
+import fox.fmc.partner.delivery.test.standin.StandInBehavior
+import fox.fmc.partner.delivery.test.standin.StandInServer
+import fox.fmc.partner.delivery.test.telemetry.MetricsRegistry
+import groovy.json.JsonSlurper
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Path
+import java.util.function.DoubleSupplier
+
+/**
+ * Snapshots of the run metrics; pushes to the stand-in gateway on a free port.
+ */
+class MetricsRegistrySpec extends Specification {
+
+    @TempDir
+    Path dir
+
+    def registry = new MetricsRegistry()
+
+    def "counters and timers are exported as Prometheus text and JSON"() {
+        given:
+        registry.increment("status.polls", "outcome", "fetched")
+        registry.increment("status.polls", "outcome", "fetched")
+        (1..100).each { registry.recordNanos("lambda.invoke", it * 1_000_000L, "function", "fn", "partner", "SPARK_FTS_PROGRAM", "outcome", "ok") }
+
+        when:
+        def text = registry.prometheusText()
+        def json = new JsonSlurper().parseText(registry.json())
+
+        then:
+        text.contains('partner_delivery_status_polls_total{outcome="fetched"} 2')
+        text.contains('# TYPE partner_delivery_lambda_invoke_seconds summary')
+        text.contains('partner_delivery_lambda_invoke_seconds_count{function="fn",outcome="ok",partner="SPARK_FTS_PROGRAM"} 100')
+        with(json.timers[0]) {
+            name == "lambda.invoke"
+            count == 100
+            Math.abs(p99Millis - 99) < 0.5
+        }
+    }
+
+    def "gauges are sampled at export and skipped when they cannot be read"() {
+        given:
+        def leased = 3
+        registry.gauge("http.pool.connections", { leased } as DoubleSupplier, "state", "leased")
+        registry.gauge("http.pool.connections", { throw new IllegalStateException("shut down") } as DoubleSupplier, "state", "max")
+
+        when:
+        leased = 5
+        def text = registry.prometheusText()
+
+        then:
+        text.contains('# TYPE partner_delivery_http_pool_connections gauge')
+        text.contains('partner_delivery_http_pool_connections{state="leased"} 5.0')
+        !text.contains('state="max"')
+        new JsonSlurper().parseText(registry.json()).gauges*.value == [5.0]
+    }
+
+    def "flush writes both snapshots and pushes to the gateway"() {
+        given:
+        def gateway = new StandInServer(StandInBehavior.instant(), 0)
+        gateway.start()
+        registry.outputDir = dir.toString()
+        registry.pushGatewayUrl = gateway.baseUrl()
+        registry.increment("sqs.messages", "queue", "q", "outcome", "sent")
+
+        when:
+        registry.flush()
+
+        then:
+        dir.resolve("metrics.prom").text.contains('partner_delivery_sqs_messages_total{outcome="sent",queue="q"} 1')
+        dir.resolve("metrics.json").toFile().exists()
+        gateway.pushedMetrics("partner-delivery-tests") == dir.resolve("metrics.prom").text
+
+        cleanup:
+        gateway.stop()
+    }
+}
@@ -61,6 +61,11 @@ class PartnerDashboardEndpointsValidationSpec extends TestRailsSpec {
         addBoldComment("Get Deliveries Response: ")
         addComment(response.asPrettyString())
 
+        and: "Every matching delivery can be streamed page by page"
+        long streamed = mediaCloudService.streamDeliveries(auth, requestBody).withCloseable { it.count() }
+        addCommentAndLog("Streamed deliveries: " + streamed)
+        assert streamed >= deliveriesResponse.getHits().getTotal().getValue()
+
         setStatus(TestRailsStatus.PASSED)
         where:
         expectedStatus                  | testCase
@@ -0,0 +1,94 @@
+import fox.fmc.partner.delivery.test.standin.StandInBehavior
+import fox.fmc.partner.delivery.test.standin.StandInServer
+import groovy.json.JsonSlurper
+import org.spockframework.runtime.model.parallel.ExecutionMode
+import spock.lang.AutoCleanup
+import spock.lang.Execution
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.net.http.HttpClient
+import java.net.http.HttpRequest
+import java.net.http.HttpResponse
+
+/**
+ * The stand-in answers the way the harness expects; runs offline on a free port with no latency.
+ * Features share one server and reset it in setup(), so they run one at a time even in parallel mode.
+ */
+@Execution(ExecutionMode.SAME_THREAD)
+class StandInServerSpec extends Specification {
+
+    @Shared
+    @AutoCleanup('stop')
+    StandInServer server = new StandInServer(StandInBehavior.instant(), 0)
+
+    @Shared
+    HttpClient http = HttpClient.newHttpClient()
+
+    def setupSpec() {
+        server.start()
+    }
+
+    def setup() {
+        server.reset()
+    }
+
+    def "a Lambda invocation bumps the asset version and returns the log tail"() {
+        given:
+        def before = send(get("/assets/A-1").build())
+        def event = '{"Records":[{"body":"{\\"assetId\\":\\"A-1\\",\\"partner\\":\\"SPARK_FTS_PROGRAM\\",\\"action\\":\\"episode_publish\\"}"}]}'
+
+        when:
+        def invoke = send(HttpRequest.newBuilder(URI.create(server.baseUrl() + "/2015-03-31/functions/fn/invocations"))
+                .header("X-Amz-Log-Type", "Tail")
+                .POST(HttpRequest.BodyPublishers.ofString(event))
+                .build())
+        def after = send(get("/assets/A-1").header("If-None-Match", before.headers().firstValue("ETag").get()).build())
+        def tail = new String(Base64.decoder.decode(invoke.headers().firstValue("X-Amz-Log-Result").get()))
+
+        then:
+        invoke.statusCode() == 200
+        tail.contains("SQS notification response for A-1")
+        tail.contains("Init Duration") == false
+        after.statusCode() == 200
+        with(new JsonSlurper().parseText(after.body()).data.metadata) {
+            it._version == 2
+            it."Asset Info"."Delivery Info"."0".custom_field_metadata_status == "PUBLISHED"
+        }
+    }
+
+    def "unchanged assets answer 304 and MAM calls need a bearer token"() {
+        given:
+        def first = send(get("/assets/A-2").build())
+
+        expect:
+        send(get("/assets/A-2").header("If-None-Match", first.headers().firstValue("ETag").get()).build()).statusCode() == 304
+        send(HttpRequest.newBuilder(URI.create(server.baseUrl() + "/assets/A-2")).GET().build()).statusCode() == 401
+    }
+
+    def "deliveries page with search_after past the result window"() {
+        when:
+        def page = new JsonSlurper().parseText(send(post("/partners/deliveries", '{"size":100,"search_after":[0,"B-000099"]}')).body())
+
+        then:
+        page.hits.total.value == 250
+        page.hits.hits.size() == 100
+        page.hits.hits[0]._source.batchId == "B-000100"
+        send(post("/partners/deliveries", '{"from":9950,"size":100}')).statusCode() == 400
+    }
+
+    private HttpRequest.Builder get(String path) {
+        HttpRequest.newBuilder(URI.create(server.baseUrl() + path)).header("Authorization", "Bearer token").GET()
+    }
+
+    private HttpRequest post(String path, String body) {
+        HttpRequest.newBuilder(URI.create(server.baseUrl() + path))
+                .header("Authorization", "Bearer token")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build()
+    }
+
+    private HttpResponse<String> send(HttpRequest request) {
+        http.send(request, HttpResponse.BodyHandlers.ofString())
+    }
+}
@@ -0,0 +1,134 @@
+import fox.fmc.partner.delivery.test.utils.JsonObjectMapper
+import fox.fmc.partner.delivery.test.utils.LegacyJsonObjectMapper
+import fox.fmc.partner.delivery.test.utils.StreamingJsonFlattener
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+/**
+ * StreamingJsonFlattener against the tree flatteners it replaced (LegacyJsonObjectMapper); runs offline.
+ * Maps are compared entry by entry and in key order, since callers read ArraySize ahead of the elements.
+ */
+class StreamingJsonFlattenerSpec extends Specification {
+
+    private static final String ASSET = '''{
+  "id": "A-830056",
+  "data": {
+    "metadata": {
+      "Asset Info": {
+        "Delivery Info": {
+          "0": {"custom_field_destination": ["SPARK_FTS_CLIP", "SPARK_FTS_PROGRAM"], "custom_field_metadata_status": "PUBLISHED"},
+          "1": {"custom_field_destination": [], "custom_field_media_status": null}
+        }
+      },
+      "_version": 12
+    },
+    "flags": {"locked": false, "archived": true, "empty": {}},
+    "matrix": [[1, 2], [], [{"x": "y"}]]
+  },
+  "numbers": {"int": 42, "negative": -7, "long": 9007199254740993, "bigint": 123456789012345678901234567890,
+              "double": 1.5, "whole": 2.0, "exponent": 1e21, "small": 1.0E-7, "huge": 1e400},
+  "text": "caf\\u00e9 \\"quoted\\" \\n line"
+}'''
+
+    def "V1 and V2 match the tree flatteners entry for entry and in order (#name)"() {
+        expect:
+        ordered(StreamingJsonFlattener.V1.flatten(json)) == ordered(LegacyJsonObjectMapper.jsonToMapFlattener(json))
+        ordered(StreamingJsonFlattener.V2.flatten(json)) == ordered(LegacyJsonObjectMapper.jsonToMapFlattener_v2(json))
+        ordered(StreamingJsonFlattener.V2.flattenIfValid(json)) == ordered(LegacyJsonObjectMapper.jsonToMapFlattener_v2(json))
+
+        where:
+        name               | json
+        "asset"            | ASSET
+        "root array"       | '[{"a": 1}, [2, 3], "four", null]'
+        "empty root array" | '[]'
+        "empty object"     | '{}'
+        "root string"      | '"scalar"'
+        "root number"      | '3.25'
+        "root null"        | 'null'
+        "trailing tokens"  | '{"a": 1} {"b": 2}'
+    }
+
+    def "the ArraySize entry comes right after the array's PRESENT entry, ahead of its elements"() {
+        when:
+        def keys = StreamingJsonFlattener.V2.flatten('{"list": [{"a": 1}, {"a": 2}]}').keySet() as List
+
+        then:
+        keys == ["list", "list.ArraySize", "list[0]", "list[0].a", "list[1]", "list[1].a"]
+        keys == LegacyJsonObjectMapper.jsonToMapFlattener_v2('{"list": [{"a": 1}, {"a": 2}]}').keySet() as List
+    }
+
+    def "numbers print exactly as the tree's JsonNode.asText()"() {
+        given:
+        def legacy = LegacyJsonObjectMapper.jsonToMapFlattener(ASSET)
+        def streamed = StreamingJsonFlattener.V1.flatten(ASSET)
+
+        expect:
+        ["numbers.int", "numbers.negative", "numbers.long", "numbers.bigint", "numbers.double", "numbers.whole",
+         "numbers.exponent", "numbers.small", "numbers.huge"].every { streamed[it] == legacy[it] }
+        streamed["numbers.bigint"] == "123456789012345678901234567890"
+        streamed["numbers.whole"] == "2.0"
+        streamed["numbers.huge"] == "Infinity"
+    }
+
+    def "prefixKey is used as the root path (#name)"() {
+        expect:
+        ordered(StreamingJsonFlattener.V1.withPrefixKey(prefix).flatten(json)) ==
+                ordered(LegacyJsonObjectMapper.jsonToMapFlattener(json, prefix))
+        ordered(StreamingJsonFlattener.V2.withPrefixKey(prefix).flatten(json)) ==
+                ordered(LegacyJsonObjectMapper.jsonToMapFlattener_v2(json, prefix))
+        ordered(JsonObjectMapper.jsonToMapFlattener_v2(json, prefix)) ==
+                ordered(LegacyJsonObjectMapper.jsonToMapFlattener_v2(json, prefix))
+
+        where:
+        name           | prefix     | json
+        "object"       | "response" | ASSET
+        "array"        | "items"    | '[1, {"a": [true]}]'
+        "scalar"       | "value"    | '"x"'
+        "empty prefix" | ""         | '{"a": {"b": 1}}'
+    }
+
+    def "onlyUnder keeps exactly the tree's entries at or below the path"() {
+        given:
+        def legacy = LegacyJsonObjectMapper.jsonToMapFlattener_v2(ASSET)
+        def expected = legacy.findAll { k, v -> k == "data.metadata" || k.startsWith("data.metadata.") || k.startsWith("data.metadata[") }
+
+        expect:
+        ordered(StreamingJsonFlattener.V2.onlyUnder("data.metadata").flatten(ASSET)) == ordered(expected)
+    }
+
+    def "streams and interned keys give the same map"() {
+        expect:
+        ordered(StreamingJsonFlattener.V2.flatten(new ByteArrayInputStream(ASSET.getBytes(StandardCharsets.UTF_8)))) ==
+                ordered(LegacyJsonObjectMapper.jsonToMapFlattener_v2(ASSET))
+        ordered(StreamingJsonFlattener.V2.withInternedKeys(true).flatten(ASSET)) ==
+                ordered(LegacyJsonObjectMapper.jsonToMapFlattener_v2(ASSET))
+    }
+
+    def "invalid JSON gives null from flattenIfValid, as isValidJson rejects it (#name)"() {
+        expect:
+        !JsonObjectMapper.isValidJson(json)
+        StreamingJsonFlattener.V2.flattenIfValid(json) == null
+        legacyRejects(json)
+
+        where:
+        name            | json
+        "truncated"     | '{"a": [1, 2'
+        "plain text"    | 'Internal Server Error'
+        "bad literal"   | '{"a": tru}'
+        "unquoted name" | '{a: 1}'
+    }
+
+    private static boolean legacyRejects(String json) {
+        try {
+            LegacyJsonObjectMapper.jsonToMapFlattener_v2(json)
+            return false
+        } catch (RuntimeException ignored) {
+            return true
+        }
+    }
+
+    private static List ordered(Map map) {
+        map.collect { k, v -> [k, v] }
+    }
+}
@@ -1,6 +1,6 @@
-import com.fasterxml.jackson.databind.ObjectMapper
-import com.fasterxml.jackson.databind.ObjectWriter
 import com.google.common.base.Strings
+import fox.fmc.partner.delivery.test.helper.AssetLocks
+import fox.fmc.partner.delivery.test.utils.JsonMappers
 
 import fox.mc2.testrail.constants.TestRailsConstants
 import fox.mc2.testrail.enums.TestRailsStatus
@@ -22,12 +22,15 @@ abstract class TestRailsSpec extends PartnerDeliveryTestBaseSpec {
     protected int runId
     @Shared
     protected List<Integer> casesId = []
-    //Shared fields that are used for recording results
+    //Per-iteration fields that are used for recording results; Spock creates a new instance for every iteration,
+    //so they stay isolated when iterations run in parallel. The shared collections above are guarded by casesId.
     private String comment
     private TestRailsStatus status
     private int testId
-    @Shared
+    //cases named by setTestIds() that this iteration has not reached yet
+    private final Deque<Integer> remainingTestIds = new ArrayDeque<>()
     protected long start
+    private final List<AssetLocks.Held> assetLocks = []
 
     public static int TEST_RAILS_USER_ID = 0
 
@@ -102,11 +105,23 @@ abstract class TestRailsSpec extends PartnerDeliveryTestBaseSpec {
     void setTestId(int testId) {
         this.testId = testId
         if (runId > 0 && testId > 0) {
-            casesId.add(testId)
-            TestRailsService.addCaseIdsToTestRun(runId, casesId, getCaseIds().isEmpty())
+            synchronized (casesId) {
+                casesId.add(testId)
+                TestRailsService.addCaseIdsToTestRun(runId, casesId, getCaseIds().isEmpty())
+            }
         }
     }
 
+    /**
+     * Names the dependent cases one iteration walks in order: the first becomes current, and each
+     * completeTestCase() moves on to the next. Cases the iteration never reaches are reported FAILED by cleanup().
+     */
+    void setTestIds(int... testIds) {
+        remainingTestIds.clear()
+        testIds.each { remainingTestIds.add(it) }
+        setTestId(remainingTestIds.poll())
+    }
+
     int getTestIDfromTestCase(int id) {
         if(REPORTING){
             id
@@ -139,6 +154,44 @@ abstract class TestRailsSpec extends PartnerDeliveryTestBaseSpec {
     }
 
     def setup() {
+        resetTestCase()
+    }
+
+    def cleanup() {
+        try {
+            addResult()
+            reportUnreachedTestCases()
+        } finally {
+            assetLocks.reverseEach { it.close() }
+            assetLocks.clear()
+        }
+    }
+
+    /**
+     * Reports the current case now and starts the next one named by setTestIds(), for an iteration that walks
+     * several dependent cases in order.
+     */
+    void completeTestCase(TestRailsStatus status) {
+        this.status = status
+        addResult()
+        resetTestCase()
+        if (!remainingTestIds.isEmpty()) {
+            setTestId(remainingTestIds.poll())
+        }
+    }
+
+    //an earlier case of the iteration failed, so the later ones never ran; they still get a result
+    private void reportUnreachedTestCases() {
+        int failedTestId = testId
+        while (!remainingTestIds.isEmpty()) {
+            resetTestCase()
+            setTestId(remainingTestIds.poll())
+            setComment("Not run: case ${failedTestId} of the same iteration failed first")
+            addResult()
+        }
+    }
+
+    private void resetTestCase() {
         if(REPORTING){
             //initialize TestRails case data
             start = System.currentTimeMillis()
@@ -148,11 +201,24 @@ abstract class TestRailsSpec extends PartnerDeliveryTestBaseSpec {
         }
     }
 
-
-    def cleanup() {
+    private void addResult() {
         if(REPORTING){
             JSONObject result = TestRailsService.addResultToTestRun(runId, status, testId, comment, TEST_RAILS_VERSION, start, getCaseIds(), TEST_RAILS_USER_ID)
-            if(result.size() > 0) testRailsResults.add(result)
+            if(result.size() > 0) {
+                synchronized (casesId) {
+                    testRailsResults.add(result)
+                }
+            }
+        }
+    }
+
+    /**
+     * Holds the asset exclusively until this iteration's cleanup, so parallel iterations on the same asset
+     * run one after the other. Null ids (negative cases) are ignored.
+     */
+    void lockAsset(String assetId) {
+        if (assetId != null) {
+            assetLocks << AssetLocks.lock(assetId)
         }
     }
 
@@ -164,9 +230,7 @@ abstract class TestRailsSpec extends PartnerDeliveryTestBaseSpec {
     }
 
     void addJsonFormatComment (Object object) {
-        ObjectWriter ow = new ObjectMapper().writer().withDefaultPrettyPrinter();
-
-        String json = ow.writeValueAsString(object);
+        String json = JsonMappers.PRETTY_WRITER.writeValueAsString(object);
         addCommentAndLog(json)
     }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+import org.spockframework.runtime.model.parallel.ExecutionMode
+
+// Parallel execution, off unless -Dspock.parallel=true (or mvn -Pparallel).
+// Specs run concurrently, and so do the features and where: rows inside a spec unless
+// -Dspock.parallel.iterations=false; StandInServerSpec opts out with @Execution(SAME_THREAD) and
+// LambdaLoadSpec runs @Isolated. Iterations on the same asset are serialized by TestRailsSpec.lockAsset,
+// but features and rows have no guaranteed order: steps that depend on each other (publish, then unpublish)
+// belong in one iteration, as in InvokeLambdaDeliveryCmsSpec.
+def iterations = Boolean.parseBoolean(System.getProperty("spock.parallel.iterations", "true"))
+
+runner {
+    parallel {
+        enabled Boolean.getBoolean("spock.parallel")
+        defaultSpecificationExecutionMode ExecutionMode.CONCURRENT
+        defaultExecutionMode(iterations ? ExecutionMode.CONCURRENT : ExecutionMode.SAME_THREAD)
+        fixed(Integer.getInteger("spock.parallel.workers", 4))
+    }
+}